@@ -0,0 +1,59 @@
+package frc.lib.configs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import frc.lib.configs.ControlledMotorConfig.ControlledMotorBuilder;
+import frc.lib.configs.FeedforwardControllerConfig.FeedforwardControllerBuilder;
+
+/** Measures the config builders and feedforward creation used by reconfigure and setup code */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConfigBenchmark {
+
+  private final ControlledMotorConfig motorConfig = ControlledMotorBuilder.defaults().build();
+
+  private final FeedforwardControllerConfig feedforwardConfig = 
+    FeedforwardControllerBuilder.defaults()
+      .kS(0.1)
+      .kV(0.12)
+      .kA(0.01)
+      .build();
+
+  private final SimpleMotorFeedforward feedforward = 
+    feedforwardConfig.createSimpleMotorFeedforward();
+
+  private double kP = 0.0;
+
+  @Benchmark
+  public ControlledMotorConfig editControlledMotorConfig() {
+    kP += 0.001;
+
+    return ControlledMotorBuilder.edit(motorConfig)
+      .kP(kP)
+      .build();
+  }
+
+  @Benchmark
+  public void createFeedforwards(Blackhole blackhole) {
+    blackhole.consume(feedforwardConfig.createSimpleMotorFeedforward());
+    blackhole.consume(feedforwardConfig.createArmFeedforward());
+    blackhole.consume(feedforwardConfig.createElevatorFeedforward());
+  }
+
+  @Benchmark
+  public double calculateFeedforward() {
+    kP += 0.001;
+
+    return feedforward.calculate(kP);
+  }
+}
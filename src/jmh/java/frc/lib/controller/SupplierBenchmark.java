@@ -0,0 +1,85 @@
+package frc.lib.controller;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import frc.lib.sensor.absolute.AbsoluteEncoder;
+
+/** Compares the boxed and primitive getters on ControlledMotor and AbsoluteEncoder */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SupplierBenchmark {
+
+  /** Motor whose position changes every read so nothing is constant folded */
+  private static class CountingMotor extends ControlledMotor {
+    private double posRotations = 0.0;
+
+    @Override
+    public void configure() {}
+
+    @Override
+    public DoubleSupplier getPosRotationsSupplier() {
+      return () -> posRotations += 0.001;
+    }
+  }
+
+  /** Encoder whose position changes every read so nothing is constant folded */
+  private static class CountingEncoder extends AbsoluteEncoder {
+    private double posRotations = 0.0;
+
+    @Override
+    public void configure() {}
+
+    @Override
+    public DoubleSupplier getPosRotationsSupplier() {
+      return () -> posRotations += 0.001;
+    }
+  }
+
+  private DoubleSupplier motorPrimitive;
+  private Supplier<Double> motorBoxed;
+  private DoubleSupplier encoderPrimitive;
+  private Supplier<Double> encoderBoxed;
+
+  @Setup
+  @SuppressWarnings("deprecation")
+  public void setup() {
+    CountingMotor motor = new CountingMotor();
+    CountingEncoder encoder = new CountingEncoder();
+
+    motorPrimitive = motor.getPosRotationsSupplier();
+    motorBoxed = motor.getPosRotations();
+    encoderPrimitive = encoder.getPosRotationsSupplier();
+    encoderBoxed = encoder.getPosRotations();
+  }
+
+  @Benchmark
+  public double motorPrimitive() {
+    return motorPrimitive.getAsDouble();
+  }
+
+  @Benchmark
+  public Double motorBoxed() {
+    return motorBoxed.get();
+  }
+
+  @Benchmark
+  public double encoderPrimitive() {
+    return encoderPrimitive.getAsDouble();
+  }
+
+  @Benchmark
+  public Double encoderBoxed() {
+    return encoderBoxed.get();
+  }
+}
@@ -0,0 +1,82 @@
+package frc.lib.signal;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import edu.wpi.first.hal.HAL;
+import frc.lib.CAN;
+
+/** 
+ * Compares refreshing a simulated swerve drive's signals through the registry against 
+ * the old per-device HashSet copy. Needs the Phoenix simulation natives.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SignalRefreshBenchmark {
+
+  /** Per-device signal sets, the way devices refreshed before the registry */
+  private Set<BaseStatusSignal>[] deviceSignals;
+
+  @Setup
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    HAL.initialize(500, 0);
+
+    deviceSignals = new Set[12];
+
+    // Four modules, each with a drive TalonFX, a steer TalonFX and a CANcoder
+    for (int module = 0; module < 4; module++) {
+      CAN driveCan = new CAN(module * 3 + 1);
+      CAN steerCan = new CAN(module * 3 + 2);
+      CAN encoderCan = new CAN(module * 3 + 3);
+
+      TalonFX drive = new TalonFX(driveCan.id(), driveCan.bus());
+      TalonFX steer = new TalonFX(steerCan.id(), steerCan.bus());
+      CANcoder encoder = new CANcoder(encoderCan.id(), encoderCan.bus());
+
+      new TalonFXSignals(drive, driveCan);
+      new TalonFXSignals(steer, steerCan);
+      SignalRegistry.register(encoderCan, encoder.getAbsolutePosition(), encoder.getVelocity());
+
+      deviceSignals[module * 3] = new HashSet<>(Set.of(
+        drive.getPosition(), drive.getVelocity(), drive.getAcceleration(), 
+        drive.getMotorVoltage(), drive.getStatorCurrent(), drive.getSupplyCurrent()));
+      deviceSignals[module * 3 + 1] = new HashSet<>(Set.of(
+        steer.getPosition(), steer.getVelocity(), steer.getAcceleration(), 
+        steer.getMotorVoltage(), steer.getStatorCurrent(), steer.getSupplyCurrent()));
+      deviceSignals[module * 3 + 2] = new HashSet<>(Set.of(
+        encoder.getAbsolutePosition(), encoder.getVelocity()));
+    }
+  }
+
+  @Benchmark
+  public void registryRefresh() {
+    SignalRegistry.refreshAll();
+  }
+
+  @Benchmark
+  public StatusCode perDeviceRefresh() {
+    StatusCode status = StatusCode.OK;
+
+    for (Set<BaseStatusSignal> signals : deviceSignals) {
+      status = BaseStatusSignal.refreshAll(signals.toArray(new BaseStatusSignal[0]));
+    }
+
+    return status;
+  }
+}
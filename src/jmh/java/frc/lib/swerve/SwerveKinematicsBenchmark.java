@@ -0,0 +1,63 @@
+package frc.lib.swerve;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/** 
+ * Compares SwerveKinematics against WPILib's SwerveDriveKinematics, 
+ * gc.alloc.rate.norm should be 0 B/op for the primitive path
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwerveKinematicsBenchmark {
+
+  private static final double MAX_SPEED = 4.5;
+
+  private final Translation2d[] translations = {
+    new Translation2d(0.3, 0.3),
+    new Translation2d(0.3, -0.3),
+    new Translation2d(-0.3, 0.3),
+    new Translation2d(-0.3, -0.3)
+  };
+
+  private final SwerveKinematics kinematics = new SwerveKinematics(translations);
+  private final SwerveDriveKinematics wpilibKinematics = new SwerveDriveKinematics(translations);
+
+  private final double[] speeds = new double[4];
+  private final double[] angles = new double[4];
+
+  private double t = 0.0;
+
+  @Benchmark
+  public double[] primitive() {
+    t += 0.001;
+
+    kinematics.toModuleStates(4.0 * Math.cos(t), 4.0 * Math.sin(t), 3.0, speeds, angles);
+    SwerveKinematics.desaturate(speeds, MAX_SPEED);
+
+    return speeds;
+  }
+
+  @Benchmark
+  public SwerveModuleState[] wpilib() {
+    t += 0.001;
+
+    SwerveModuleState[] states = wpilibKinematics.toSwerveModuleStates(
+      new ChassisSpeeds(4.0 * Math.cos(t), 4.0 * Math.sin(t), 3.0));
+    SwerveDriveKinematics.desaturateWheelSpeeds(states, MAX_SPEED);
+
+    return states;
+  }
+}
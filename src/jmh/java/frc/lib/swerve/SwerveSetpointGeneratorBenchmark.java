@@ -0,0 +1,56 @@
+package frc.lib.swerve;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/** 
+ * Times SwerveSetpointGenerator against a 100 us budget with a target that keeps turning, 
+ * so the steer limit search runs every call. gc.alloc.rate.norm should be 0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SwerveSetpointGeneratorBenchmark {
+
+  private final SwerveKinematics kinematics = new SwerveKinematics(
+    new Translation2d(0.3, 0.3),
+    new Translation2d(0.3, -0.3),
+    new Translation2d(-0.3, 0.3),
+    new Translation2d(-0.3, -0.3));
+
+  private final SwerveSetpointGenerator generator =
+    new SwerveSetpointGenerator(kinematics, 4.5, 10.0, 2.0, 0.02);
+
+  private final double[] speeds = new double[4];
+  private final double[] angles = new double[4];
+  private final double[] accels = new double[4];
+
+  private double t = 0.0;
+
+  @Benchmark
+  public double[] generate() {
+    t += 0.05;
+
+    generator.generate(4.0 * Math.cos(t), 4.0 * Math.sin(t), 3.0, speeds, angles, accels);
+
+    return speeds;
+  }
+
+  @Benchmark
+  public double[] unlimited() {
+    t += 0.05;
+
+    kinematics.toModuleStates(4.0 * Math.cos(t), 4.0 * Math.sin(t), 3.0, speeds, angles);
+    SwerveKinematics.desaturate(speeds, 4.5);
+
+    return speeds;
+  }
+}
@@ -0,0 +1,98 @@
+package frc.lib;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.configs.appliers.ConfigApplier;
+import frc.lib.configs.appliers.ConfigApplier.ConfigStatus;
+
+/** 
+ * Waits for the config writes queued by device constructors at boot. 
+ * Devices only queue their writes, so constructing every device first 
+ * and then waiting here configures them all in parallel.
+ */
+public class DeviceBringUp {
+
+  /**
+   * Waits for every queued config write to finish and prints a per-device timing report
+   * 
+   * @param timeoutSeconds longest time to wait for all devices together
+   * @return true if every device was configured in time
+   */
+  public static boolean awaitAll(double timeoutSeconds) {
+    long startNanos = System.nanoTime();
+
+    List<ParentDevice> devices = ConfigApplier.getDevices();
+
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[devices.size()];
+
+    for (int i = 0; i < futures.length; i++) {
+      futures[i] = ConfigApplier.getFuture(devices.get(i));
+    }
+
+    boolean timedOut = false;
+
+    try {
+      CompletableFuture.allOf(futures).get((long) (timeoutSeconds * 1e9), TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      timedOut = true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      timedOut = true;
+    } catch (ExecutionException e) {
+      // Failed writes are reported per device below
+    }
+
+    double waitedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+    report(devices, waitedSeconds);
+
+    boolean success = !timedOut;
+
+    for (ParentDevice device : devices) {
+      success &= ConfigApplier.getStatus(device) == ConfigStatus.APPLIED;
+    }
+
+    if (!success) {
+      DriverStation.reportWarning(
+        timedOut 
+          ? "Device bring up timed out after " + timeoutSeconds + " s" 
+          : "Device bring up finished with failures", 
+        false);
+    }
+
+    return success;
+  }
+
+  /**
+   * Logs how long each device took to configure, to the console and the data log
+   * 
+   * @param devices devices that were configured
+   * @param waitedSeconds time spent waiting
+   */
+  private static void report(List<ParentDevice> devices, double waitedSeconds) {
+    StringBuilder report = new StringBuilder("Device bring up report:\n");
+
+    for (ParentDevice device : devices) {
+      report.append(String.format(
+        "  %-10s id %2d on \"%s\": %-7s %7.1f ms%n",
+        device.getClass().getSimpleName(),
+        device.getDeviceID(),
+        device.getNetwork(),
+        ConfigApplier.getStatus(device),
+        ConfigApplier.getConfigureSeconds(device) * 1000.0));
+    }
+
+    report.append(String.format(
+      "  %d devices, waited %.1f ms", devices.size(), waitedSeconds * 1000.0));
+
+    DataLogManager.log(report.toString());
+  }
+}
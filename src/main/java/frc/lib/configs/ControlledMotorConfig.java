@@ -106,7 +106,7 @@ public record ControlledMotorConfig (
         0.0,
         0.0,
         0.0,
-        true,
+        false,
         0.1,
         0.1);
     }
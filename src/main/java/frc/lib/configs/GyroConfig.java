@@ -0,0 +1,84 @@
+package frc.lib.configs;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Gyro config
+ * 
+ * @param mountYaw yaw of the gyro relative to the robot
+ * @param mountPitch pitch of the gyro relative to the robot
+ * @param mountRoll roll of the gyro relative to the robot
+ */
+public record GyroConfig(
+    Rotation2d mountYaw,
+    Rotation2d mountPitch,
+    Rotation2d mountRoll) {
+
+  /** Easier and more modular way to construct gyro configs */
+  public static class GyroBuilder {
+    private Rotation2d mountYaw;
+    private Rotation2d mountPitch;
+    private Rotation2d mountRoll;
+
+    private GyroBuilder(
+        Rotation2d mountYaw,
+        Rotation2d mountPitch,
+        Rotation2d mountRoll) {
+      this.mountYaw = mountYaw;
+      this.mountPitch = mountPitch;
+      this.mountRoll = mountRoll;
+    }
+
+    /**
+     * Returns a builder with default values
+     * 
+     * @return a builder with default values
+     */
+    public static GyroBuilder defaults() {
+      return new GyroBuilder(
+        new Rotation2d(),
+        new Rotation2d(),
+        new Rotation2d());
+    }
+
+    /**
+     * Returns a builder with values copied from the input config
+     * 
+     * @param config config to be copied
+     * @return a builder with values copied from the input config
+     */
+    public static GyroBuilder edit(GyroConfig config) {
+      return new GyroBuilder(
+        config.mountYaw(),
+        config.mountPitch(),
+        config.mountRoll());
+    }
+
+    public GyroBuilder mountYaw(Rotation2d mountYaw) {
+      this.mountYaw = mountYaw;
+      return this;
+    }
+
+    public GyroBuilder mountPitch(Rotation2d mountPitch) {
+      this.mountPitch = mountPitch;
+      return this;
+    }
+
+    public GyroBuilder mountRoll(Rotation2d mountRoll) {
+      this.mountRoll = mountRoll;
+      return this;
+    }
+
+    /**
+     * Returns the builder as a config with private immutable values
+     * 
+     * @return the builder as a config with private immutable values
+     */
+    public GyroConfig build() {
+      return new GyroConfig(
+        this.mountYaw,
+        this.mountPitch,
+        this.mountRoll);
+    }
+  }
+}
@@ -0,0 +1,175 @@
+package frc.lib.configs;
+
+/** 
+ * Range sensor config
+ * 
+ * @param updateFrequencyHz how often the sensor takes a measurement
+ * @param longRange true measures up to 4 meters, false measures up to 1.3 meters with less
+ *     sensitivity to ambient light
+ * @param proximityThresholdMeters objects closer than this are detected
+ * @param proximityHysteresisMeters distance past the threshold an object must move
+ *     before it stops being detected
+ * @param minSignalStrength weakest signal that still counts as a valid measurement
+ * @param fovCenterXDegrees field of view center in x
+ * @param fovCenterYDegrees field of view center in y
+ * @param fovRangeXDegrees field of view width in x
+ * @param fovRangeYDegrees field of view width in y
+ * @param debounceSeconds time detection must stay changed before the detected trigger changes
+ */
+public record RangeSensorConfig(
+    double updateFrequencyHz,
+    boolean longRange,
+    double proximityThresholdMeters,
+    double proximityHysteresisMeters,
+    double minSignalStrength,
+    double fovCenterXDegrees,
+    double fovCenterYDegrees,
+    double fovRangeXDegrees,
+    double fovRangeYDegrees,
+    double debounceSeconds) {
+
+  /** Easier and more modular way to construct range sensor configs */
+  public static class RangeSensorBuilder {
+    private double updateFrequencyHz;
+    private boolean longRange;
+    private double proximityThresholdMeters;
+    private double proximityHysteresisMeters;
+    private double minSignalStrength;
+    private double fovCenterXDegrees;
+    private double fovCenterYDegrees;
+    private double fovRangeXDegrees;
+    private double fovRangeYDegrees;
+    private double debounceSeconds;
+
+    private RangeSensorBuilder(
+        double updateFrequencyHz,
+        boolean longRange,
+        double proximityThresholdMeters,
+        double proximityHysteresisMeters,
+        double minSignalStrength,
+        double fovCenterXDegrees,
+        double fovCenterYDegrees,
+        double fovRangeXDegrees,
+        double fovRangeYDegrees,
+        double debounceSeconds) {
+      this.updateFrequencyHz = updateFrequencyHz;
+      this.longRange = longRange;
+      this.proximityThresholdMeters = proximityThresholdMeters;
+      this.proximityHysteresisMeters = proximityHysteresisMeters;
+      this.minSignalStrength = minSignalStrength;
+      this.fovCenterXDegrees = fovCenterXDegrees;
+      this.fovCenterYDegrees = fovCenterYDegrees;
+      this.fovRangeXDegrees = fovRangeXDegrees;
+      this.fovRangeYDegrees = fovRangeYDegrees;
+      this.debounceSeconds = debounceSeconds;
+    }
+
+    /** 
+     * Returns a builder with default values
+     * 
+     * @return a builder with default values
+     */
+    public static RangeSensorBuilder defaults() {
+      return new RangeSensorBuilder(
+        50.0,
+        false,
+        0.4,
+        0.01,
+        2500.0,
+        0.0,
+        0.0,
+        27.0,
+        27.0,
+        0.0);
+    }
+
+    /**
+     * Returns a builder with values copied from the input config
+     * 
+     * @param config config to be copied
+     * @return a builder with values copied from the input config
+     */
+    public static RangeSensorBuilder edit(RangeSensorConfig config) {
+      return new RangeSensorBuilder(
+        config.updateFrequencyHz(),
+        config.longRange(),
+        config.proximityThresholdMeters(),
+        config.proximityHysteresisMeters(),
+        config.minSignalStrength(),
+        config.fovCenterXDegrees(),
+        config.fovCenterYDegrees(),
+        config.fovRangeXDegrees(),
+        config.fovRangeYDegrees(),
+        config.debounceSeconds());
+    }
+
+    public RangeSensorBuilder updateFrequencyHz(double updateFrequencyHz) {
+      this.updateFrequencyHz = updateFrequencyHz;
+      return this;
+    }
+
+    public RangeSensorBuilder longRange(boolean longRange) {
+      this.longRange = longRange;
+      return this;
+    }
+
+    public RangeSensorBuilder proximityThresholdMeters(double proximityThresholdMeters) {
+      this.proximityThresholdMeters = proximityThresholdMeters;
+      return this;
+    }
+
+    public RangeSensorBuilder proximityHysteresisMeters(double proximityHysteresisMeters) {
+      this.proximityHysteresisMeters = proximityHysteresisMeters;
+      return this;
+    }
+
+    public RangeSensorBuilder minSignalStrength(double minSignalStrength) {
+      this.minSignalStrength = minSignalStrength;
+      return this;
+    }
+
+    public RangeSensorBuilder fovCenterXDegrees(double fovCenterXDegrees) {
+      this.fovCenterXDegrees = fovCenterXDegrees;
+      return this;
+    }
+
+    public RangeSensorBuilder fovCenterYDegrees(double fovCenterYDegrees) {
+      this.fovCenterYDegrees = fovCenterYDegrees;
+      return this;
+    }
+
+    public RangeSensorBuilder fovRangeXDegrees(double fovRangeXDegrees) {
+      this.fovRangeXDegrees = fovRangeXDegrees;
+      return this;
+    }
+
+    public RangeSensorBuilder fovRangeYDegrees(double fovRangeYDegrees) {
+      this.fovRangeYDegrees = fovRangeYDegrees;
+      return this;
+    }
+
+    public RangeSensorBuilder debounceSeconds(double debounceSeconds) {
+      this.debounceSeconds = debounceSeconds;
+      return this;
+    }
+
+    /**
+     * Returns the builder as a config with private immutable values
+     * 
+     * @return the builder as a config with private immutable values
+     */
+    public RangeSensorConfig build() {
+      return new RangeSensorConfig(
+        this.updateFrequencyHz,
+        this.longRange,
+        this.proximityThresholdMeters,
+        this.proximityHysteresisMeters,
+        this.minSignalStrength,
+        this.fovCenterXDegrees,
+        this.fovCenterYDegrees,
+        this.fovRangeXDegrees,
+        this.fovRangeYDegrees,
+        this.debounceSeconds);
+    }
+  }
+}
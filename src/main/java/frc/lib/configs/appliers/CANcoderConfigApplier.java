@@ -1,5 +1,9 @@
 package frc.lib.configs.appliers;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.ctre.phoenix6.configs.CANcoderConfiguration;
 import com.ctre.phoenix6.configs.CANcoderConfigurator;
 import com.ctre.phoenix6.configs.MagnetSensorConfigs;
@@ -13,6 +17,10 @@ import frc.lib.configs.AbsoluteEncoderConfig;
 /** Applies CANcoder configs. */
 public class CANcoderConfigApplier extends ConfigApplier {
 
+  /** Magnet sensor configs built so far, identical encoders share one */
+  private static final Map<AbsoluteEncoderConfig, MagnetSensorConfigs> cachedConfigs =
+      new ConcurrentHashMap<>();
+
   /**
    * Reports to the user that a CANcoder failed configuration.
    *
@@ -24,18 +32,20 @@ public class CANcoderConfigApplier extends ConfigApplier {
   }
 
   /**
-   * Applies a factory default config to a CANcoder.
+   * Queues a factory default config for a CANcoder.
    *
    * @param cancoder the CANcoder.
+   * @return a future that completes with true if the config was applied.
    */
-  public static void applyFactoryDefault(CANcoder cancoder) {
+  public static CompletableFuture<Boolean> applyFactoryDefault(CANcoder cancoder) {
     CANcoderConfiguration factoryDefaults = new CANcoderConfiguration();
 
     CANcoderConfigurator configurator = cancoder.getConfigurator();
 
-    if (attempt(() -> configurator.apply(factoryDefaults)) == false) {
-      report(cancoder);
-    }
+    forget(cancoder);
+
+    return attemptAsync(
+      cancoder, factoryDefaults, () -> configurator.apply(factoryDefaults), () -> report(cancoder));
   }
 
   /**
@@ -58,18 +68,31 @@ public class CANcoderConfigApplier extends ConfigApplier {
   }
 
   /**
-   * Applies an absolute encoder config to a CANcoder.
+   * Queues an absolute encoder config for a CANcoder, skipped if it is the last config queued
+   * for the CANcoder.
    *
    * @param cancoder the CANcoder.
    * @param absoluteEncoderConfig the absolute encoder config.
+   * @return a future that completes with true if the config was applied.
    */
-  public static void apply(CANcoder cancoder, AbsoluteEncoderConfig absoluteEncoderConfig) {
-    MagnetSensorConfigs magnetSensorConfigs = createMagnetSensorConfigs(absoluteEncoderConfig);
+  public static CompletableFuture<Boolean> apply(
+      CANcoder cancoder, AbsoluteEncoderConfig absoluteEncoderConfig) {
+    if (isQueued(cancoder, absoluteEncoderConfig)) {
+      return getFuture(cancoder);
+    }
+
+    MagnetSensorConfigs magnetSensorConfigs = getCached(
+        cachedConfigs, absoluteEncoderConfig, CANcoderConfigApplier::createMagnetSensorConfigs);
 
     CANcoderConfigurator configurator = cancoder.getConfigurator();
 
-    if (attempt(() -> configurator.apply(magnetSensorConfigs)) == false) {
-      report(cancoder);
-    }
+    return remember(
+      cancoder,
+      absoluteEncoderConfig,
+      attemptAsync(
+        cancoder, 
+        magnetSensorConfigs, 
+        () -> configurator.apply(magnetSensorConfigs), 
+        () -> report(cancoder)));
   }
 }
\ No newline at end of file
@@ -1,14 +1,25 @@
 package frc.lib.configs.appliers;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.ctre.phoenix6.configs.CANrangeConfiguration;
 import com.ctre.phoenix6.configs.CANrangeConfigurator;
 import com.ctre.phoenix6.hardware.CANrange;
+import com.ctre.phoenix6.signals.UpdateModeValue;
 
 import edu.wpi.first.wpilibj.DriverStation;
 
+import frc.lib.configs.RangeSensorConfig;
+
 /** Applies CANrange configs */
 public class CANrangeConfigApplier extends ConfigApplier {
-  
+
+  /** Configurations built so far, identical sensors share one */
+  private static final Map<RangeSensorConfig, CANrangeConfiguration> cachedConfigs =
+    new ConcurrentHashMap<>();
+ 
   /**
    * Reports to the user that a CANrange failed configuration
    * 
@@ -16,21 +27,79 @@ public class CANrangeConfigApplier extends ConfigApplier {
    */
   private static void report(CANrange canRange) {
     DriverStation.reportWarning(
-      "Failed to apply config to Pigeon 2 with ID: " + canRange.getDeviceID(), false);
+      "Failed to apply config to CANrange with ID: " + canRange.getDeviceID(), false);
   }
 
   /**
-   * Applies a factory default config to a CANrange
+   * Queues a factory default config for a CANrange
    * 
-   * @param canRange
+   * @param canRange the CANrange
+   * @return a future that completes with true if the config was applied
    */
-  public static void applyFactoryDefault(CANrange canRange) {
+  public static CompletableFuture<Boolean> applyFactoryDefault(CANrange canRange) {
     CANrangeConfiguration factoryDefaults = new CANrangeConfiguration();
 
     CANrangeConfigurator configurator = canRange.getConfigurator();
 
-    if (attempt(() -> configurator.apply(factoryDefaults)) == false) {
-      report(canRange);
+    forget(canRange);
+
+    return attemptAsync(
+      canRange, factoryDefaults, () -> configurator.apply(factoryDefaults), () -> report(canRange));
+  }
+
+  /**
+   * Creates a full CANrange configuration for the range sensor config
+   * 
+   * @param config the range sensor config
+   * @return the created CANrange configuration
+   */
+  private static CANrangeConfiguration createConfiguration(RangeSensorConfig config) {
+    CANrangeConfiguration canRangeConfig = new CANrangeConfiguration();
+
+    canRangeConfig.ToFParams.UpdateMode =
+      config.longRange()
+        ? UpdateModeValue.LongRangeUserFreq
+        : UpdateModeValue.ShortRangeUserFreq;
+    canRangeConfig.ToFParams.UpdateFrequency = config.updateFrequencyHz();
+
+    canRangeConfig.ProximityParams.ProximityThreshold = config.proximityThresholdMeters();
+    canRangeConfig.ProximityParams.ProximityHysteresis = config.proximityHysteresisMeters();
+    canRangeConfig.ProximityParams.MinSignalStrengthForValidMeasurement =
+      config.minSignalStrength();
+
+    canRangeConfig.FovParams.FOVCenterX = config.fovCenterXDegrees();
+    canRangeConfig.FovParams.FOVCenterY = config.fovCenterYDegrees();
+    canRangeConfig.FovParams.FOVRangeX = config.fovRangeXDegrees();
+    canRangeConfig.FovParams.FOVRangeY = config.fovRangeYDegrees();
+
+    return canRangeConfig;
+  }
+
+  /**
+   * Queues a range sensor config for a CANrange, skipped if it is the last config queued
+   * for the CANrange
+   * 
+   * @param canRange the CANrange
+   * @param config the range sensor config
+   * @return a future that completes with true if the config was applied
+   */
+  public static CompletableFuture<Boolean> apply(CANrange canRange, RangeSensorConfig config) {
+    if (isQueued(canRange, config)) {
+      return getFuture(canRange);
     }
+
+    CANrangeConfiguration canRangeConfig =
+      getCached(cachedConfigs, config, CANrangeConfigApplier::createConfiguration);
+
+    CANrangeConfigurator configurator = canRange.getConfigurator();
+
+    return remember(
+      canRange,
+      config,
+      attemptAsync(
+        canRange,
+        canRangeConfig,
+        () -> configurator.apply(canRangeConfig),
+        () -> report(canRange)));
   }
 }
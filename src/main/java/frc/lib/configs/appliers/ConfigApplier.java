@@ -1,44 +1,396 @@
 package frc.lib.configs.appliers;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.timing.LoopTimer;
+import frc.lib.timing.LoopTiming;
 
 /** Applies configs */
 public class ConfigApplier {
+
+  /** Status of the config writes queued for a device */
+  public enum ConfigStatus {
+    /** Nothing has been queued for the device */
+    NONE,
+    /** Writes are queued or running */
+    PENDING,
+    /** Every queued write succeeded */
+    APPLIED,
+    /** The latest write to at least one config group ran out of attempts */
+    FAILED
+  }
+
+  /** Attempts per config write before giving up */
+  private static final int MAX_ATTEMPTS = 10;
+
+  /** Delay after the first failed attempt, doubled after every failure */
+  private static final long INITIAL_BACKOFF_MILLIS = 10;
+
+  /** Longest delay between attempts */
+  private static final long MAX_BACKOFF_MILLIS = 500;
+
+  /** Time taken by each config write including retries */
+  private static final LoopTimer applyTimer = LoopTiming.create("ConfigApplier.apply", 0.1);
+
+  /** Worker threads, writes to different devices run in parallel */
+  private static final ExecutorService executor = Executors.newFixedThreadPool(4, runnable -> {
+    Thread thread = new Thread(runnable, "ConfigApplier");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /** Identifies a config group on a device */
+  private record WriteKey(ParentDevice device, Class<?> group) {}
+
+  /** A queued config write */
+  private static class PendingWrite {
+    
+    /** Applies the config, replaced when a newer write to the same group is coalesced */
+    private Supplier<StatusCode> applier;
+
+    /** Reports the failure to the user */
+    private final Runnable report;
+
+    /** Completes with true if the write succeeded */
+    private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    /** True once a worker has picked up the write, guarded by the class lock */
+    private boolean started = false;
+
+    private PendingWrite(Supplier<StatusCode> applier, Runnable report) {
+      this.applier = applier;
+      this.report = report;
+    }
+  }
+
+  /** Writes that have not started yet, guarded by the class lock */
+  private static final Map<WriteKey, PendingWrite> pending = new HashMap<>();
+
+  /** Last write queued per device, writes to one device run in queue order */
+  private static final Map<ParentDevice, PendingWrite> lastWrites = new HashMap<>();
+
+  /** Completes when the last write queued per device finishes */
+  private static final Map<ParentDevice, CompletableFuture<Boolean>> deviceTails = 
+    new ConcurrentHashMap<>();
+
+  /** Time the first write was queued per device, from System.nanoTime */
+  private static final Map<ParentDevice, Long> queuedTimes = new ConcurrentHashMap<>();
+
+  /** Time the latest write finished per device, from System.nanoTime */
+  private static final Map<ParentDevice, Long> finishedTimes = new ConcurrentHashMap<>();
+
+  /** Config groups whose latest write failed, cleared when a later write to the group succeeds */
+  private static final Set<WriteKey> failedWrites = ConcurrentHashMap.newKeySet();
+
+  /** Entries kept per config cache, live tuning can create a new config every loop */
+  private static final int MAX_CACHED_CONFIGS = 64;
+
+  /** Last config queued per device, an equal config queued again is skipped */
+  private static final Map<ParentDevice, Object> lastQueued = new ConcurrentHashMap<>();
   
   /**
-   * Attempts to apply a config. Returns true if successful.
+   * Queues a Phoenix 6 config write on a background thread and returns immediately. 
+   * Writes to the same device run in order, failed attempts are retried with backoff, 
+   * and a write to a group that is still waiting behind no other write is replaced 
+   * instead of queued twice.
+   *
+   * @param device the device being configured
+   * @param config the config being applied, its type identifies the config group
+   * @param applier a function that attempts to apply the config
+   * @param report reports a failure to the user
+   * @return a future that completes with true if the write succeeded
+   */
+  protected static CompletableFuture<Boolean> attemptAsync(
+      ParentDevice device, Object config, Supplier<StatusCode> applier, Runnable report) {
+    return attemptAsync(device, config.getClass(), applier, report);
+  }
+
+  /**
+   * Queues a Phoenix 6 write on a background thread and returns immediately, 
+   * for writes that are not a config object (such as signal update frequencies)
    *
-   * @param applier a function that attempts to apply a config. Returns the result of the
-   *     application.
-   * @param isSuccess a function that returns true if the result of an application is a success.
-   * @param retries the number of unsuccessful attempts before failing.
-   * @return true if successful.
-   */
-  protected static <Result> boolean attempt(
-      Supplier<Result> applier, Function<Result, Boolean> isSuccess, int retries) {
+   * @param device the device being configured
+   * @param group identifies the kind of write, used for coalescing
+   * @param applier a function that attempts the write
+   * @param report reports a failure to the user
+   * @return a future that completes with true if the write succeeded
+   */
+  protected static synchronized CompletableFuture<Boolean> attemptAsync(
+      ParentDevice device, Class<?> group, Supplier<StatusCode> applier, Runnable report) {
     
-    for (int i = 0; i < retries; i++) {
-      Result result = applier.get();
+    WriteKey key = new WriteKey(device, group);
+    PendingWrite write = pending.get(key);
 
-      if (isSuccess.apply(result)) {
-        return true;
-      }
+    // Only coalesce with the newest write so writes to other groups keep their order
+    if (write != null && !write.started && lastWrites.get(device) == write) {
+      write.applier = applier;
+      return write.result;
     }
 
-    return false;
+    PendingWrite newWrite = new PendingWrite(applier, report);
+    pending.put(key, newWrite);
+    lastWrites.put(device, newWrite);
+    queuedTimes.putIfAbsent(device, System.nanoTime());
+
+    CompletableFuture<Boolean> tail = 
+      deviceTails.getOrDefault(device, CompletableFuture.completedFuture(true));
+
+    deviceTails.put(
+      device, 
+      tail.handleAsync((previous, error) -> run(key, newWrite), executor));
+
+    return newWrite.result;
   }
 
   /**
-   * Attempts to apply a Phoenix 6 config. Returns true if successful.
+   * Queues a separate update frequency for each of a device's signals, then disables every
+   * signal of the device that has no frequency set
    *
-   * @param applier a function that attempts to apply a config. Returns the result of the
-   *     application.
-   * @return true if successful.
+   * @param device the device
+   * @param frequenciesHz update frequency of each signal
+   * @param signals signals that are read
+   * @return a future that completes with true if the frequencies were applied
+   */
+  public static CompletableFuture<Boolean> applyUpdateFrequencies(
+      ParentDevice device, double[] frequenciesHz, BaseStatusSignal[] signals) {
+
+    return attemptAsync(
+      device,
+      BaseStatusSignal.class,
+      () -> {
+        for (int i = 0; i < signals.length; i++) {
+          StatusCode status = signals[i].setUpdateFrequency(frequenciesHz[i]);
+
+          if (!status.isOK()) {
+            return status;
+          }
+        }
+
+        return device.optimizeBusUtilization();
+      },
+      () -> DriverStation.reportWarning(
+        "Failed to set signal update frequencies for device with ID: " + device.getDeviceID(),
+        false));
+  }
+
+  /**
+   * Returns the cached value for a config, creating and caching it if there is none. 
+   * Cached values are shared between devices and must not be modified.
+   * 
+   * @param cache the cache
+   * @param config the config, compared by equality
+   * @param factory creates the value for a config
+   * @return the cached value for the config
+   */
+  protected static <Config, Value> Value getCached(
+      Map<Config, Value> cache, Config config, Function<Config, Value> factory) {
+    
+    Value value = cache.get(config);
+
+    if (value == null) {
+      if (cache.size() >= MAX_CACHED_CONFIGS) {
+        cache.clear();
+      }
+
+      value = factory.apply(config);
+      cache.put(config, value);
+    }
+
+    return value;
+  }
+
+  /**
+   * Returns true if an equal config was the last one queued for a device
+   * 
+   * @param device the device
+   * @param config the config
+   * @return true if an equal config was the last one queued for the device
+   */
+  protected static boolean isQueued(ParentDevice device, Object config) {
+    return config.equals(lastQueued.get(device));
+  }
+
+  /**
+   * Records the config queued for a device so an equal config is not queued again, 
+   * forgotten if the write fails
+   * 
+   * @param device the device
+   * @param config the config
+   * @param result result of the write
+   * @return the result of the write
+   */
+  protected static CompletableFuture<Boolean> remember(
+      ParentDevice device, Object config, CompletableFuture<Boolean> result) {
+    
+    lastQueued.put(device, config);
+
+    result.thenAccept(success -> {
+      if (!success) {
+        lastQueued.remove(device, config);
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Forgets the config queued for a device, used after a write that changes the whole device
+   * 
+   * @param device the device
+   */
+  protected static void forget(ParentDevice device) {
+    lastQueued.remove(device);
+  }
+
+  /**
+   * Runs a queued write on a worker thread
+   * 
+   * @param key device and config group of the write
+   * @param write the write
+   * @return true if the write succeeded
+   */
+  private static boolean run(WriteKey key, PendingWrite write) {
+    Supplier<StatusCode> applier;
+
+    synchronized (ConfigApplier.class) {
+      write.started = true;
+      pending.remove(key, write);
+      applier = write.applier;
+    }
+
+    long start = applyTimer.start();
+    long backoffMillis = INITIAL_BACKOFF_MILLIS;
+    boolean success = false;
+
+    for (int i = 0; i < MAX_ATTEMPTS; i++) {
+      if (applier.get().isOK()) {
+        success = true;
+        break;
+      }
+
+      try {
+        Thread.sleep(backoffMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+
+      backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+    }
+
+    if (success) {
+      failedWrites.remove(key);
+    } else {
+      failedWrites.add(key);
+      write.report.run();
+    }
+
+    applyTimer.stop(start);
+
+    finishedTimes.put(key.device(), System.nanoTime());
+    write.result.complete(success);
+
+    return success;
+  }
+
+  /**
+   * Combines the results of several config writes
+   * 
+   * @param results results of the config writes
+   * @return a future that completes with true if every write succeeded
    */
-  protected static boolean attempt(Supplier<StatusCode> applier) {
-    return attempt(() -> applier.get(), StatusCode::isOK, 10);
+  @SafeVarargs
+  protected static CompletableFuture<Boolean> allSucceeded(CompletableFuture<Boolean>... results) {
+    return allSucceeded(List.of(results));
+  }
+
+  /**
+   * Combines the results of several config writes
+   * 
+   * @param results results of the config writes
+   * @return a future that completes with true if every write succeeded
+   */
+  protected static CompletableFuture<Boolean> allSucceeded(
+      List<CompletableFuture<Boolean>> results) {
+    CompletableFuture<Boolean> combined = CompletableFuture.completedFuture(true);
+
+    for (CompletableFuture<Boolean> result : results) {
+      combined = combined.thenCombine(result, (a, b) -> a && b);
+    }
+
+    return combined;
+  }
+
+  /**
+   * Returns the status of the config writes queued for a device
+   * 
+   * @param device the device
+   * @return the status of the config writes queued for a device
+   */
+  public static ConfigStatus getStatus(ParentDevice device) {
+    for (WriteKey key : failedWrites) {
+      if (key.device() == device) {
+        return ConfigStatus.FAILED;
+      }
+    }
+
+    CompletableFuture<Boolean> tail = deviceTails.get(device);
+
+    if (tail == null) {
+      return ConfigStatus.NONE;
+    }
+
+    return tail.isDone() ? ConfigStatus.APPLIED : ConfigStatus.PENDING;
+  }
+
+  /**
+   * Returns a future that completes once every write queued so far for a device has finished
+   * 
+   * @param device the device
+   * @return a future that completes with true if the last queued write succeeded
+   */
+  public static CompletableFuture<Boolean> getFuture(ParentDevice device) {
+    return deviceTails.getOrDefault(device, CompletableFuture.completedFuture(true));
+  }
+
+  /**
+   * Returns every device that has had a config write queued
+   * 
+   * @return every device that has had a config write queued
+   */
+  public static List<ParentDevice> getDevices() {
+    return new ArrayList<>(deviceTails.keySet());
+  }
+
+  /**
+   * Returns the time from the first queued write to the latest finished write for a device
+   * 
+   * @param device the device
+   * @return the time in seconds, or NaN if no write has finished
+   */
+  public static double getConfigureSeconds(ParentDevice device) {
+    Long queued = queuedTimes.get(device);
+    Long finished = finishedTimes.get(device);
+
+    if (queued == null || finished == null) {
+      return Double.NaN;
+    }
+
+    return (finished - queued) / 1e9;
   }
 }
@@ -1,14 +1,25 @@
 package frc.lib.configs.appliers;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.ctre.phoenix6.configs.MountPoseConfigs;
 import com.ctre.phoenix6.configs.Pigeon2Configuration;
 import com.ctre.phoenix6.configs.Pigeon2Configurator;
 import com.ctre.phoenix6.hardware.Pigeon2;
 
 import edu.wpi.first.wpilibj.DriverStation;
 
+import frc.lib.configs.GyroConfig;
+
 /** Applies Pigeon 2 configs */
 public class Pigeon2ConfigApplier extends ConfigApplier {
-  
+
+  /** Mount pose configs built so far */
+  private static final Map<GyroConfig, MountPoseConfigs> cachedConfigs =
+    new ConcurrentHashMap<>();
+
   /**
    * Reports to the user that a Pigeon 2 failed configuration
    * 
@@ -20,16 +31,62 @@ public class Pigeon2ConfigApplier extends ConfigApplier {
   }
 
   /**
-   * Applies a factory default config to a Pigeon 2
-   * @param pigeon2
+   * Queues a factory default config for a Pigeon 2
+   * 
+   * @param pigeon2 the Pigeon 2
+   * @return a future that completes with true if the config was applied
    */
-  public static void applyFactoryDefault(Pigeon2 pigeon2) {
+  public static CompletableFuture<Boolean> applyFactoryDefault(Pigeon2 pigeon2) {
     Pigeon2Configuration factoryDefaults = new Pigeon2Configuration();
 
     Pigeon2Configurator configurator = pigeon2.getConfigurator();
 
-    if (attempt(() -> configurator.apply(factoryDefaults)) == false) {
-      report(pigeon2);
+    forget(pigeon2);
+
+    return attemptAsync(
+      pigeon2, factoryDefaults, () -> configurator.apply(factoryDefaults), () -> report(pigeon2));
+  }
+
+  /**
+   * Creates the mount pose configs for the gyro config
+   * 
+   * @param gyroConfig the gyro config
+   * @return the created mount pose configs
+   */
+  private static MountPoseConfigs createMountPoseConfigs(GyroConfig gyroConfig) {
+    MountPoseConfigs mountPoseConfigs = new MountPoseConfigs();
+
+    mountPoseConfigs.MountPoseYaw = gyroConfig.mountYaw().getDegrees();
+    mountPoseConfigs.MountPosePitch = gyroConfig.mountPitch().getDegrees();
+    mountPoseConfigs.MountPoseRoll = gyroConfig.mountRoll().getDegrees();
+
+    return mountPoseConfigs;
+  }
+
+  /**
+   * Queues a gyro config for a Pigeon 2, skipped if it is the last config queued for the Pigeon 2
+   * 
+   * @param pigeon2 the Pigeon 2
+   * @param gyroConfig the gyro config
+   * @return a future that completes with true if the config was applied
+   */
+  public static CompletableFuture<Boolean> apply(Pigeon2 pigeon2, GyroConfig gyroConfig) {
+    if (isQueued(pigeon2, gyroConfig)) {
+      return getFuture(pigeon2);
     }
+
+    MountPoseConfigs mountPoseConfigs =
+      getCached(cachedConfigs, gyroConfig, Pigeon2ConfigApplier::createMountPoseConfigs);
+
+    Pigeon2Configurator configurator = pigeon2.getConfigurator();
+
+    return remember(
+      pigeon2,
+      gyroConfig,
+      attemptAsync(
+        pigeon2,
+        mountPoseConfigs,
+        () -> configurator.apply(mountPoseConfigs),
+        () -> report(pigeon2)));
   }
 }
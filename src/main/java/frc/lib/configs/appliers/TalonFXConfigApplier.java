@@ -1,20 +1,58 @@
 package frc.lib.configs.appliers;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.configs.ClosedLoopGeneralConfigs;
 import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
 import com.ctre.phoenix6.configs.FeedbackConfigs;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
+import com.ctre.phoenix6.configs.Slot0Configs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.configs.TalonFXConfigurator;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
+import com.ctre.phoenix6.signals.GravityTypeValue;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 
 import edu.wpi.first.wpilibj.DriverStation;
 
+import frc.lib.configs.ControlledMotorConfig;
 import frc.lib.configs.MotorConfig;
 
 /** Applies TalonFX configs */
 public class TalonFXConfigApplier extends ConfigApplier {
+
+  /** Identifies a full TalonFX configuration */
+  private record ConfigurationKey(
+      ControlledMotorConfig config,
+      GravityTypeValue gravityType,
+      FeedbackSensorSourceValue source,
+      int remoteSensorID) {}
+
+  /** Config groups written for a motor config */
+  private record MotorConfigs(
+      CurrentLimitsConfigs currentLimitsConfigs,
+      FeedbackConfigs feedbackConfigs,
+      MotorOutputConfigs motorOutputConfigs) {}
+
+  /** Full configurations built so far, identical modules share one */
+  private static final Map<ConfigurationKey, TalonFXConfiguration> configurations =
+    new ConcurrentHashMap<>();
+
+  /** Motor config groups built so far */
+  private static final Map<MotorConfig, MotorConfigs> motorConfigs = new ConcurrentHashMap<>();
+
+  /** Current limits written on their own, one reused per TalonFX */
+  private static final Map<TalonFX, CurrentLimitsConfigs> currentLimits =
+    new ConcurrentHashMap<>();
   
   /**
    * Reports to the user that a TalonFX failed configuration
@@ -27,18 +65,20 @@ public class TalonFXConfigApplier extends ConfigApplier {
   }
 
   /**
-   * Applies a factory default config to a TalonFX
+   * Queues a factory default config for a TalonFX
    * 
    * @param talonFX the TalonFX
+   * @return a future that completes with true if the config was applied
    */
-  public static void applyFactoryDefault(TalonFX talonFX) {
+  public static CompletableFuture<Boolean> applyFactoryDefault(TalonFX talonFX) {
     TalonFXConfiguration factoryDefaults = new TalonFXConfiguration();
 
     TalonFXConfigurator configurator = talonFX.getConfigurator();
 
-    if (attempt(() -> configurator.apply(factoryDefaults)) == false) {
-      report(talonFX);
-    }
+    forget(talonFX);
+
+    return attemptAsync(
+      talonFX, factoryDefaults, () -> configurator.apply(factoryDefaults), () -> report(talonFX));
   }
 
   /**
@@ -68,8 +108,7 @@ public class TalonFXConfigApplier extends ConfigApplier {
   private static FeedbackConfigs createFeedbackConfigs(MotorConfig motorConfig) {
     FeedbackConfigs feedbackConfigs = new FeedbackConfigs();
 
-    // TODO This needs to be rethought if a fused/remote sensor is going to be used
-    // By default, the sensor is the motor sensor, so we can use the motor sensor
+    // The sensor is the motor sensor, remote sensors use createRemoteFeedbackConfigs
     feedbackConfigs.SensorToMechanismRatio = motorConfig.motorToMechRatio();
 
     return feedbackConfigs;
@@ -97,28 +136,522 @@ public class TalonFXConfigApplier extends ConfigApplier {
   }
 
   /**
-   * Applies a motor config to a TalonFX
+   * Creates the config groups for the motor config
+   * 
+   * @param motorConfig the motor config
+   * @return the created config groups
+   */
+  private static MotorConfigs createMotorConfigs(MotorConfig motorConfig) {
+    return new MotorConfigs(
+      createCurrentLimitsConfigs(motorConfig),
+      createFeedbackConfigs(motorConfig),
+      createMotorOutputConfigs(motorConfig));
+  }
+
+  /**
+   * Queues a motor config for a TalonFX, skipped if it is the last config queued for the TalonFX
    * 
    * @param talonFX the TalonFX
    * @param motorConfig the motor config
+   * @return a future that completes with true if every config group was applied
    */
-  public static void apply(TalonFX talonFX, MotorConfig motorConfig) {
-    CurrentLimitsConfigs currentLimitsConfigs = createCurrentLimitsConfigs(motorConfig);
-    FeedbackConfigs feedbackConfigs = createFeedbackConfigs(motorConfig);
-    MotorOutputConfigs motorOutputConfigs = createMotorOutputConfigs(motorConfig);
+  public static CompletableFuture<Boolean> apply(TalonFX talonFX, MotorConfig motorConfig) {
+    if (isQueued(talonFX, motorConfig)) {
+      return getFuture(talonFX);
+    }
+
+    MotorConfigs configs = 
+      getCached(motorConfigs, motorConfig, TalonFXConfigApplier::createMotorConfigs);
+
+    CurrentLimitsConfigs currentLimitsConfigs = configs.currentLimitsConfigs();
+    FeedbackConfigs feedbackConfigs = configs.feedbackConfigs();
+    MotorOutputConfigs motorOutputConfigs = configs.motorOutputConfigs();
 
     TalonFXConfigurator configurator = talonFX.getConfigurator();
 
-    if (attempt(() -> configurator.apply(currentLimitsConfigs)) == false) {
-      report(talonFX);
+    return remember(
+      talonFX,
+      motorConfig,
+      allSucceeded(
+        queue(talonFX, currentLimitsConfigs, () -> configurator.apply(currentLimitsConfigs)),
+        queue(talonFX, feedbackConfigs, () -> configurator.apply(feedbackConfigs)),
+        queue(talonFX, motorOutputConfigs, () -> configurator.apply(motorOutputConfigs))));
+  }
+
+  /**
+   * Queues a config group write for a TalonFX, reporting failures
+   * 
+   * @param talonFX the TalonFX
+   * @param config the config group being applied
+   * @param applier a function that attempts to apply the config group
+   * @return a future that completes with true if the config group was applied
+   */
+  private static CompletableFuture<Boolean> queue(
+      TalonFX talonFX, Object config, Supplier<StatusCode> applier) {
+    return attemptAsync(talonFX, config, applier, () -> report(talonFX));
+  }
+
+  /**
+   * Creates the slot 0 configs for the controlled motor config
+   * 
+   * @param config the controlled motor config
+   * @param gravityType how kG is applied
+   * @return the created slot 0 configs
+   */
+  private static Slot0Configs createSlot0Configs(
+      ControlledMotorConfig config, GravityTypeValue gravityType) {
+    Slot0Configs slot0Configs = new Slot0Configs();
+
+    slot0Configs.GravityType = gravityType;
+
+    slot0Configs.kP = config.kP();
+    slot0Configs.kI = config.kI();
+    slot0Configs.kD = config.kD();
+    slot0Configs.kS = config.kS();
+    slot0Configs.kG = config.kG();
+    slot0Configs.kV = config.kV();
+    slot0Configs.kA = config.kA();
+
+    return slot0Configs;
+  }
+
+  /**
+   * Creates the current limits configs for the controlled motor config
+   * 
+   * @param config the controlled motor config
+   * @return the created current limits configs
+   */
+  private static CurrentLimitsConfigs createCurrentLimitsConfigs(ControlledMotorConfig config) {
+    CurrentLimitsConfigs currentLimitsConfigs = new CurrentLimitsConfigs();
+
+    currentLimitsConfigs.StatorCurrentLimit = config.statorCurrentLimit();
+    currentLimitsConfigs.StatorCurrentLimitEnable = true;
+    currentLimitsConfigs.SupplyCurrentLimit = config.supplyCurrentLimit();
+    currentLimitsConfigs.SupplyCurrentLimitEnable = true;
+
+    return currentLimitsConfigs;
+  }
+
+  /**
+   * Creates the motor output configs for the controlled motor config
+   * 
+   * @param config the controlled motor config
+   * @return the created motor output configs
+   */
+  private static MotorOutputConfigs createMotorOutputConfigs(ControlledMotorConfig config) {
+    MotorOutputConfigs motorOutputConfigs = new MotorOutputConfigs();
+
+    motorOutputConfigs.Inverted =
+      config.ccwPositive()
+        ? InvertedValue.CounterClockwise_Positive
+        : InvertedValue.Clockwise_Positive;
+    motorOutputConfigs.NeutralMode =
+      config.neutralBrake() 
+        ? NeutralModeValue.Brake 
+        : NeutralModeValue.Coast;
+
+    return motorOutputConfigs;
+  }
+
+  /**
+   * Creates the feedback configs for the controlled motor config using the motor sensor
+   * 
+   * @param config the controlled motor config
+   * @return the created feedback configs
+   */
+  private static FeedbackConfigs createFeedbackConfigs(ControlledMotorConfig config) {
+    FeedbackConfigs feedbackConfigs = new FeedbackConfigs();
+
+    feedbackConfigs.FeedbackSensorSource = FeedbackSensorSourceValue.RotorSensor;
+    feedbackConfigs.SensorToMechanismRatio = config.motorToMechRatio();
+
+    return feedbackConfigs;
+  }
+
+  /**
+   * Creates the feedback configs for the controlled motor config using a remote CANcoder. 
+   * The CANcoder is assumed to be on the mechanism, so the motor to mechanism ratio 
+   * becomes the rotor to sensor ratio.
+   * 
+   * @param config the controlled motor config
+   * @param source FusedCANcoder, SyncCANcoder or RemoteCANcoder
+   * @param remoteSensorID CAN id of the CANcoder
+   * @return the created feedback configs
+   */
+  private static FeedbackConfigs createRemoteFeedbackConfigs(
+      ControlledMotorConfig config, FeedbackSensorSourceValue source, int remoteSensorID) {
+    FeedbackConfigs feedbackConfigs = new FeedbackConfigs();
+
+    feedbackConfigs.FeedbackSensorSource = source;
+    feedbackConfigs.FeedbackRemoteSensorID = remoteSensorID;
+    feedbackConfigs.SensorToMechanismRatio = 1.0;
+    feedbackConfigs.RotorToSensorRatio = config.motorToMechRatio();
+
+    return feedbackConfigs;
+  }
+
+  /**
+   * Creates the motion magic configs for the controlled motor config
+   * 
+   * @param config the controlled motor config
+   * @return the created motion magic configs
+   */
+  private static MotionMagicConfigs createMotionMagicConfigs(ControlledMotorConfig config) {
+    MotionMagicConfigs motionMagicConfigs = new MotionMagicConfigs();
+
+    motionMagicConfigs.MotionMagicCruiseVelocity = config.maxVelocity();
+    motionMagicConfigs.MotionMagicAcceleration = config.maxAcceleration();
+
+    // Expo profiles follow the motor's own kV and kA, only used by Motion Magic Expo requests
+    if (config.kV() > 0.0 && config.kA() > 0.0) {
+      motionMagicConfigs.MotionMagicExpo_kV = config.kV();
+      motionMagicConfigs.MotionMagicExpo_kA = config.kA();
     }
 
-    if (attempt(() -> configurator.apply(feedbackConfigs)) == false) {
-      report(talonFX);
+    return motionMagicConfigs;
+  }
+
+  /**
+   * Creates the closed loop general configs for the controlled motor config
+   * 
+   * @param config the controlled motor config
+   * @return the created closed loop general configs
+   */
+  private static ClosedLoopGeneralConfigs createClosedLoopGeneralConfigs(
+      ControlledMotorConfig config) {
+    ClosedLoopGeneralConfigs closedLoopGeneralConfigs = new ClosedLoopGeneralConfigs();
+
+    closedLoopGeneralConfigs.ContinuousWrap = config.continuous();
+
+    return closedLoopGeneralConfigs;
+  }
+
+  /**
+   * Creates a full TalonFX configuration
+   * 
+   * @param key the controlled motor config, gravity type and feedback sensor
+   * @return the created TalonFX configuration
+   */
+  private static TalonFXConfiguration createConfiguration(ConfigurationKey key) {
+    TalonFXConfiguration talonFXConfig = new TalonFXConfiguration();
+    ControlledMotorConfig config = key.config();
+
+    talonFXConfig.Slot0 = createSlot0Configs(config, key.gravityType());
+    talonFXConfig.CurrentLimits = createCurrentLimitsConfigs(config);
+    talonFXConfig.MotorOutput = createMotorOutputConfigs(config);
+    talonFXConfig.Feedback = 
+      key.source() == FeedbackSensorSourceValue.RotorSensor
+        ? createFeedbackConfigs(config)
+        : createRemoteFeedbackConfigs(config, key.source(), key.remoteSensorID());
+    talonFXConfig.MotionMagic = createMotionMagicConfigs(config);
+    talonFXConfig.ClosedLoopGeneral = createClosedLoopGeneralConfigs(config);
+
+    return talonFXConfig;
+  }
+
+  /**
+   * Returns the cached full TalonFX configuration, built the first time it is needed
+   * 
+   * @param key the controlled motor config, gravity type and feedback sensor
+   * @return the TalonFX configuration, shared and never modified
+   */
+  private static TalonFXConfiguration getConfiguration(ConfigurationKey key) {
+    return getCached(configurations, key, TalonFXConfigApplier::createConfiguration);
+  }
+
+  /**
+   * Returns the key of a controlled motor config using the motor sensor
+   * 
+   * @param config the controlled motor config
+   * @param gravityType how kG is applied
+   * @return the key of the configuration
+   */
+  private static ConfigurationKey rotorKey(
+      ControlledMotorConfig config, GravityTypeValue gravityType) {
+    return new ConfigurationKey(config, gravityType, FeedbackSensorSourceValue.RotorSensor, 0);
+  }
+
+  /**
+   * Returns the key of a controlled motor config using a remote CANcoder
+   * 
+   * @param config the controlled motor config
+   * @param source FusedCANcoder, SyncCANcoder or RemoteCANcoder
+   * @param remoteSensorID CAN id of the CANcoder
+   * @return the key of the configuration
+   */
+  private static ConfigurationKey remoteKey(
+      ControlledMotorConfig config, FeedbackSensorSourceValue source, int remoteSensorID) {
+    return new ConfigurationKey(config, GravityTypeValue.Elevator_Static, source, remoteSensorID);
+  }
+
+  /**
+   * Queues a controlled motor config for a TalonFX using the motor sensor
+   * 
+   * @param talonFX the TalonFX
+   * @param config the controlled motor config
+   * @return a future that completes with true if the config was applied
+   */
+  public static CompletableFuture<Boolean> apply(TalonFX talonFX, ControlledMotorConfig config) {
+    return apply(talonFX, config, GravityTypeValue.Elevator_Static);
+  }
+
+  /**
+   * Queues a controlled motor config for a TalonFX using the motor sensor
+   * 
+   * @param talonFX the TalonFX
+   * @param config the controlled motor config
+   * @param gravityType how kG is applied, Arm_Cosine needs position 0 to be horizontal
+   * @return a future that completes with true if the config was applied
+   */
+  public static CompletableFuture<Boolean> apply(
+      TalonFX talonFX, ControlledMotorConfig config, GravityTypeValue gravityType) {
+    return apply(talonFX, rotorKey(config, gravityType));
+  }
+
+  /**
+   * Queues a controlled motor config for a TalonFX using a remote CANcoder on the mechanism
+   * 
+   * @param talonFX the TalonFX
+   * @param config the controlled motor config
+   * @param source FusedCANcoder, SyncCANcoder or RemoteCANcoder
+   * @param remoteSensorID CAN id of the CANcoder
+   * @return a future that completes with true if the config was applied
+   */
+  public static CompletableFuture<Boolean> apply(
+      TalonFX talonFX, 
+      ControlledMotorConfig config, 
+      FeedbackSensorSourceValue source, 
+      int remoteSensorID) {
+    
+    return apply(talonFX, remoteKey(config, source, remoteSensorID));
+  }
+
+  /**
+   * Queues a full TalonFX configuration, skipped if it is the last config queued for the TalonFX
+   * 
+   * @param talonFX the TalonFX
+   * @param key the controlled motor config, gravity type and feedback sensor
+   * @return a future that completes with true if the config was applied
+   */
+  private static CompletableFuture<Boolean> apply(TalonFX talonFX, ConfigurationKey key) {
+    if (isQueued(talonFX, key)) {
+      return getFuture(talonFX);
     }
 
-    if (attempt(() -> configurator.apply(motorOutputConfigs)) == false) {
-      report(talonFX);
+    TalonFXConfiguration talonFXConfig = getConfiguration(key);
+    TalonFXConfigurator configurator = talonFX.getConfigurator();
+
+    return remember(
+      talonFX, key, queue(talonFX, talonFXConfig, () -> configurator.apply(talonFXConfig)));
+  }
+
+  /**
+   * Queues only the current limits for a TalonFX, for limits changed at runtime without 
+   * changing its config. The config group object is reused, so a write still waiting in the 
+   * queue picks up the newest limits instead of queueing another.
+   * 
+   * @param talonFX the TalonFX
+   * @param statorCurrentLimit stator current limit in amps
+   * @param supplyCurrentLimit supply current limit in amps
+   * @return a future that completes with true if the current limits were applied
+   */
+  public static CompletableFuture<Boolean> applyCurrentLimits(
+      TalonFX talonFX, double statorCurrentLimit, double supplyCurrentLimit) {
+
+    CurrentLimitsConfigs currentLimitsConfigs = 
+      currentLimits.computeIfAbsent(talonFX, device -> new CurrentLimitsConfigs());
+
+    synchronized (currentLimitsConfigs) {
+      currentLimitsConfigs.StatorCurrentLimit = statorCurrentLimit;
+      currentLimitsConfigs.StatorCurrentLimitEnable = true;
+      currentLimitsConfigs.SupplyCurrentLimit = supplyCurrentLimit;
+      currentLimitsConfigs.SupplyCurrentLimitEnable = true;
     }
+
+    TalonFXConfigurator configurator = talonFX.getConfigurator();
+
+    return queue(talonFX, currentLimitsConfigs, () -> {
+      synchronized (currentLimitsConfigs) {
+        return configurator.apply(currentLimitsConfigs);
+      }
+    });
+  }
+
+  /**
+   * Queues only the config groups that differ between two controlled motor configs, 
+   * using the motor sensor
+   * 
+   * @param talonFX the TalonFX
+   * @param oldConfig the config currently on the TalonFX
+   * @param newConfig the new config
+   * @return a future that completes with true if every changed config group was applied
+   */
+  public static CompletableFuture<Boolean> applyChanges(
+      TalonFX talonFX, ControlledMotorConfig oldConfig, ControlledMotorConfig newConfig) {
+    return applyChanges(talonFX, oldConfig, newConfig, GravityTypeValue.Elevator_Static);
+  }
+
+  /**
+   * Queues only the config groups that differ between two controlled motor configs, 
+   * using the motor sensor
+   * 
+   * @param talonFX the TalonFX
+   * @param oldConfig the config currently on the TalonFX
+   * @param newConfig the new config
+   * @param gravityType how kG is applied
+   * @return a future that completes with true if every changed config group was applied
+   */
+  public static CompletableFuture<Boolean> applyChanges(
+      TalonFX talonFX, 
+      ControlledMotorConfig oldConfig, 
+      ControlledMotorConfig newConfig, 
+      GravityTypeValue gravityType) {
+    
+    return applyChanges(
+      talonFX, rotorKey(oldConfig, gravityType), rotorKey(newConfig, gravityType));
+  }
+
+  /**
+   * Queues only the config groups that differ between two controlled motor configs, 
+   * using a remote CANcoder on the mechanism
+   * 
+   * @param talonFX the TalonFX
+   * @param oldConfig the config currently on the TalonFX
+   * @param newConfig the new config
+   * @param source FusedCANcoder, SyncCANcoder or RemoteCANcoder
+   * @param remoteSensorID CAN id of the CANcoder
+   * @return a future that completes with true if every changed config group was applied
+   */
+  public static CompletableFuture<Boolean> applyChanges(
+      TalonFX talonFX, 
+      ControlledMotorConfig oldConfig, 
+      ControlledMotorConfig newConfig,
+      FeedbackSensorSourceValue source,
+      int remoteSensorID) {
+    
+    return applyChanges(
+      talonFX, 
+      remoteKey(oldConfig, source, remoteSensorID), 
+      remoteKey(newConfig, source, remoteSensorID));
+  }
+
+  /**
+   * Queues the config groups that differ between two configurations. Falls back to the full
+   * configuration if the old one is not what was last queued for the TalonFX, and skips the
+   * write if the new one already is.
+   * 
+   * @param talonFX the TalonFX
+   * @param oldKey the configuration currently on the TalonFX
+   * @param newKey the new configuration
+   * @return a future that completes with true if every changed config group was applied
+   */
+  private static CompletableFuture<Boolean> applyChanges(
+      TalonFX talonFX, ConfigurationKey oldKey, ConfigurationKey newKey) {
+    
+    if (isQueued(talonFX, newKey)) {
+      return getFuture(talonFX);
+    }
+
+    if (!isQueued(talonFX, oldKey)) {
+      return apply(talonFX, newKey);
+    }
+
+    ControlledMotorConfig oldConfig = oldKey.config();
+    ControlledMotorConfig newConfig = newKey.config();
+
+    // Groups come from the cached configuration so identical configs share them
+    TalonFXConfiguration talonFXConfig = getConfiguration(newKey);
+    TalonFXConfigurator configurator = talonFX.getConfigurator();
+
+    List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+    if (feedbackChanged(oldConfig, newConfig)) {
+      FeedbackConfigs feedbackConfigs = talonFXConfig.Feedback;
+
+      results.add(queue(talonFX, feedbackConfigs, () -> configurator.apply(feedbackConfigs)));
+    }
+
+    if (slot0Changed(oldConfig, newConfig)) {
+      Slot0Configs slot0Configs = talonFXConfig.Slot0;
+
+      results.add(queue(talonFX, slot0Configs, () -> configurator.apply(slot0Configs)));
+    }
+
+    if (currentLimitsChanged(oldConfig, newConfig)) {
+      CurrentLimitsConfigs currentLimitsConfigs = talonFXConfig.CurrentLimits;
+
+      results.add(
+        queue(talonFX, currentLimitsConfigs, () -> configurator.apply(currentLimitsConfigs)));
+    }
+
+    if (motorOutputChanged(oldConfig, newConfig)) {
+      MotorOutputConfigs motorOutputConfigs = talonFXConfig.MotorOutput;
+
+      results.add(
+        queue(talonFX, motorOutputConfigs, () -> configurator.apply(motorOutputConfigs)));
+    }
+
+    if (motionMagicChanged(oldConfig, newConfig)) {
+      MotionMagicConfigs motionMagicConfigs = talonFXConfig.MotionMagic;
+
+      results.add(
+        queue(talonFX, motionMagicConfigs, () -> configurator.apply(motionMagicConfigs)));
+    }
+
+    if (closedLoopGeneralChanged(oldConfig, newConfig)) {
+      ClosedLoopGeneralConfigs closedLoopGeneralConfigs = talonFXConfig.ClosedLoopGeneral;
+
+      results.add(
+        queue(
+          talonFX, 
+          closedLoopGeneralConfigs, 
+          () -> configurator.apply(closedLoopGeneralConfigs)));
+    }
+
+    return remember(talonFX, newKey, allSucceeded(results));
+  }
+
+  // Config group comparisons, each covers the fields written by the matching create method
+
+  /** Returns true if the slot 0 gains differ */
+  private static boolean slot0Changed(ControlledMotorConfig a, ControlledMotorConfig b) {
+    return a.kP() != b.kP()
+      || a.kI() != b.kI()
+      || a.kD() != b.kD()
+      || a.kS() != b.kS()
+      || a.kG() != b.kG()
+      || a.kV() != b.kV()
+      || a.kA() != b.kA();
+  }
+
+  /** Returns true if the stator or supply current limit differs */
+  private static boolean currentLimitsChanged(ControlledMotorConfig a, ControlledMotorConfig b) {
+    return a.statorCurrentLimit() != b.statorCurrentLimit()
+      || a.supplyCurrentLimit() != b.supplyCurrentLimit();
+  }
+
+  /** Returns true if the inversion or neutral mode differs */
+  private static boolean motorOutputChanged(ControlledMotorConfig a, ControlledMotorConfig b) {
+    return a.ccwPositive() != b.ccwPositive()
+      || a.neutralBrake() != b.neutralBrake();
+  }
+
+  /** Returns true if the motor to mechanism ratio differs */
+  private static boolean feedbackChanged(ControlledMotorConfig a, ControlledMotorConfig b) {
+    return a.motorToMechRatio() != b.motorToMechRatio();
+  }
+
+  /** Returns true if the motion magic limits or expo gains differ */
+  private static boolean motionMagicChanged(ControlledMotorConfig a, ControlledMotorConfig b) {
+    return a.maxVelocity() != b.maxVelocity()
+      || a.maxAcceleration() != b.maxAcceleration()
+      || a.kV() != b.kV()
+      || a.kA() != b.kA();
+  }
+
+  /** Returns true if continuous wrap differs */
+  private static boolean closedLoopGeneralChanged(
+      ControlledMotorConfig a, ControlledMotorConfig b) {
+    return a.continuous() != b.continuous();
   }
 }
@@ -1,19 +1,45 @@
 package frc.lib.controller;
 
+import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+
+import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.wpilibj.DriverStation;
 import frc.lib.configs.ControlledMotorConfig;
-import frc.lib.configs.ControlledMotorConfig.ControlledMotorBuilder;;
+import frc.lib.configs.ControlledMotorConfig.ControlledMotorBuilder;
+import frc.lib.timing.LoopTimer;
+import frc.lib.timing.LoopTiming;
 
 // over abstracting is fun
 
 /** General interface for kinds of motor controllers */
 public abstract class ControlledMotor {
   
+  /** Time spent sending control requests across all motor controllers */
+  protected static final LoopTimer controlTimer =
+    LoopTiming.create("ControlledMotor.control", 0.0005);
+
   /** Motor config */
   private ControlledMotorConfig config = ControlledMotorBuilder.defaults().build();
 
+  /** Hardware backing the readings, voltage output and simulation, null if not shared */
+  private MotorHardware hardware = null;
+
+  /** Supply current limit set at runtime over the configured one, NaN when there is none */
+  private double supplyCurrentLimitOverride = Double.NaN;
+
+  /**
+   * Sets the hardware backing the readings, voltage output and simulation, 
+   * so motor controllers on the same hardware do not each override them
+   * 
+   * @param hardware the hardware
+   */
+  protected void setHardware(MotorHardware hardware) {
+    this.hardware = hardware;
+  }
+
   /**
    * Update motor controller config
    * 
@@ -24,13 +50,22 @@ public abstract class ControlledMotor {
   }
 
   /**
-   * Update motor controller config and call configure() method again
+   * Update motor controller config and send the parts that changed to the motor controller
    * 
    * @param newConfig new motor controller config
    */
   public void reconfigure(ControlledMotorConfig newConfig) {
+    ControlledMotorConfig oldConfig = this.config;
     this.config = newConfig;
-    configure();
+
+    if (!newConfig.equals(oldConfig)) {
+      configureChanges(oldConfig);
+
+      // The config write carries the configured limit, so put the override back after it
+      if (!Double.isNaN(supplyCurrentLimitOverride)) {
+        sendCurrentLimits();
+      }
+    }
   }
 
   /**
@@ -45,6 +80,50 @@ public abstract class ControlledMotor {
   /** Configure the motor controller */
   public abstract void configure();
 
+  /**
+   * Configure only what changed since the previous config, 
+   * overridable for motor controllers that can apply configs in parts
+   * 
+   * @param oldConfig previous motor controller config
+   */
+  protected void configureChanges(ControlledMotorConfig oldConfig) {
+    configure();
+  }
+
+  /**
+   * Simulates the motor controller with a DC motor model driving the mechanism, 
+   * stepped by PhysicsSim. Ratio and stator limit come from the motor config, 
+   * the supply limit is the one in use so overrides apply to the simulation too.
+   * 
+   * @param motor motor constants, should describe a single motor
+   * @param inertiaKgMetersSquared moment of inertia of the mechanism
+   */
+  public void enableSimulation(DCMotor motor, double inertiaKgMetersSquared) {
+    if (hardware != null) {
+      hardware.enableSimulation(
+        motor, inertiaKgMetersSquared, this::getConfig, this::getSupplyCurrentLimit);
+      return;
+    }
+
+    DriverStation.reportWarning("Motor controller does not support simulation", true);
+  }
+
+  /**
+   * Drive the motor with an open loop voltage, used when the loop is closed on the RIO
+   * 
+   * @param volts output voltage
+   */
+  public void setVoltage(double volts) {
+    if (hardware != null) {
+      long start = controlTimer.start();
+      hardware.setVoltage(volts);
+      controlTimer.stop(start);
+      return;
+    }
+
+    DriverStation.reportWarning("Motor controller does not support voltage output", true);
+  }
+
   // Motor controller inputs
 
   /**
@@ -53,7 +132,7 @@ public abstract class ControlledMotor {
    * 
    * @param posRotationsSupplier position supplier
    */
-  public void setInputPosRotations(Supplier<Double> posRotationsSupplier) {
+  public void setInputPosRotationsSupplier(DoubleSupplier posRotationsSupplier) {
     DriverStation.reportWarning("Motor controller does not support external position input", true);
   }
 
@@ -63,7 +142,7 @@ public abstract class ControlledMotor {
    * 
    * @param velRotationsPerSecSupplier velocity supplier
    */
-  public void setInputVelRotationsPerSec(Supplier<Double> velRotationsPerSecSupplier) {
+  public void setInputVelRotationsPerSecSupplier(DoubleSupplier velRotationsPerSecSupplier) {
     DriverStation.reportWarning("Motor controller does not support external velocity input", true);
   }
 
@@ -73,10 +152,47 @@ public abstract class ControlledMotor {
    * 
    * @param accRotationsPerSecPerSecSupplier acceleration supplier
    */
-  public void setInputAccRotationsPerSecPerSec(Supplier<Double> accRotationsPerSecPerSecSupplier) {
+  public void setInputAccRotationsPerSecPerSecSupplier(
+      DoubleSupplier accRotationsPerSecPerSecSupplier) {
     DriverStation.reportWarning("Motor controller does not support external acceleration input", true);
   }
 
+  /**
+   * Gives the position controller a new position supplier
+   * 
+   * @param posRotationsSupplier position supplier
+   * @deprecated boxes a Double on every read, use 
+   *     {@link #setInputPosRotationsSupplier(DoubleSupplier)}
+   */
+  @Deprecated
+  public void setInputPosRotations(Supplier<Double> posRotationsSupplier) {
+    setInputPosRotationsSupplier(posRotationsSupplier::get);
+  }
+
+  /**
+   * Gives the position controller a new velocity supplier
+   * 
+   * @param velRotationsPerSecSupplier velocity supplier
+   * @deprecated boxes a Double on every read, use 
+   *     {@link #setInputVelRotationsPerSecSupplier(DoubleSupplier)}
+   */
+  @Deprecated
+  public void setInputVelRotationsPerSec(Supplier<Double> velRotationsPerSecSupplier) {
+    setInputVelRotationsPerSecSupplier(velRotationsPerSecSupplier::get);
+  }
+
+  /**
+   * Gives the position controller a new acceleration supplier
+   * 
+   * @param accRotationsPerSecPerSecSupplier acceleration supplier
+   * @deprecated boxes a Double on every read, use 
+   *     {@link #setInputAccRotationsPerSecPerSecSupplier(DoubleSupplier)}
+   */
+  @Deprecated
+  public void setInputAccRotationsPerSecPerSec(Supplier<Double> accRotationsPerSecPerSecSupplier) {
+    setInputAccRotationsPerSecPerSecSupplier(accRotationsPerSecPerSecSupplier::get);
+  }
+
   // Motor controller outputs
 
   /**
@@ -84,7 +200,11 @@ public abstract class ControlledMotor {
    * 
    * @return angle getter for motor controller
    */
-  public Supplier<Double> getPosRotations() {
+  public DoubleSupplier getPosRotationsSupplier() {
+    if (hardware != null) {
+      return hardware.getPosRotationsSupplier();
+    }
+
     DriverStation.reportWarning("Motor conroller position suppplier not defined", true);
     return () -> 0.0;
   }
@@ -94,7 +214,11 @@ public abstract class ControlledMotor {
    * 
    * @return velocity getter for motor controller
    */
-  public Supplier<Double> getVelRotationsPerSec() {
+  public DoubleSupplier getVelRotationsPerSecSupplier() {
+    if (hardware != null) {
+      return hardware.getVelRotationsPerSecSupplier();
+    }
+
     DriverStation.reportWarning("Motor conroller velocity suppplier not defined", true);
     return () -> 0.0;
   }
@@ -104,7 +228,11 @@ public abstract class ControlledMotor {
    * 
    * @return acceleration getter for motor controller
    */
-  public Supplier<Double> getAccRotationsPerSecPerSec() {
+  public DoubleSupplier getAccRotationsPerSecPerSecSupplier() {
+    if (hardware != null) {
+      return hardware.getAccRotationsPerSecPerSecSupplier();
+    }
+
     DriverStation.reportWarning("Motor conroller acceleration suppplier not defined", true);
     return () -> 0.0;
   }
@@ -114,17 +242,25 @@ public abstract class ControlledMotor {
    * 
    * @return voltage getter for motor controller
    */
-  public Supplier<Double> getVoltage() {
+  public DoubleSupplier getVoltageSupplier() {
+    if (hardware != null) {
+      return hardware.getVoltageSupplier();
+    }
+
     DriverStation.reportWarning("Motor conroller voltage suppplier not defined", true);
     return () -> 0.0;
-  } 
+  }
 
   /**
    * Returns stator current getter for motor controller
    * 
    * @return stator current getter for motor controller
    */
-  public Supplier<Double> getStatorCurrent() {
+  public DoubleSupplier getStatorCurrentSupplier() {
+    if (hardware != null) {
+      return hardware.getStatorCurrentSupplier();
+    }
+
     DriverStation.reportWarning("Motor conroller stator current suppplier not defined", true);
     return () -> 0.0;
   }
@@ -134,11 +270,148 @@ public abstract class ControlledMotor {
    * 
    * @return supply current getter for motor controller
    */
-  public Supplier<Double> getSupplyCurrent() {
+  public DoubleSupplier getSupplyCurrentSupplier() {
+    if (hardware != null) {
+      return hardware.getSupplyCurrentSupplier();
+    }
+
     DriverStation.reportWarning("Motor conroller supply current suppplier not defined", true);
     return () -> 0.0;
   }
 
+  /**
+   * Returns supply voltage getter for motor controller, follows battery voltage
+   * 
+   * @return supply voltage getter for motor controller
+   */
+  public DoubleSupplier getSupplyVoltageSupplier() {
+    if (hardware != null) {
+      return hardware.getSupplyVoltageSupplier();
+    }
+
+    DriverStation.reportWarning("Motor controller supply voltage supplier not defined", true);
+    return () -> 0.0;
+  }
+
+  // Raw status signals for synchronized sampling
+
+  /**
+   * Returns the status signal backing the position getter, used to wait on new position data
+   * 
+   * @return the position status signal, or null if the motor controller has none
+   */
+  public BaseStatusSignal getPosSignal() {
+    if (hardware != null) {
+      return hardware.getPosSignal();
+    }
+
+    DriverStation.reportWarning("Motor controller position signal not defined", true);
+    return null;
+  }
+
+  /**
+   * Returns the status signal backing the velocity getter, used to wait on new velocity data
+   * 
+   * @return the velocity status signal, or null if the motor controller has none
+   */
+  public BaseStatusSignal getVelSignal() {
+    if (hardware != null) {
+      return hardware.getVelSignal();
+    }
+
+    DriverStation.reportWarning("Motor controller velocity signal not defined", true);
+    return null;
+  }
+
+  /**
+   * Returns position getter extrapolated along velocity to when this loop's inputs were read, 
+   * removing the CAN frame latency from the reading
+   * 
+   * @return latency compensated angle getter for motor controller
+   */
+  public DoubleSupplier getCompensatedPosRotationsSupplier() {
+    if (hardware != null) {
+      return hardware.getCompensatedPosRotationsSupplier();
+    }
+
+    DriverStation.reportWarning("Motor controller latency compensated position not defined", true);
+    return getPosRotationsSupplier();
+  }
+
+  // Boxed outputs kept so older callers still compile
+
+  /**
+   * Returns angle getter for motor controller
+   * 
+   * @return angle getter for motor controller
+   * @deprecated boxes a Double on every read, use {@link #getPosRotationsSupplier()}
+   */
+  @Deprecated
+  public Supplier<Double> getPosRotations() {
+    DoubleSupplier posRotations = getPosRotationsSupplier();
+    return posRotations::getAsDouble;
+  }
+
+  /**
+   * Returns velocity getter for motor controller
+   * 
+   * @return velocity getter for motor controller
+   * @deprecated boxes a Double on every read, use {@link #getVelRotationsPerSecSupplier()}
+   */
+  @Deprecated
+  public Supplier<Double> getVelRotationsPerSec() {
+    DoubleSupplier velRotationsPerSec = getVelRotationsPerSecSupplier();
+    return velRotationsPerSec::getAsDouble;
+  }
+
+  /**
+   * Returns acceleration getter for motor controller
+   * 
+   * @return acceleration getter for motor controller
+   * @deprecated boxes a Double on every read, use {@link #getAccRotationsPerSecPerSecSupplier()}
+   */
+  @Deprecated
+  public Supplier<Double> getAccRotationsPerSecPerSec() {
+    DoubleSupplier accRotationsPerSecPerSec = getAccRotationsPerSecPerSecSupplier();
+    return accRotationsPerSecPerSec::getAsDouble;
+  }
+
+  /**
+   * Returns voltage getter for motor controller
+   * 
+   * @return voltage getter for motor controller
+   * @deprecated boxes a Double on every read, use {@link #getVoltageSupplier()}
+   */
+  @Deprecated
+  public Supplier<Double> getVoltage() {
+    DoubleSupplier voltage = getVoltageSupplier();
+    return voltage::getAsDouble;
+  } 
+
+  /**
+   * Returns stator current getter for motor controller
+   * 
+   * @return stator current getter for motor controller
+   * @deprecated boxes a Double on every read, use {@link #getStatorCurrentSupplier()}
+   */
+  @Deprecated
+  public Supplier<Double> getStatorCurrent() {
+    DoubleSupplier statorCurrent = getStatorCurrentSupplier();
+    return statorCurrent::getAsDouble;
+  }
+
+  /**
+   * Returns supply current getter for motor controller
+   * 
+   * @return supply current getter for motor controller
+   * @deprecated boxes a Double on every read, use {@link #getSupplyCurrentSupplier()}
+   */
+  @Deprecated
+  public Supplier<Double> getSupplyCurrent() {
+    DoubleSupplier supplyCurrent = getSupplyCurrentSupplier();
+    return supplyCurrent::getAsDouble;
+  }
+
   // Setters for temporary reconfiguration
 
   /**
@@ -201,6 +474,49 @@ public abstract class ControlledMotor {
         .build());
   }
 
+  /**
+   * Sets a supply current limit over the configured one without changing the config, 
+   * only the current limits are written. Kept through later reconfigures until cleared.
+   * 
+   * @param supplyCurrentLimit supply current limit in amps
+   */
+  public void overrideSupplyCurrentLimit(double supplyCurrentLimit) {
+    supplyCurrentLimitOverride = supplyCurrentLimit;
+    sendCurrentLimits();
+  }
+
+  /** Goes back to the configured supply current limit if it was overridden */
+  public void clearSupplyCurrentLimitOverride() {
+    if (Double.isNaN(supplyCurrentLimitOverride)) {
+      return;
+    }
+
+    supplyCurrentLimitOverride = Double.NaN;
+    sendCurrentLimits();
+  }
+
+  /**
+   * Returns supply current limit in use, the override if there is one
+   * 
+   * @return supply current limit in amps
+   */
+  public double getSupplyCurrentLimit() {
+    return Double.isNaN(supplyCurrentLimitOverride)
+      ? config.supplyCurrentLimit()
+      : supplyCurrentLimitOverride;
+  }
+
+  /** Writes the configured stator limit and the supply limit in use */
+  private void sendCurrentLimits() {
+    if (hardware == null) {
+      DriverStation.reportWarning(
+        "Motor controller does not support current limit overrides", true);
+      return;
+    }
+
+    hardware.applyCurrentLimits(config.statorCurrentLimit(), getSupplyCurrentLimit());
+  }
+
   /**
    * Set new max velocity and reconfigure
    * 
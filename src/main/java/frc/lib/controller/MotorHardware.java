@@ -0,0 +1,115 @@
+package frc.lib.controller;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.lib.configs.ControlledMotorConfig;
+
+/** 
+ * General interface for motor controller hardware. Readings, open loop output and simulation 
+ * are the same for every kind of controller built on a device, so they live here once.
+ */
+public interface MotorHardware {
+
+  /**
+   * Returns position getter in rotations
+   * 
+   * @return position getter in rotations
+   */
+  DoubleSupplier getPosRotationsSupplier();
+
+  /**
+   * Returns position getter extrapolated along velocity to when this loop's inputs were read
+   * 
+   * @return latency compensated position getter in rotations
+   */
+  DoubleSupplier getCompensatedPosRotationsSupplier();
+
+  /**
+   * Returns velocity getter in rotations per second
+   * 
+   * @return velocity getter in rotations per second
+   */
+  DoubleSupplier getVelRotationsPerSecSupplier();
+
+  /**
+   * Returns acceleration getter in rotations per second per second
+   * 
+   * @return acceleration getter in rotations per second per second
+   */
+  DoubleSupplier getAccRotationsPerSecPerSecSupplier();
+
+  /**
+   * Returns applied voltage getter
+   * 
+   * @return applied voltage getter
+   */
+  DoubleSupplier getVoltageSupplier();
+
+  /**
+   * Returns stator current getter
+   * 
+   * @return stator current getter
+   */
+  DoubleSupplier getStatorCurrentSupplier();
+
+  /**
+   * Returns supply current getter
+   * 
+   * @return supply current getter
+   */
+  DoubleSupplier getSupplyCurrentSupplier();
+
+  /**
+   * Returns supply voltage getter
+   * 
+   * @return supply voltage getter
+   */
+  DoubleSupplier getSupplyVoltageSupplier();
+
+  /**
+   * Returns the status signal backing the position getter
+   * 
+   * @return the position status signal
+   */
+  BaseStatusSignal getPosSignal();
+
+  /**
+   * Returns the status signal backing the velocity getter
+   * 
+   * @return the velocity status signal
+   */
+  BaseStatusSignal getVelSignal();
+
+  /**
+   * Drives the motor with an open loop voltage
+   * 
+   * @param volts output voltage
+   */
+  void setVoltage(double volts);
+
+  /**
+   * Queues a write of only the current limits, leaving the rest of the config alone
+   * 
+   * @param statorCurrentLimit stator current limit in amps
+   * @param supplyCurrentLimit supply current limit in amps
+   */
+  void applyCurrentLimits(double statorCurrentLimit, double supplyCurrentLimit);
+
+  /**
+   * Simulates the hardware with a DC motor model driving the mechanism
+   * 
+   * @param motor motor constants, should describe a single motor
+   * @param inertiaKgMetersSquared moment of inertia of the mechanism
+   * @param config current motor config
+   * @param supplyCurrentLimit supply current limit in use, which may override the config's
+   */
+  void enableSimulation(
+      DCMotor motor,
+      double inertiaKgMetersSquared,
+      Supplier<ControlledMotorConfig> config,
+      DoubleSupplier supplyCurrentLimit);
+}
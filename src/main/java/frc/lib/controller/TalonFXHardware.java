@@ -0,0 +1,168 @@
+package frc.lib.controller;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.controls.ControlRequest;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.lib.CAN;
+import frc.lib.configs.ControlledMotorConfig;
+import frc.lib.configs.appliers.TalonFXConfigApplier;
+import frc.lib.signal.TalonFXSignals;
+import frc.lib.sim.PhysicsSim;
+import frc.lib.sim.TalonFXSim;
+
+/** TalonFX hardware shared by the TalonFX position and velocity controllers */
+public class TalonFXHardware implements MotorHardware {
+
+  /** Hardware reference */
+  private final TalonFX talonFX;
+
+  /** Status signals, refreshed by the signal registry */
+  private final TalonFXSignals signals;
+
+  /** Reused open loop voltage request */
+  private final VoltageOut voltageRequest = new VoltageOut(0.0);
+
+  /** How kG is applied, used by the simulation */
+  private GravityTypeValue gravityType = GravityTypeValue.Elevator_Static;
+
+  /** Simulation of the TalonFX, null until simulation is enabled */
+  private TalonFXSim sim = null;
+
+  /**
+   * Creates the TalonFX and registers its status signals
+   * 
+   * @param can CAN identifier of the TalonFX
+   */
+  public TalonFXHardware(CAN can) {
+    talonFX = new TalonFX(can.id(), can.bus());
+    signals = new TalonFXSignals(talonFX, can);
+  }
+
+  /**
+   * Returns hardware reference
+   * 
+   * @return hardware reference
+   */
+  public TalonFX getTalonFX() {
+    return talonFX;
+  }
+
+  /**
+   * Returns status signals
+   * 
+   * @return status signals
+   */
+  public TalonFXSignals getSignals() {
+    return signals;
+  }
+
+  /**
+   * Returns simulation of the TalonFX
+   * 
+   * @return simulation of the TalonFX, null until simulation is enabled
+   */
+  public TalonFXSim getSim() {
+    return sim;
+  }
+
+  /**
+   * Sets how kG is applied, so the simulation applies it the same way as the TalonFX
+   * 
+   * @param gravityType how kG is applied
+   */
+  public void setGravityType(GravityTypeValue gravityType) {
+    this.gravityType = gravityType;
+  }
+
+  /**
+   * Sends a control request to the TalonFX
+   * 
+   * @param request the control request, reused between calls
+   */
+  public void setControl(ControlRequest request) {
+    talonFX.setControl(request);
+
+    if (sim != null) {
+      sim.setControl(request);
+    }
+  }
+
+  @Override
+  public void setVoltage(double volts) {
+    setControl(voltageRequest.withOutput(volts));
+  }
+
+  @Override
+  public void applyCurrentLimits(double statorCurrentLimit, double supplyCurrentLimit) {
+    TalonFXConfigApplier.applyCurrentLimits(talonFX, statorCurrentLimit, supplyCurrentLimit);
+  }
+
+  @Override
+  public void enableSimulation(
+      DCMotor motor,
+      double inertiaKgMetersSquared,
+      Supplier<ControlledMotorConfig> config,
+      DoubleSupplier supplyCurrentLimit) {
+    sim = new TalonFXSim(
+      talonFX, motor, inertiaKgMetersSquared, config, supplyCurrentLimit, gravityType);
+    signals.enableSimulation(sim);
+    PhysicsSim.add(sim);
+  }
+
+  @Override
+  public DoubleSupplier getPosRotationsSupplier() {
+    return signals.getPosRotationsSupplier();
+  }
+
+  @Override
+  public DoubleSupplier getCompensatedPosRotationsSupplier() {
+    return signals.getCompensatedPosRotationsSupplier();
+  }
+
+  @Override
+  public DoubleSupplier getVelRotationsPerSecSupplier() {
+    return signals.getVelRotationsPerSecSupplier();
+  }
+
+  @Override
+  public DoubleSupplier getAccRotationsPerSecPerSecSupplier() {
+    return signals.getAccRotationsPerSecPerSecSupplier();
+  }
+
+  @Override
+  public DoubleSupplier getVoltageSupplier() {
+    return signals.getVoltageSupplier();
+  }
+
+  @Override
+  public DoubleSupplier getStatorCurrentSupplier() {
+    return signals.getStatorCurrentSupplier();
+  }
+
+  @Override
+  public DoubleSupplier getSupplyCurrentSupplier() {
+    return signals.getSupplyCurrentSupplier();
+  }
+
+  @Override
+  public DoubleSupplier getSupplyVoltageSupplier() {
+    return signals.getSupplyVoltageSupplier();
+  }
+
+  @Override
+  public BaseStatusSignal getPosSignal() {
+    return signals.getPosition();
+  }
+
+  @Override
+  public BaseStatusSignal getVelSignal() {
+    return signals.getVelocity();
+  }
+}
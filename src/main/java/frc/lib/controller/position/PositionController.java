@@ -1,5 +1,6 @@
 package frc.lib.controller.position;
 
+import edu.wpi.first.wpilibj.DriverStation;
 import frc.lib.controller.ControlledMotor;
 
 /** General interface for position controllers */
@@ -15,10 +16,29 @@ public abstract class PositionController extends ControlledMotor {
    */
   public abstract void setSetpoint(double posRotations, double velRotationsPerSec);
 
+  /**
+   * Set position controller goal, reached with a motion profile generated on the motor controller
+   * using the max velocity and max acceleration of the config
+   * 
+   * @param posRotations goal position
+   */
+  public void setGoal(double posRotations) {
+    DriverStation.reportWarning("Position controller does not support onboard motion profiles", true);
+  }
+
+  /**
+   * Returns true if setGoal() is run on the motor controller
+   * 
+   * @return true if setGoal() is run on the motor controller
+   */
+  public boolean supportsGoal() {
+    return false;
+  }
+
   /**
    * Set current position of position controller in rotations
    * 
    * @param posRotations new position in rotatinos
    */
   public abstract void setPos(double posRotations);
-}
\ No newline at end of file
+}
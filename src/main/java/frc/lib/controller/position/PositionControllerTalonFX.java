@@ -1,6 +1,124 @@
 package frc.lib.controller.position;
 
-/** TalonFX used as a position controller */
+import com.ctre.phoenix6.controls.MotionMagicExpoVoltage;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+
+import frc.lib.CAN;
+import frc.lib.configs.ControlledMotorConfig;
+import frc.lib.configs.appliers.TalonFXConfigApplier;
+import frc.lib.controller.TalonFXHardware;
+
+/** 
+ * TalonFX used as a position controller. Goals are reached with Motion Magic, so the motion 
+ * profile is generated on the TalonFX and the RIO only sends the goal when it changes.
+ */
 public class PositionControllerTalonFX extends PositionController {
-  
-}
\ No newline at end of file
+
+  /** Hardware reference, backs the readings and voltage output */
+  private final TalonFXHardware hardware;
+
+  /** How kG is applied */
+  private final GravityTypeValue gravityType;
+
+  /** True uses exponential profiles shaped by kV and kA instead of trapezoidal profiles */
+  private final boolean expo;
+
+  /** Reused position request */
+  private final PositionVoltage positionRequest = new PositionVoltage(0.0).withSlot(0);
+
+  /** Reused trapezoidal motion magic request */
+  private final MotionMagicVoltage motionMagicRequest = new MotionMagicVoltage(0.0).withSlot(0);
+
+  /** Reused exponential motion magic request */
+  private final MotionMagicExpoVoltage motionMagicExpoRequest = 
+    new MotionMagicExpoVoltage(0.0).withSlot(0);
+
+  /**
+   * Initializes and configures hardware
+   * 
+   * @param motorCan CAN identifier of the TalonFX
+   * @param config motor config, maxVelocity and maxAcceleration become the motion magic limits
+   * @param gravityType Elevator_Static for constant gravity, Arm_Cosine for arms 
+   *     (position 0 must be horizontal)
+   * @param expo true uses exponential profiles shaped by kV and kA
+   */
+  public PositionControllerTalonFX(
+      CAN motorCan,
+      ControlledMotorConfig config,
+      GravityTypeValue gravityType,
+      boolean expo) {
+    
+    setConfig(config);
+
+    hardware = new TalonFXHardware(motorCan);
+    setHardware(hardware);
+    hardware.setGravityType(gravityType);
+
+    this.gravityType = gravityType;
+    this.expo = expo;
+
+    TalonFXConfigApplier.applyFactoryDefault(hardware.getTalonFX());
+    configure();
+  }
+
+  /**
+   * Initializes and configures hardware with constant gravity and trapezoidal profiles
+   * 
+   * @param motorCan CAN identifier of the TalonFX
+   * @param config motor config, maxVelocity and maxAcceleration become the motion magic limits
+   */
+  public PositionControllerTalonFX(
+      CAN motorCan,
+      ControlledMotorConfig config) {
+    
+    this(motorCan, config, GravityTypeValue.Elevator_Static, false);
+  }
+
+  @Override
+  public void configure() {
+    TalonFXConfigApplier.apply(hardware.getTalonFX(), getConfig(), gravityType);
+  }
+
+  @Override
+  protected void configureChanges(ControlledMotorConfig oldConfig) {
+    TalonFXConfigApplier.applyChanges(
+      hardware.getTalonFX(), oldConfig, getConfig(), gravityType);
+  }
+
+  @Override
+  public void setPos(double posRotations) {
+    hardware.getTalonFX().setPosition(posRotations);
+  }
+
+  @Override
+  public void setSetpoint(double posRotations, double velRotationsPerSec) {
+    long start = controlTimer.start();
+
+    hardware.setControl(
+      positionRequest
+        .withPosition(posRotations)
+        .withVelocity(velRotationsPerSec));
+
+    controlTimer.stop(start);
+  }
+
+  @Override
+  public void setGoal(double posRotations) {
+    long start = controlTimer.start();
+
+    if (expo) {
+      hardware.setControl(motionMagicExpoRequest.withPosition(posRotations));
+    } else {
+      hardware.setControl(motionMagicRequest.withPosition(posRotations));
+    }
+
+    controlTimer.stop(start);
+  }
+
+  @Override
+  public boolean supportsGoal() {
+    return true;
+  }
+}
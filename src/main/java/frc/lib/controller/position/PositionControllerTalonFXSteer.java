@@ -1,72 +1,188 @@
 package frc.lib.controller.position;
 
-import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
-import com.ctre.phoenix6.configs.FeedbackConfigs;
-import com.ctre.phoenix6.configs.MotorOutputConfigs;
-import com.ctre.phoenix6.configs.Slot0Configs;
-import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
 import com.ctre.phoenix6.controls.PositionVoltage;
-import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
-import com.ctre.phoenix6.signals.InvertedValue;
-import com.ctre.phoenix6.signals.NeutralModeValue;
 
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.DriverStation;
 import frc.lib.CAN;
 import frc.lib.configs.ControlledMotorConfig;
-
-/** TalonFX used as a position controller */
+import frc.lib.configs.appliers.TalonFXConfigApplier;
+import frc.lib.controller.TalonFXHardware;
+import frc.lib.sensor.absolute.AbsoluteEncoder;
+import frc.lib.sim.DCMotorModel;
+
+/** 
+ * TalonFX used as a swerve steer position controller. The loop is closed on the TalonFX at 1 kHz
+ * using a CANcoder on the module as feedback, so the RIO only sends setpoints.
+ */
 public class PositionControllerTalonFXSteer extends PositionController {
 
-  /** Hardware reference */
-  private final TalonFX motor;
+  /** Hardware reference, backs the readings and voltage output */
+  private final TalonFXHardware hardware;
+
+  /** Feedback sensor source */
+  private final FeedbackSensorSourceValue feedbackSource;
+
+  /** CAN id of the CANcoder used as feedback */
+  private final int encoderId;
+
+  /** Reused position request */
+  private final PositionVoltage positionRequest = new PositionVoltage(0.0).withSlot(0);
+
+  /** Reused motion magic request */
+  private final MotionMagicVoltage motionMagicRequest = new MotionMagicVoltage(0.0).withSlot(0);
+
+  /**
+   * Initializes and configures hardware with a CANcoder as remote feedback
+   * 
+   * @param motorCan CAN identifier of the TalonFX
+   * @param encoderCan CAN identifier of the CANcoder on the module, must be on the same bus
+   * @param feedbackSource FusedCANcoder (requires Phoenix Pro) or RemoteCANcoder
+   * @param config motor config, motorToMechRatio is the steer gear ratio
+   */
+  public PositionControllerTalonFXSteer(
+      CAN motorCan,
+      CAN encoderCan,
+      FeedbackSensorSourceValue feedbackSource,
+      ControlledMotorConfig config) {
+    
+    setConfig(config);
+
+    if (!motorCan.bus().equals(encoderCan.bus())) {
+      DriverStation.reportError(
+        "Steer TalonFX " + motorCan.id() + " and CANcoder " + encoderCan.id() 
+          + " must be on the same CAN bus", true);
+    }
+
+    hardware = new TalonFXHardware(motorCan);
+    setHardware(hardware);
+
+    this.feedbackSource = feedbackSource;
+    this.encoderId = encoderCan.id();
+
+    TalonFXConfigApplier.applyFactoryDefault(hardware.getTalonFX());
+    configure();
+  }
+
+  /**
+   * Initializes and configures hardware with a fused CANcoder as feedback
+   * 
+   * @param motorCan CAN identifier of the TalonFX
+   * @param encoderCan CAN identifier of the CANcoder on the module, must be on the same bus
+   * @param config motor config, motorToMechRatio is the steer gear ratio
+   */
+  public PositionControllerTalonFXSteer(
+      CAN motorCan,
+      CAN encoderCan,
+      ControlledMotorConfig config) {
+    
+    this(motorCan, encoderCan, FeedbackSensorSourceValue.FusedCANcoder, config);
+  }
   
+  /**
+   * Initializes and configures hardware with the motor sensor as feedback
+   * 
+   * @param motorCan CAN identifier of the TalonFX
+   * @param config motor config
+   */
   public PositionControllerTalonFXSteer(
       CAN motorCan,
       ControlledMotorConfig config) {
     
     setConfig(config);
 
-    motor = new TalonFX(motorCan.id(), motorCan.bus());
+    hardware = new TalonFXHardware(motorCan);
+    setHardware(hardware);
+
+    this.feedbackSource = FeedbackSensorSourceValue.RotorSensor;
+    this.encoderId = 0;
 
+    TalonFXConfigApplier.applyFactoryDefault(hardware.getTalonFX());
     configure();
   }
 
   @Override
   public void configure() {
-    ControlledMotorConfig config = getConfig();
+    if (feedbackSource == FeedbackSensorSourceValue.RotorSensor) {
+      TalonFXConfigApplier.apply(hardware.getTalonFX(), getConfig());
+    } else {
+      TalonFXConfigApplier.apply(hardware.getTalonFX(), getConfig(), feedbackSource, encoderId);
+    }
+  }
+
+  @Override
+  protected void configureChanges(ControlledMotorConfig oldConfig) {
+    if (feedbackSource == FeedbackSensorSourceValue.RotorSensor) {
+      TalonFXConfigApplier.applyChanges(hardware.getTalonFX(), oldConfig, getConfig());
+    } else {
+      TalonFXConfigApplier.applyChanges(
+        hardware.getTalonFX(), oldConfig, getConfig(), feedbackSource, encoderId);
+    }
+  }
 
-    var tfxConfig = new TalonFXConfiguration();
+  @Override
+  public void setPos(double posRotations) {
+    if (feedbackSource != FeedbackSensorSourceValue.RotorSensor) {
+      DriverStation.reportWarning(
+        "Steer position comes from the CANcoder, set its offset instead", true);
+      return;
+    }
 
-    tfxConfig.Slot0.kP = config.kP();
-    tfxConfig.Slot0.kI = config.kI();
-    tfxConfig.Slot0.kD = config.kD();
-    tfxConfig.Slot0.kS = config.kS();
-    tfxConfig.Slot0.kV = config.kV();
-    tfxConfig.Slot0.kA = config.kA();
+    hardware.getTalonFX().setPosition(posRotations);
+  }
 
-    tfxConfig.CurrentLimits.StatorCurrentLimit = config.statorCurrentLimit();
-    tfxConfig.CurrentLimits.StatorCurrentLimitEnable = true;
-    tfxConfig.CurrentLimits.SupplyCurrentLimit = config.supplyCurrentLimit();
-    tfxConfig.CurrentLimits.SupplyCurrentLimitEnable = true;
+  @Override
+  public void setSetpoint(double posRotations, double velRotationsPerSec) {
+    long start = controlTimer.start();
 
-    tfxConfig.MotorOutput.Inverted = config.ccwPositive()
-      ? InvertedValue.CounterClockwise_Positive
-      : InvertedValue.Clockwise_Positive;
-    tfxConfig.MotorOutput.NeutralMode = config.neutralBrake() 
-      ? NeutralModeValue.Brake 
-      : NeutralModeValue.Coast;
+    hardware.setControl(
+      positionRequest
+        .withPosition(posRotations)
+        .withVelocity(velRotationsPerSec));
 
-    
+    controlTimer.stop(start);
   }
 
   @Override
-  public void setPos(double posRotations) {
+  public void setGoal(double posRotations) {
+    long start = controlTimer.start();
+
+    hardware.setControl(motionMagicRequest.withPosition(posRotations));
 
+    controlTimer.stop(start);
   }
 
   @Override
-  public void setSetpoint(double posRotations, double velRotationsPerSec) {
+  public boolean supportsGoal() {
+    return true;
+  }
+
+  @Override
+  public void enableSimulation(DCMotor dcMotor, double inertiaKgMetersSquared) {
+    if (feedbackSource != FeedbackSensorSourceValue.RotorSensor) {
+      DriverStation.reportWarning(
+        "Steer TalonFX " + hardware.getTalonFX().getDeviceID() 
+          + " closes its loop on a CANcoder, pass the CANcoder to enableSimulation", true);
+    }
+
+    super.enableSimulation(dcMotor, inertiaKgMetersSquared);
+  }
 
+  /**
+   * Simulates the steer motor and the CANcoder it closes its loop on. The CANcoder sits on
+   * the steer axis, so it follows the simulated mechanism.
+   * 
+   * @param dcMotor motor constants, should describe a single motor
+   * @param inertiaKgMetersSquared moment of inertia of the module about its steer axis
+   * @param steerEncoder the CANcoder used as feedback, already created for the module
+   */
+  public void enableSimulation(
+      DCMotor dcMotor, double inertiaKgMetersSquared, AbsoluteEncoder steerEncoder) {
+    super.enableSimulation(dcMotor, inertiaKgMetersSquared);
+
+    DCMotorModel model = hardware.getSim().getModel();
+    steerEncoder.enableSimulation(model::getPosRotations, model::getVelRotationsPerSec);
   }
-}
\ No newline at end of file
+}
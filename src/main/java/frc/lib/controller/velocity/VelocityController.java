@@ -0,0 +1,33 @@
+package frc.lib.controller.velocity;
+
+import frc.lib.controller.ControlledMotor;
+
+/** General interface for velocity controllers */
+public abstract class VelocityController extends ControlledMotor {
+
+  // Velocity controller inputs
+
+  /**
+   * Set velocity controller setpoint (target velocity and acceleration)
+   * 
+   * @param velRotationsPerSec target velocity
+   * @param accRotationsPerSecPerSec target acceleration, used for acceleration feedforward
+   */
+  public abstract void setSetpoint(double velRotationsPerSec, double accRotationsPerSecPerSec);
+
+  /**
+   * Set velocity controller setpoint with no acceleration feedforward
+   * 
+   * @param velRotationsPerSec target velocity
+   */
+  public void setSetpoint(double velRotationsPerSec) {
+    setSetpoint(velRotationsPerSec, 0.0);
+  }
+
+  /**
+   * Set current position of velocity controller in rotations
+   * 
+   * @param posRotations new position in rotations
+   */
+  public abstract void setPos(double posRotations);
+}
@@ -0,0 +1,100 @@
+package frc.lib.controller.velocity;
+
+import com.ctre.phoenix6.controls.VelocityTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+
+import frc.lib.CAN;
+import frc.lib.configs.ControlledMotorConfig;
+import frc.lib.configs.appliers.TalonFXConfigApplier;
+import frc.lib.controller.TalonFXHardware;
+
+/** 
+ * TalonFX used as a velocity controller, such as a swerve drive motor. kS, kV and kA are applied 
+ * on the TalonFX, so acceleration is tracked without a RIO-side feedforward or PID.
+ */
+public class VelocityControllerTalonFX extends VelocityController {
+
+  /** Hardware reference, backs the readings and voltage output */
+  private final TalonFXHardware hardware;
+
+  /** True uses torque current FOC (requires Phoenix Pro), gains are then in amps instead of volts */
+  private final boolean torqueCurrentFOC;
+
+  /** Reused voltage velocity request */
+  private final VelocityVoltage velocityVoltageRequest = new VelocityVoltage(0.0).withSlot(0);
+
+  /** Reused torque current velocity request */
+  private final VelocityTorqueCurrentFOC velocityTorqueCurrentRequest = 
+    new VelocityTorqueCurrentFOC(0.0).withSlot(0);
+
+  /**
+   * Initializes and configures hardware
+   * 
+   * @param motorCan CAN identifier of the TalonFX
+   * @param config motor config
+   * @param torqueCurrentFOC true uses torque current FOC (requires Phoenix Pro), 
+   *     gains are then in amps instead of volts
+   */
+  public VelocityControllerTalonFX(
+      CAN motorCan,
+      ControlledMotorConfig config,
+      boolean torqueCurrentFOC) {
+    
+    setConfig(config);
+
+    hardware = new TalonFXHardware(motorCan);
+    setHardware(hardware);
+
+    this.torqueCurrentFOC = torqueCurrentFOC;
+
+    TalonFXConfigApplier.applyFactoryDefault(hardware.getTalonFX());
+    configure();
+  }
+
+  /**
+   * Initializes and configures hardware using voltage control
+   * 
+   * @param motorCan CAN identifier of the TalonFX
+   * @param config motor config
+   */
+  public VelocityControllerTalonFX(
+      CAN motorCan,
+      ControlledMotorConfig config) {
+    
+    this(motorCan, config, false);
+  }
+
+  @Override
+  public void configure() {
+    TalonFXConfigApplier.apply(hardware.getTalonFX(), getConfig());
+  }
+
+  @Override
+  protected void configureChanges(ControlledMotorConfig oldConfig) {
+    TalonFXConfigApplier.applyChanges(hardware.getTalonFX(), oldConfig, getConfig());
+  }
+
+  @Override
+  public void setPos(double posRotations) {
+    hardware.getTalonFX().setPosition(posRotations);
+  }
+
+  @Override
+  public void setSetpoint(double velRotationsPerSec, double accRotationsPerSecPerSec) {
+    long start = controlTimer.start();
+
+    if (torqueCurrentFOC) {
+      hardware.setControl(
+        velocityTorqueCurrentRequest
+          .withVelocity(velRotationsPerSec)
+          .withAcceleration(accRotationsPerSecPerSec));
+    } else {
+      hardware.setControl(
+        velocityVoltageRequest
+          .withVelocity(velRotationsPerSec)
+          .withAcceleration(accRotationsPerSecPerSec));
+    }
+
+    controlTimer.stop(start);
+  }
+}
@@ -0,0 +1,15 @@
+package frc.lib.io;
+
+/**
+ * General interface for where a device's readings come from, either the hardware
+ * or a recorded log. Readings are a fixed list of fields copied into a reused array.
+ */
+public interface DeviceIO {
+
+  /**
+   * Copies the latest readings into the inputs array, called once per loop
+   * 
+   * @param inputs readings in field order
+   */
+  void updateInputs(double[] inputs);
+}
@@ -0,0 +1,26 @@
+package frc.lib.io;
+
+import java.util.function.DoubleSupplier;
+
+/** Reads a device's inputs from its hardware getters */
+public class HardwareDeviceIO implements DeviceIO {
+
+  /** Reading getters, in field order */
+  private final DoubleSupplier[] suppliers;
+
+  /**
+   * Creates hardware IO
+   * 
+   * @param suppliers reading getters, in field order
+   */
+  public HardwareDeviceIO(DoubleSupplier[] suppliers) {
+    this.suppliers = suppliers;
+  }
+
+  @Override
+  public void updateInputs(double[] inputs) {
+    for (int i = 0; i < suppliers.length; i++) {
+      inputs[i] = suppliers[i].getAsDouble();
+    }
+  }
+}
@@ -0,0 +1,281 @@
+package frc.lib.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.util.datalog.DataLogRecord.StartRecordData;
+
+/**
+ * Streams device readings out of a recorded .wpilog one robot loop at a time.
+ * The file is memory mapped, so records are decoded straight out of the page cache.
+ * Loops are delimited by the loop timestamp entry the device logger writes every loop.
+ * Device entries keep their latest reading, row entries keep every row recorded in the loop.
+ */
+public class LogReplay {
+
+  /** Receives replayed rows */
+  @FunctionalInterface
+  public interface RowConsumer {
+
+    /**
+     * Accepts one recorded row
+     * 
+     * @param row the recorded row
+     */
+    void accept(double[] row);
+  }
+
+  /** Entry written once at the start of every logged loop */
+  public static final String LOOP_ENTRY = "Devices/LoopTimestamp";
+
+  /** Records in file order */
+  private final Iterator<DataLogRecord> records;
+
+  /** Latest readings of every tracked device, by entry name */
+  private final Map<String, double[]> values = new HashMap<>();
+
+  /** Rows recorded in the current loop of every tracked row entry, by entry name */
+  private final Map<String, List<double[]>> rows = new HashMap<>();
+
+  /** Tracked entry names by entry id, null for entries that are not replayed */
+  private String[] namesById = new String[64];
+
+  /** Entry id of every entry started so far, so entries tracked late still resolve */
+  private final Map<String, Integer> idsByName = new HashMap<>();
+
+  /** Entry id of the loop timestamp, -1 until it is seen */
+  private int loopEntryId = -1;
+
+  /** True once the reader has been positioned at the first loop */
+  private boolean started = false;
+
+  /** True when the start of the next loop has been read */
+  private boolean hasNextLoop = false;
+
+  /** Logged time of the next loop */
+  private double nextLoopTimestampSeconds = 0.0;
+
+  /** Logged time of the current loop */
+  private double loopTimestampSeconds = 0.0;
+
+  /**
+   * Opens a log for replay
+   * 
+   * @param path path to the .wpilog
+   * @throws IOException if the file cannot be read or is not a wpilog
+   */
+  public LogReplay(String path) throws IOException {
+    MappedByteBuffer buffer;
+
+    try (FileChannel channel = FileChannel.open(Path.of(path), StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    DataLogReader reader = new DataLogReader(buffer);
+
+    if (!reader.isValid()) {
+      throw new IOException(path + " is not a wpilog");
+    }
+
+    records = reader.iterator();
+  }
+
+  /**
+   * Replays an entry, devices are tracked as they are created, also after replay started
+   * 
+   * @param name entry name
+   */
+  synchronized void track(String name) {
+    values.putIfAbsent(name, new double[0]);
+    resolve(name);
+  }
+
+  /**
+   * Copies the current readings of an entry
+   * 
+   * @param name entry name
+   * @param inputs array to copy into, left unchanged where the log has no reading
+   */
+  synchronized void copy(String name, double[] inputs) {
+    double[] latest = values.get(name);
+
+    if (latest != null) {
+      System.arraycopy(latest, 0, inputs, 0, Math.min(latest.length, inputs.length));
+    }
+  }
+
+  /**
+   * Replays an entry that records any number of rows per loop
+   * 
+   * @param name entry name
+   */
+  public synchronized void trackRows(String name) {
+    rows.putIfAbsent(name, new ArrayList<>());
+    resolve(name);
+  }
+
+  /**
+   * Hands every row of an entry recorded in the current loop to the consumer, in order
+   * 
+   * @param name entry name
+   * @param consumer receives the rows
+   * @return number of rows replayed
+   */
+  public synchronized int copyRows(String name, RowConsumer consumer) {
+    List<double[]> recorded = rows.get(name);
+
+    if (recorded == null) {
+      return 0;
+    }
+
+    for (int i = 0; i < recorded.size(); i++) {
+      consumer.accept(recorded.get(i));
+    }
+
+    return recorded.size();
+  }
+
+  /**
+   * Moves to the next recorded loop and applies every reading recorded in it
+   * 
+   * @return false once the log has no more loops
+   */
+  public synchronized boolean advance() {
+    if (!started) {
+      started = true;
+      readLoop(false);
+    }
+
+    if (!hasNextLoop) {
+      return false;
+    }
+
+    loopTimestampSeconds = nextLoopTimestampSeconds;
+    hasNextLoop = false;
+
+    for (List<double[]> recorded : rows.values()) {
+      recorded.clear();
+    }
+
+    readLoop(true);
+
+    return true;
+  }
+
+  /**
+   * Returns logged time of the current loop
+   * 
+   * @return logged FPGA time of the current loop in seconds
+   */
+  public synchronized double getLoopTimestampSeconds() {
+    return loopTimestampSeconds;
+  }
+
+  /**
+   * Returns logged time of the next loop without moving to it, 
+   * so a replay can step time to it before running the loop
+   * 
+   * @return logged FPGA time of the next loop in seconds, NaN once the log has no more loops
+   */
+  public synchronized double getNextLoopTimestampSeconds() {
+    if (!started) {
+      started = true;
+      readLoop(false);
+    }
+
+    return hasNextLoop ? nextLoopTimestampSeconds : Double.NaN;
+  }
+
+  /**
+   * Reads records up to the start of the next loop
+   * 
+   * @param apply true to apply device readings, false to skip them
+   */
+  private void readLoop(boolean apply) {
+    while (records.hasNext()) {
+      DataLogRecord record = records.next();
+
+      if (record.isStart()) {
+        start(record.getStartData());
+        continue;
+      }
+
+      if (record.isControl()) {
+        continue;
+      }
+
+      int entry = record.getEntry();
+
+      if (entry == loopEntryId) {
+        nextLoopTimestampSeconds = record.getDouble();
+        hasNextLoop = true;
+        return;
+      }
+
+      if (apply && entry < namesById.length && namesById[entry] != null) {
+        double[] recorded = record.getDoubleArray();
+        String name = namesById[entry];
+        List<double[]> loopRows = rows.get(name);
+
+        if (loopRows != null) {
+          loopRows.add(recorded);
+          continue;
+        }
+
+        double[] latest = values.get(name);
+
+        if (latest.length != recorded.length) {
+          values.put(name, recorded);
+        } else {
+          System.arraycopy(recorded, 0, latest, 0, recorded.length);
+        }
+      }
+    }
+  }
+
+  /**
+   * Records an entry id and maps it to its name if the entry is replayed
+   * 
+   * @param start start record of the entry
+   */
+  private void start(StartRecordData start) {
+    if (start.name.equals(LOOP_ENTRY)) {
+      loopEntryId = start.entry;
+      return;
+    }
+
+    idsByName.put(start.name, start.entry);
+    resolve(start.name);
+  }
+
+  /**
+   * Maps a tracked entry's id to its name once both the tracking and its start record are seen, 
+   * so a device created after replay started is still replayed
+   * 
+   * @param name entry name
+   */
+  private void resolve(String name) {
+    Integer entry = idsByName.get(name);
+
+    if (entry == null || (!values.containsKey(name) && !rows.containsKey(name))) {
+      return;
+    }
+
+    if (entry >= namesById.length) {
+      namesById = Arrays.copyOf(namesById, Math.max(entry + 1, namesById.length * 2));
+    }
+
+    namesById[entry] = name;
+  }
+}
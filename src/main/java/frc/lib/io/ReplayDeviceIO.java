@@ -0,0 +1,29 @@
+package frc.lib.io;
+
+/** Reads a device's inputs from a recorded log */
+public class ReplayDeviceIO implements DeviceIO {
+
+  /** Log being replayed */
+  private final LogReplay replay;
+
+  /** Entry the device was recorded under */
+  private final String name;
+
+  /**
+   * Creates replay IO
+   * 
+   * @param replay log being replayed
+   * @param name entry the device was recorded under
+   */
+  public ReplayDeviceIO(LogReplay replay, String name) {
+    this.replay = replay;
+    this.name = name;
+
+    replay.track(name);
+  }
+
+  @Override
+  public void updateInputs(double[] inputs) {
+    replay.copy(name, inputs);
+  }
+}
@@ -0,0 +1,383 @@
+package frc.lib.logging;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import frc.lib.CAN;
+import frc.lib.io.DeviceIO;
+import frc.lib.io.HardwareDeviceIO;
+import frc.lib.io.LogReplay;
+import frc.lib.io.ReplayDeviceIO;
+
+/**
+ * Reads every device's inputs once per loop and records them to the on-robot .wpilog. 
+ * Each device is one double array entry, filled into a preallocated array every loop 
+ * and handed to DataLog, which buffers it and writes it to disk (USB stick when present) 
+ * from its own thread. Inputs come from the hardware, or from a recorded log when replaying.
+ */
+public class DeviceLogger {
+
+  /** Initial capacity of the device array */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /** Entry the Driver Station state is logged to every loop, 1 for true */
+  public static final String DRIVER_STATION_ENTRY = "Devices/DriverStation";
+
+  /** Driver Station state fields, in logged order */
+  private static final String[] DRIVER_STATION_FIELDS = {"enabled", "autonomous", "test"};
+
+  /** Logged devices, only the first deviceCount are valid */
+  private static LoggedDevice[] devices = new LoggedDevice[INITIAL_CAPACITY];
+
+  /** Number of logged devices */
+  private static int deviceCount = 0;
+
+  /** Whether logging is enabled */
+  private static volatile boolean enabled = true;
+
+  /** Log being replayed, null when reading hardware */
+  private static LogReplay replay = null;
+
+  /** True once the replayed log has no more loops */
+  private static boolean replayFinished = false;
+
+  /** True when the replay was moved to this loop ahead of logAll() */
+  private static boolean replayAdvanced = false;
+
+  /** Logged Driver Station state, null unless replaying */
+  private static DeviceIO replayedDriverStation = null;
+
+  /** Marks the start of every loop so a replay can find loop boundaries */
+  private static DoubleLogEntry loopEntry = null;
+
+  /** Driver Station state of every loop, so a replay runs the recorded mode changes */
+  private static DoubleArrayLogEntry driverStationEntry = null;
+
+  /** Reused Driver Station state */
+  private static final double[] driverStationState = new double[DRIVER_STATION_FIELDS.length];
+
+  /** One device, its log entry and a reused array of its inputs */
+  private static class LoggedDevice {
+
+    /** Entry name */
+    private final String name;
+
+    /** Log entry for the device */
+    private final DoubleArrayLogEntry entry;
+
+    /** Where the inputs come from, swapped for simulated getters when simulated */
+    private DeviceIO io;
+
+    /** Reused array of inputs */
+    private final double[] values;
+
+    /**
+     * Creates a logged device
+     * 
+     * @param log log to record to
+     * @param name entry name
+     * @param fields input names, stored in the entry metadata
+     * @param io where the inputs come from
+     */
+    private LoggedDevice(DataLog log, String name, String[] fields, DeviceIO io) {
+      this.name = name;
+      this.entry = new DoubleArrayLogEntry(
+        log,
+        name,
+        "{\"fields\":[\"" + String.join("\",\"", fields) + "\"]}");
+      this.io = io;
+      this.values = new double[fields.length];
+    }
+
+    /** Reads the inputs into the array */
+    private void update() {
+      io.updateInputs(values);
+    }
+
+    /** Appends the inputs */
+    private void log() {
+      entry.append(values);
+    }
+  }
+
+  /** 
+   * An entry recording any number of rows per loop, for readings taken between loops. 
+   * Rows are replayed from the log when replaying, and logged again like device inputs.
+   */
+  public static class SampleLog {
+
+    /** Entry name */
+    private final String name;
+
+    /** Log entry for the rows */
+    private final DoubleArrayLogEntry entry;
+
+    /** Log being replayed, null when reading hardware */
+    private final LogReplay replay;
+
+    /**
+     * Creates a sample log
+     * 
+     * @param log log to record to
+     * @param name entry name
+     * @param fields row field names, stored in the entry metadata
+     * @param replay log being replayed, null when reading hardware
+     */
+    private SampleLog(DataLog log, String name, String[] fields, LogReplay replay) {
+      this.name = name;
+      this.entry = new DoubleArrayLogEntry(
+        log,
+        name,
+        "{\"fields\":[\"" + String.join("\",\"", fields) + "\"]}");
+      this.replay = replay;
+
+      if (replay != null) {
+        replay.trackRows(name);
+      }
+    }
+
+    /**
+     * Appends one row, should be called from the main loop after logAll() 
+     * so the row is recorded in the same loop it is used in
+     * 
+     * @param row the row, in field order
+     */
+    public void append(double[] row) {
+      if (enabled) {
+        entry.append(row);
+      }
+    }
+
+    /**
+     * Hands every row recorded in the current replayed loop to the consumer, in order
+     * 
+     * @param consumer receives the rows
+     * @return number of rows replayed, 0 when not replaying
+     */
+    public int replay(LogReplay.RowConsumer consumer) {
+      return replay == null ? 0 : replay.copyRows(name, consumer);
+    }
+  }
+
+  /**
+   * Returns the entry name for a device
+   * 
+   * @param type device type
+   * @param can CAN identifier of the device
+   * @return the entry name, e.g. Devices/TalonFX/rio/3
+   */
+  public static String name(String type, CAN can) {
+    return "Devices/" + type + "/" + (can.bus().isEmpty() ? "rio" : can.bus()) + "/" + can.id();
+  }
+
+  /**
+   * Replays a recorded log instead of reading hardware, 
+   * must be called before any device is created
+   * 
+   * @param log the recorded log
+   */
+  public static synchronized void setReplay(LogReplay log) {
+    if (deviceCount > 0) {
+      DriverStation.reportError("Replay must be set before devices are created", true);
+      return;
+    }
+
+    replay = log;
+    replayedDriverStation = new ReplayDeviceIO(log, DRIVER_STATION_ENTRY);
+  }
+
+  /**
+   * Returns true when inputs come from a recorded log
+   * 
+   * @return true when inputs come from a recorded log
+   */
+  public static synchronized boolean isReplay() {
+    return replay != null;
+  }
+
+  /**
+   * Returns true once the replayed log has no more loops
+   * 
+   * @return true once the replayed log has no more loops
+   */
+  public static synchronized boolean isReplayFinished() {
+    return replayFinished;
+  }
+
+  /**
+   * Moves the replay to its next loop ahead of logAll(), so a replay runner can apply 
+   * the loop's Driver Station state before the robot reads it
+   * 
+   * @param driverStation filled with the loop's logged enabled, autonomous and test state, 
+   *     1 for true, left unchanged when the log has no Driver Station state
+   * @return false once the log has no more loops
+   */
+  public static synchronized boolean advanceReplay(double[] driverStation) {
+    if (replay == null) {
+      return false;
+    }
+
+    if (!replayAdvanced) {
+      advanceReplay();
+      replayAdvanced = true;
+    }
+
+    replayedDriverStation.updateInputs(driverStation);
+
+    return !replayFinished;
+  }
+
+  /** Moves the replay to its next loop, warning once it reaches the end of the log */
+  private static void advanceReplay() {
+    if (!replayFinished && !replay.advance()) {
+      replayFinished = true;
+      DriverStation.reportWarning("Replay reached the end of the log", false);
+    }
+  }
+
+  /**
+   * Adds a device, should be called once when the device is created. 
+   * Readers should use the returned getters so they see replayed inputs when replaying.
+   * 
+   * @param name entry name
+   * @param fields input names
+   * @param suppliers hardware getters, in field order
+   * @return getters of this loop's inputs, in field order
+   */
+  public static synchronized DoubleSupplier[] add(
+      String name, String[] fields, DoubleSupplier... suppliers) {
+    
+
+    if (fields.length != suppliers.length) {
+      throw new IllegalArgumentException(
+        "Device log " + name + " has " + fields.length + " fields and "
+          + suppliers.length + " getters");
+    }
+
+    if (deviceCount == devices.length) {
+      LoggedDevice[] grown = new LoggedDevice[devices.length * 2];
+      System.arraycopy(devices, 0, grown, 0, deviceCount);
+      devices = grown;
+    }
+
+    DeviceIO io = replay == null 
+      ? new HardwareDeviceIO(suppliers) 
+      : new ReplayDeviceIO(replay, name);
+
+    LoggedDevice device = new LoggedDevice(DataLogManager.getLog(), name, fields, io);
+    devices[deviceCount++] = device;
+
+    DoubleSupplier[] inputs = new DoubleSupplier[fields.length];
+
+    for (int i = 0; i < fields.length; i++) {
+      int index = i;
+      inputs[i] = () -> device.values[index];
+    }
+
+    return inputs;
+  }
+
+  /**
+   * Adds an entry of rows recorded between loops, should be called once before the first loop
+   * 
+   * @param name entry name
+   * @param fields row field names
+   * @return the sample log
+   */
+  public static synchronized SampleLog addSamples(String name, String[] fields) {
+    return new SampleLog(DataLogManager.getLog(), name, fields, replay);
+  }
+
+  /**
+   * Reads a device's inputs from simulated getters instead of its hardware getters, 
+   * so a sim running faster than real time does not read device firmware that runs on 
+   * the wall clock. Ignored when replaying.
+   * 
+   * @param name entry name the device was added with
+   * @param suppliers simulated getters, in field order
+   */
+  public static synchronized void simulate(String name, DoubleSupplier... suppliers) {
+    if (replay != null) {
+      return;
+    }
+
+    for (int i = 0; i < deviceCount; i++) {
+      LoggedDevice device = devices[i];
+
+      if (device.name.equals(name)) {
+        if (suppliers.length != device.values.length) {
+          throw new IllegalArgumentException(
+            "Device log " + name + " has " + device.values.length + " fields and "
+              + suppliers.length + " simulated getters");
+        }
+
+        device.io = new HardwareDeviceIO(suppliers);
+        return;
+      }
+    }
+
+    DriverStation.reportError("Device log " + name + " was never added", true);
+  }
+
+  /** 
+   * Reads the inputs of every device and appends them to the log, 
+   * should be called once per loop after refresh 
+   */
+  public static synchronized void logAll() {
+    if (replay != null && !replayAdvanced) {
+      advanceReplay();
+    }
+
+    replayAdvanced = false;
+
+    for (int i = 0; i < deviceCount; i++) {
+      devices[i].update();
+    }
+
+    if (!enabled) {
+      return;
+    }
+
+    if (loopEntry == null) {
+      loopEntry = new DoubleLogEntry(DataLogManager.getLog(), LogReplay.LOOP_ENTRY);
+      driverStationEntry = new DoubleArrayLogEntry(
+        DataLogManager.getLog(),
+        DRIVER_STATION_ENTRY,
+        "{\"fields\":[\"" + String.join("\",\"", DRIVER_STATION_FIELDS) + "\"]}");
+    }
+
+    loopEntry.append(Timer.getFPGATimestamp());
+
+    driverStationState[0] = DriverStation.isEnabled() ? 1.0 : 0.0;
+    driverStationState[1] = DriverStation.isAutonomous() ? 1.0 : 0.0;
+    driverStationState[2] = DriverStation.isTest() ? 1.0 : 0.0;
+    driverStationEntry.append(driverStationState);
+
+    for (int i = 0; i < deviceCount; i++) {
+      devices[i].log();
+    }
+  }
+
+  /**
+   * Enables or disables recording, inputs are still read while disabled
+   * 
+   * @param enable true to record readings
+   */
+  public static void setEnabled(boolean enable) {
+    enabled = enable;
+  }
+
+  /**
+   * Returns number of logged devices
+   * 
+   * @return number of logged devices
+   */
+  public static synchronized int getDeviceCount() {
+    return deviceCount;
+  }
+}
@@ -0,0 +1,389 @@
+package frc.lib.mechanism;
+
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.signals.GravityTypeValue;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.CAN;
+import frc.lib.configs.ControlledMotorConfig;
+import frc.lib.configs.ControlledMotorConfig.ControlledMotorBuilder;
+import frc.lib.configs.FeedbackControllerConfig;
+import frc.lib.configs.FeedforwardControllerConfig;
+import frc.lib.configs.MechanismConfig;
+import frc.lib.configs.MotionProfileConfig;
+import frc.lib.configs.MotorConfig;
+import frc.lib.controller.position.PositionController;
+import frc.lib.controller.position.PositionControllerTalonFX;
+import frc.lib.sensor.absolute.AbsoluteEncoder;
+import frc.lib.sensor.absolute.AbsoluteEncoderCANcoder;
+import frc.lib.timing.LoopTimer;
+import frc.lib.timing.LoopTiming;
+
+/**
+ * Single joint mechanism built from a mechanism config. Runs the motion profile and closed loop
+ * on the motor controller when it supports goals, otherwise steps a trapezoidal profile, PID and
+ * feedforward on the RIO and sends voltages. Everything is created once so update() does not
+ * allocate. Feedforward gains are per mechanism rotation on both paths, with Arm_Cosine treating
+ * position 0 as horizontal, so a config tuned on one path works on the other.
+ */
+public class Mechanism extends SubsystemBase {
+
+  /** Time spent in update() across all mechanisms */
+  private static final LoopTimer updateTimer = LoopTiming.create("Mechanism.update", 0.0005);
+
+  /** Mechanism config */
+  private final MechanismConfig config;
+
+  /** Motor driving the mechanism */
+  private final PositionController motor;
+
+  /** Absolute encoder the motor position is seeded from, null if there is none */
+  private final AbsoluteEncoder encoder;
+
+  /** How kG is applied */
+  private final GravityTypeValue gravityType;
+
+  /** True runs the profile and closed loop on the motor controller */
+  private final boolean onboard;
+
+  /** RIO side feedback, unused when onboard */
+  private final PIDController pidController;
+
+  /** Cached config values read every loop */
+  private final double kS;
+  private final double kG;
+  private final double kV;
+  private final double kA;
+  private final double maxVelocity;
+  private final double maxAcceleration;
+  private final boolean continuous;
+
+  /** Mechanism readings */
+  private final DoubleSupplier posRotations;
+  private final DoubleSupplier velRotationsPerSec;
+
+  /** Goal position */
+  private double goalRotations;
+
+  /** True once a goal has been set */
+  private boolean hasGoal = false;
+
+  /** True once the motor position has been seeded from the absolute encoder */
+  private boolean seeded;
+
+  /** RIO side profile setpoint, stepped in place */
+  private double setpointPosRotations;
+  private double setpointVelRotationsPerSec;
+  private double setpointAccRotationsPerSecPerSec;
+
+  /**
+   * Creates a mechanism from existing hardware
+   * 
+   * @param config mechanism config, its motor config should already be applied to the motor
+   * @param motor motor driving the mechanism
+   * @param encoder absolute encoder the motor position is seeded from, or null
+   * @param gravityType Elevator_Static for constant gravity, Arm_Cosine for arms
+   *     (position 0 must be horizontal)
+   */
+  public Mechanism(
+      MechanismConfig config,
+      PositionController motor,
+      AbsoluteEncoder encoder,
+      GravityTypeValue gravityType) {
+
+    this.config = config;
+    this.motor = motor;
+    this.encoder = encoder;
+    this.gravityType = gravityType;
+
+    onboard = motor.supportsGoal();
+
+    FeedbackControllerConfig feedback = config.feedbackControllerConfig();
+    FeedforwardControllerConfig feedforward = config.feedforwardControllerConfig();
+    MotionProfileConfig profile = config.motionProfileConfig();
+
+    pidController = feedback.createPIDController();
+
+    kS = feedforward.kS();
+    kG = feedforward.kG();
+    kV = feedforward.kV();
+    kA = feedforward.kA();
+    maxVelocity = profile.maxVelocity();
+    maxAcceleration = profile.maxAcceleration();
+    continuous = feedback.continuous();
+
+    posRotations = motor.getPosRotationsSupplier();
+    velRotationsPerSec = motor.getVelRotationsPerSecSupplier();
+
+    seeded = encoder == null;
+  }
+
+  /**
+   * Creates a mechanism driven by a TalonFX, running Motion Magic on the TalonFX
+   * 
+   * @param config mechanism config
+   * @param motorCan CAN identifier of the TalonFX
+   * @param encoderCan CAN identifier of a CANcoder the position is seeded from, or null
+   * @param gravityType Elevator_Static for constant gravity, Arm_Cosine for arms
+   *     (position 0 must be horizontal)
+   * @return a mechanism driven by a TalonFX
+   */
+  public static Mechanism createTalonFX(
+      MechanismConfig config,
+      CAN motorCan,
+      CAN encoderCan,
+      GravityTypeValue gravityType) {
+
+    PositionController motor = new PositionControllerTalonFX(
+      motorCan, createMotorConfig(config), gravityType, false);
+
+    AbsoluteEncoder encoder = encoderCan == null
+      ? null
+      : new AbsoluteEncoderCANcoder(config.absoluteEncoderConfig(), encoderCan);
+
+    return new Mechanism(config, motor, encoder, gravityType);
+  }
+
+  /**
+   * Returns the motor controller config described by a mechanism config
+   * 
+   * @param config mechanism config
+   * @return the motor controller config described by a mechanism config
+   */
+  public static ControlledMotorConfig createMotorConfig(MechanismConfig config) {
+    MotorConfig motorConfig = config.motorConfig();
+    FeedbackControllerConfig feedback = config.feedbackControllerConfig();
+    FeedforwardControllerConfig feedforward = config.feedforwardControllerConfig();
+    MotionProfileConfig profile = config.motionProfileConfig();
+
+    return ControlledMotorBuilder.defaults()
+      .neutralBrake(motorConfig.neutralBrake())
+      .ccwPositive(motorConfig.ccwPositive())
+      .motorToMechRatio(motorConfig.motorToMechRatio())
+      .statorCurrentLimit(motorConfig.statorCurrentLimit())
+      .supplyCurrentLimit(motorConfig.supplyCurrentLimit())
+      .maxVelocity(profile.maxVelocity())
+      .maxAcceleration(profile.maxAcceleration())
+      .kP(feedback.kP())
+      .kI(feedback.kI())
+      .kD(feedback.kD())
+      .kS(feedforward.kS())
+      .kG(feedforward.kG())
+      .kV(feedforward.kV())
+      .kA(feedforward.kA())
+      .continuous(feedback.continuous())
+      .posTolerance(feedback.tolerance())
+      .velTolerance(feedback.rateTolerance())
+      .build();
+  }
+
+  /**
+   * Set goal position, reached with a motion profile limited by the motion profile config
+   * 
+   * @param posRotations goal position in mechanism rotations
+   */
+  public void setGoal(double posRotations) {
+    goalRotations = posRotations;
+    hasGoal = true;
+  }
+
+  /** Runs update() every scheduler loop */
+  @Override
+  public void periodic() {
+    update();
+  }
+
+  /** Seeds the position, steps the profile and sends the output, should be called once per loop */
+  public void update() {
+    long start = updateTimer.start();
+
+    if (!seeded) {
+      motor.setPos(
+        encoder.getPosRotationsSupplier().getAsDouble()
+          / config.absoluteEncoderConfig().sensorToMechRatio());
+      seeded = true;
+    }
+
+    double pos = posRotations.getAsDouble();
+
+    if (DriverStation.isDisabled() || !hasGoal) {
+      // Restart the profile from wherever the mechanism is when control resumes
+      setpointPosRotations = pos;
+      setpointVelRotationsPerSec = velRotationsPerSec.getAsDouble();
+      setpointAccRotationsPerSecPerSec = 0.0;
+      pidController.reset();
+
+      updateTimer.stop(start);
+      return;
+    }
+
+    if (onboard) {
+      motor.setGoal(goalRotations);
+
+      updateTimer.stop(start);
+      return;
+    }
+
+    double goal = goalRotations;
+
+    if (continuous) {
+      goal = setpointPosRotations + MathUtil.inputModulus(goal - setpointPosRotations, -0.5, 0.5);
+    }
+
+    stepProfile(pidController.getPeriod(), goal);
+
+    double volts =
+      pidController.calculate(pos, setpointPosRotations)
+        + calculateFeedforward(
+          setpointPosRotations, setpointVelRotationsPerSec, setpointAccRotationsPerSecPerSec);
+
+    motor.setVoltage(volts);
+
+    updateTimer.stop(start);
+  }
+
+  /**
+   * Steps the trapezoidal profile setpoint toward the goal in place,
+   * without limits the setpoint jumps straight to the goal
+   * 
+   * @param dtSeconds time step
+   * @param goal goal position
+   */
+  private void stepProfile(double dtSeconds, double goal) {
+    if (maxVelocity <= 0.0 || maxAcceleration <= 0.0) {
+      setpointPosRotations = goal;
+      setpointVelRotationsPerSec = 0.0;
+      setpointAccRotationsPerSecPerSec = 0.0;
+      return;
+    }
+
+    // Work in the direction of the goal so the limits below only need one sign
+    double direction = goal >= setpointPosRotations ? 1.0 : -1.0;
+    double error = (goal - setpointPosRotations) * direction;
+    double vel = setpointVelRotationsPerSec * direction;
+    double maxVelStep = maxAcceleration * dtSeconds;
+
+    // Fastest velocity at the end of this step that can still stop at the goal, 
+    // from error - (vel + next) / 2 * dt >= next^2 / (2 * maxAcceleration)
+    double remaining = error - 0.5 * vel * dtSeconds;
+    double targetVel = remaining <= 0.0
+      ? -maxVelocity
+      : 0.5 * (Math.sqrt(maxVelStep * maxVelStep + 8.0 * maxAcceleration * remaining) 
+        - maxVelStep);
+    targetVel = Math.min(targetVel, maxVelocity);
+
+    double nextVel = vel + MathUtil.clamp(targetVel - vel, -maxVelStep, maxVelStep);
+    double nextError = error - 0.5 * (vel + nextVel) * dtSeconds;
+
+    // Land on the goal once a single step of deceleration reaches it
+    if (Math.abs(vel) <= maxVelStep && nextError <= 0.5 * maxVelStep * dtSeconds) {
+      nextVel = 0.0;
+      nextError = 0.0;
+    }
+
+    nextVel *= direction;
+    double nextPos = goal - nextError * direction;
+
+    setpointAccRotationsPerSecPerSec = (nextVel - setpointVelRotationsPerSec) / dtSeconds;
+    setpointVelRotationsPerSec = nextVel;
+    setpointPosRotations = nextPos;
+  }
+
+  /**
+   * Returns feedforward voltage, matching how the TalonFX applies the same gains
+   * 
+   * @param posRotations setpoint position
+   * @param velRotationsPerSec setpoint velocity
+   * @param accRotationsPerSecPerSec setpoint acceleration
+   * @return feedforward voltage
+   */
+  private double calculateFeedforward(
+      double posRotations, double velRotationsPerSec, double accRotationsPerSecPerSec) {
+
+    double gravity = gravityType == GravityTypeValue.Arm_Cosine
+      ? kG * Math.cos(2.0 * Math.PI * posRotations)
+      : kG;
+
+    return kS * Math.signum(velRotationsPerSec)
+      + gravity
+      + kV * velRotationsPerSec
+      + kA * accRotationsPerSecPerSec;
+  }
+
+  /**
+   * Returns true if the mechanism is within tolerance of the goal
+   * 
+   * @return true if the mechanism is within tolerance of the goal
+   */
+  public boolean atGoal() {
+    FeedbackControllerConfig feedback = config.feedbackControllerConfig();
+
+    double error = goalRotations - posRotations.getAsDouble();
+
+    if (continuous) {
+      error = MathUtil.inputModulus(error, -0.5, 0.5);
+    }
+
+    return hasGoal
+      && Math.abs(error) <= feedback.tolerance()
+      && Math.abs(velRotationsPerSec.getAsDouble()) <= feedback.rateTolerance();
+  }
+
+  /**
+   * Returns true if the profile and closed loop run on the motor controller
+   * 
+   * @return true if the profile and closed loop run on the motor controller
+   */
+  public boolean isOnboard() {
+    return onboard;
+  }
+
+  /**
+   * Returns goal position
+   * 
+   * @return goal position in mechanism rotations
+   */
+  public double getGoalRotations() {
+    return goalRotations;
+  }
+
+  /**
+   * Returns mechanism position
+   * 
+   * @return mechanism position in rotations
+   */
+  public double getPosRotations() {
+    return posRotations.getAsDouble();
+  }
+
+  /**
+   * Returns mechanism velocity
+   * 
+   * @return mechanism velocity in rotations per second
+   */
+  public double getVelRotationsPerSec() {
+    return velRotationsPerSec.getAsDouble();
+  }
+
+  /**
+   * Returns the motor driving the mechanism
+   * 
+   * @return the motor driving the mechanism
+   */
+  public PositionController getMotor() {
+    return motor;
+  }
+
+  /**
+   * Returns mechanism config
+   * 
+   * @return mechanism config
+   */
+  public MechanismConfig getConfig() {
+    return config;
+  }
+}
@@ -0,0 +1,156 @@
+package frc.lib.odometry;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/** 
+ * Fixed-capacity ring buffer of timestamped module samples, 
+ * written by the odometry thread and drained by the main loop without locking
+ */
+public class OdometrySampleBuffer {
+
+  /** Receives drained samples */
+  @FunctionalInterface
+  public interface SampleConsumer {
+
+    /**
+     * Accepts a single module sample, the arrays are reused between calls
+     * 
+     * @param timestampSeconds FPGA timestamp of the sample in seconds
+     * @param drivePosRotations drive positions in rotations, one per module
+     * @param steerPosRotations steer positions in rotations, one per module
+     * @param yawRotations gyro yaw in rotations, NaN without a gyro
+     */
+    void accept(
+        double timestampSeconds, 
+        double[] drivePosRotations, 
+        double[] steerPosRotations, 
+        double yawRotations);
+  }
+
+  /** Number of samples the buffer can hold */
+  private final int capacity;
+
+  /** Number of modules per sample */
+  private final int moduleCount;
+
+  /** Sample timestamps */
+  private final double[] timestamps;
+
+  /** Drive positions, moduleCount entries per sample */
+  private final double[] drivePositions;
+
+  /** Steer positions, moduleCount entries per sample */
+  private final double[] steerPositions;
+
+  /** Gyro yaws */
+  private final double[] yaws;
+
+  /** Scratch arrays handed to the consumer */
+  private final double[] drainDrivePositions;
+  private final double[] drainSteerPositions;
+
+  /** Total samples written, only advanced by the producer */
+  private final AtomicLong writeCount = new AtomicLong();
+
+  /** Total samples read, only advanced by the consumer */
+  private final AtomicLong readCount = new AtomicLong();
+
+  /** Samples dropped because the consumer fell behind */
+  private final AtomicLong droppedCount = new AtomicLong();
+
+  /**
+   * Creates a sample buffer
+   * 
+   * @param capacity number of samples the buffer can hold
+   * @param moduleCount number of modules per sample
+   */
+  public OdometrySampleBuffer(int capacity, int moduleCount) {
+    this.capacity = capacity;
+    this.moduleCount = moduleCount;
+
+    timestamps = new double[capacity];
+    drivePositions = new double[capacity * moduleCount];
+    steerPositions = new double[capacity * moduleCount];
+    yaws = new double[capacity];
+
+    drainDrivePositions = new double[moduleCount];
+    drainSteerPositions = new double[moduleCount];
+  }
+
+  /**
+   * Writes a sample, only called by the single producer thread. 
+   * The sample is dropped if the buffer is full.
+   * 
+   * @param timestampSeconds FPGA timestamp of the sample in seconds
+   * @param drivePosRotations drive positions in rotations, one per module
+   * @param steerPosRotations steer positions in rotations, one per module
+   * @param yawRotations gyro yaw in rotations, NaN without a gyro
+   * @return true if the sample was written
+   */
+  public boolean write(
+      double timestampSeconds, 
+      double[] drivePosRotations, 
+      double[] steerPosRotations, 
+      double yawRotations) {
+    
+    long write = writeCount.get();
+
+    if (write - readCount.get() >= capacity) {
+      droppedCount.incrementAndGet();
+      return false;
+    }
+
+    int slot = (int) (write % capacity);
+    timestamps[slot] = timestampSeconds;
+    yaws[slot] = yawRotations;
+    System.arraycopy(drivePosRotations, 0, drivePositions, slot * moduleCount, moduleCount);
+    System.arraycopy(steerPosRotations, 0, steerPositions, slot * moduleCount, moduleCount);
+
+    // Publish the sample after its data is written
+    writeCount.lazySet(write + 1);
+    
+    return true;
+  }
+
+  /**
+   * Hands every unread sample to the consumer in order, only called by the single consumer thread
+   * 
+   * @param consumer receives the samples
+   * @return number of samples drained
+   */
+  public int drain(SampleConsumer consumer) {
+    long read = readCount.get();
+    long write = writeCount.get();
+
+    for (long i = read; i < write; i++) {
+      int slot = (int) (i % capacity);
+      System.arraycopy(drivePositions, slot * moduleCount, drainDrivePositions, 0, moduleCount);
+      System.arraycopy(steerPositions, slot * moduleCount, drainSteerPositions, 0, moduleCount);
+
+      consumer.accept(timestamps[slot], drainDrivePositions, drainSteerPositions, yaws[slot]);
+    }
+
+    // Free the slots after they are read
+    readCount.lazySet(write);
+
+    return (int) (write - read);
+  }
+
+  /**
+   * Returns number of modules per sample
+   * 
+   * @return number of modules per sample
+   */
+  public int getModuleCount() {
+    return moduleCount;
+  }
+
+  /**
+   * Returns number of samples dropped because the consumer fell behind
+   * 
+   * @return number of samples dropped because the consumer fell behind
+   */
+  public long getDroppedCount() {
+    return droppedCount.get();
+  }
+}
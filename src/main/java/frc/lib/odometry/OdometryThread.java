@@ -0,0 +1,493 @@
+package frc.lib.odometry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Threads;
+import edu.wpi.first.wpilibj.Timer;
+import frc.lib.controller.ControlledMotor;
+import frc.lib.io.LogReplay;
+import frc.lib.logging.DeviceLogger;
+import frc.lib.logging.DeviceLogger.SampleLog;
+import frc.lib.sensor.absolute.AbsoluteEncoder;
+import frc.lib.sensor.gyro.Gyro;
+import frc.lib.signal.BusBudget;
+import frc.lib.signal.SignalPriority;
+import frc.lib.signal.TimestampedSample;
+
+/** 
+ * Samples swerve module positions on a dedicated thread as soon as new CAN data arrives. 
+ * All signals must be on the same CAN bus, a CANivore is needed for rates above 100 Hz.
+ * In simulation the thread is not started, and one sample is taken from the loop's inputs 
+ * every drain, since simulated inputs only change once per loop. 
+ * Every drained sample is logged, and a replay drains the logged samples instead.
+ */
+public class OdometryThread extends Thread {
+
+  /** Default sampling frequency */
+  public static final double DEFAULT_FREQUENCY_HZ = 250.0;
+
+  /** Samples the main loop can fall behind by before samples are dropped */
+  private static final int BUFFER_CAPACITY = 64;
+
+  /** Entry the drained samples are logged to */
+  public static final String SAMPLE_ENTRY = "Odometry/Samples";
+
+  /** Sampling frequency */
+  private final double frequencyHz;
+
+  /** Drive position signals, one per module */
+  private final List<BaseStatusSignal> drivePosSignals = new ArrayList<>();
+
+  /** Steer position signals, one per module */
+  private final List<BaseStatusSignal> steerPosSignals = new ArrayList<>();
+
+  /** Drive velocity signals, one per module, null when missing */
+  private final List<BaseStatusSignal> driveVelSignals = new ArrayList<>();
+
+  /** Steer velocity signals, one per module, null when missing */
+  private final List<BaseStatusSignal> steerVelSignals = new ArrayList<>();
+
+  /** Drive and steer position inputs, one per module, sampled once per loop in simulation */
+  private final List<DoubleSupplier> drivePosInputs = new ArrayList<>();
+  private final List<DoubleSupplier> steerPosInputs = new ArrayList<>();
+
+  /** Gyro yaw input in rotations, null without a gyro */
+  private DoubleSupplier yawInput;
+
+  /** Gyro yaw signal in degrees, null without a gyro */
+  private BaseStatusSignal yawSignal;
+
+  /** Gyro yaw rate signal in degrees per second, null without a gyro */
+  private BaseStatusSignal yawRateSignal;
+
+  /** Every signal waited on, kept so velocities are refreshed alongside positions */
+  private final List<BaseStatusSignal> waitedSignals = new ArrayList<>();
+
+  /** 
+   * Copies of the waited signals owned by this thread, created when the thread starts. 
+   * The originals stay registered and are refreshed by the main loop, 
+   * sharing a signal object between threads would race its value.
+   */
+  private BaseStatusSignal[] threadSignals;
+
+  /** Module positions read from the thread's signal copies */
+  private TimestampedSample[] drivePos;
+  private TimestampedSample[] steerPos;
+
+  /** Gyro yaw read from the thread's signal copies, null without a gyro */
+  private TimestampedSample yaw;
+
+  /** Sample buffer, created when the thread starts */
+  private OdometrySampleBuffer buffer;
+
+  /** True when samples are taken from the inputs every drain instead of on the thread */
+  private boolean sampleEachLoop = false;
+
+  /** True when samples are read from the replayed log instead of sampled */
+  private boolean replaying = false;
+
+  /** Reused module positions for samples taken every drain or replayed */
+  private double[] loopDrivePosRotations;
+  private double[] loopSteerPosRotations;
+
+  /** Log of drained samples, one row per sample, created when the thread starts */
+  private SampleLog sampleLog;
+
+  /** Reused row of the sample being logged, timestamp, drive, steer then yaw */
+  private double[] sampleRow;
+
+  /** Consumer of the current drain */
+  private OdometrySampleBuffer.SampleConsumer drainConsumer;
+
+  /** Logs each drained sample then hands it to the consumer of the current drain */
+  private final OdometrySampleBuffer.SampleConsumer loggingConsumer = this::logSample;
+
+  /** Writes each replayed row into the buffer */
+  private final LogReplay.RowConsumer replayWriter = this::writeRow;
+
+  /** Set false to stop the thread */
+  private volatile boolean running = true;
+
+  /**
+   * Creates an odometry thread
+   * 
+   * @param frequencyHz sampling frequency
+   */
+  public OdometryThread(double frequencyHz) {
+    super("OdometryThread");
+    setDaemon(true);
+
+    this.frequencyHz = frequencyHz;
+  }
+
+  /** Creates an odometry thread sampling at the default frequency */
+  public OdometryThread() {
+    this(DEFAULT_FREQUENCY_HZ);
+  }
+
+  /**
+   * Adds a module whose steer angle is read from the steer motor 
+   * (for steer motors that fuse an absolute encoder on the motor controller)
+   * 
+   * @param drive drive motor
+   * @param steer steer motor
+   */
+  public void addModule(ControlledMotor drive, ControlledMotor steer) {
+    addModule(
+      drive.getPosSignal(), 
+      drive.getVelSignal(), 
+      steer.getPosSignal(), 
+      steer.getVelSignal(),
+      drive.getPosRotationsSupplier(),
+      steer.getPosRotationsSupplier());
+  }
+
+  /**
+   * Adds a module whose steer angle is read from an absolute encoder
+   * 
+   * @param drive drive motor
+   * @param steerEncoder absolute encoder on the steer axis
+   */
+  public void addModule(ControlledMotor drive, AbsoluteEncoder steerEncoder) {
+    addModule(
+      drive.getPosSignal(), 
+      drive.getVelSignal(), 
+      steerEncoder.getPosSignal(), 
+      steerEncoder.getVelSignal(),
+      drive.getPosRotationsSupplier(),
+      steerEncoder.getPosRotationsSupplier());
+  }
+
+  /**
+   * Samples gyro yaw alongside the modules, must be on the same CAN bus as the modules
+   * 
+   * @param gyro the gyro
+   */
+  public void setGyro(Gyro gyro) {
+    setGyro(gyro.getYawSignal(), gyro.getYawRateSignal());
+
+    if (yawSignal != null) {
+      yawInput = gyro.getYawRotationsSupplier();
+    }
+  }
+
+  /**
+   * Samples gyro yaw alongside the modules from its raw signals
+   * 
+   * @param yaw yaw signal in degrees, counterclockwise positive
+   * @param yawRate yaw rate signal in degrees per second
+   */
+  public void setGyro(BaseStatusSignal yaw, BaseStatusSignal yawRate) {
+    if (isAlive()) {
+      DriverStation.reportError("Odometry gyro must be set before the thread starts", true);
+      return;
+    }
+
+    if (yaw == null || yawRate == null) {
+      DriverStation.reportError("Odometry gyro is missing a yaw signal", true);
+      return;
+    }
+
+    if (yawSignal != null) {
+      waitedSignals.remove(yawSignal);
+      waitedSignals.remove(yawRateSignal);
+    }
+
+    yawSignal = yaw;
+    yawRateSignal = yawRate;
+    yawInput = () -> yaw.getValueAsDouble() / 360.0;
+
+    waitedSignals.add(yaw);
+    waitedSignals.add(yawRate);
+  }
+
+  /**
+   * Adds a module from its raw signals
+   * 
+   * @param drivePos drive position signal
+   * @param driveVel drive velocity signal
+   * @param steerPos steer position signal
+   * @param steerVel steer velocity signal
+   * @param drivePosInput drive position input, sampled in simulation
+   * @param steerPosInput steer position input, sampled in simulation
+   */
+  private void addModule(
+      BaseStatusSignal drivePos, 
+      BaseStatusSignal driveVel, 
+      BaseStatusSignal steerPos, 
+      BaseStatusSignal steerVel,
+      DoubleSupplier drivePosInput,
+      DoubleSupplier steerPosInput) {
+    
+    if (isAlive()) {
+      DriverStation.reportError("Odometry modules must be added before the thread starts", true);
+      return;
+    }
+
+    if (drivePos == null || steerPos == null) {
+      DriverStation.reportError("Odometry module is missing a position signal", true);
+      return;
+    }
+
+    drivePosSignals.add(drivePos);
+    steerPosSignals.add(steerPos);
+    drivePosInputs.add(drivePosInput);
+    steerPosInputs.add(steerPosInput);
+    driveVelSignals.add(driveVel);
+    steerVelSignals.add(steerVel);
+
+    waitedSignals.add(drivePos);
+    waitedSignals.add(steerPos);
+
+    if (driveVel != null) {
+      waitedSignals.add(driveVel);
+    }
+
+    if (steerVel != null) {
+      waitedSignals.add(steerVel);
+    }
+  }
+
+  @Override
+  public synchronized void start() {
+    int moduleCount = drivePosSignals.size();
+    buffer = new OdometrySampleBuffer(BUFFER_CAPACITY, moduleCount);
+
+    BaseStatusSignal[] signals = waitedSignals.toArray(new BaseStatusSignal[0]);
+
+    // The budget keeps these signals at this rate when the bus is planned, 
+    // and queues the new rate itself if the bus was already planned
+    BusBudget.rerequest(SignalPriority.ODOMETRY, frequencyHz, signals);
+
+    sampleLog = DeviceLogger.addSamples(SAMPLE_ENTRY, sampleFields(moduleCount));
+    sampleRow = new double[2 * moduleCount + 2];
+
+    if (RobotBase.isSimulation()) {
+      // A replay feeds the logged samples back, a live simulation samples the loop's inputs
+      replaying = DeviceLogger.isReplay();
+      sampleEachLoop = !replaying;
+      loopDrivePosRotations = new double[moduleCount];
+      loopSteerPosRotations = new double[moduleCount];
+      return;
+    }
+
+    List<BaseStatusSignal> copies = new ArrayList<>();
+    drivePos = new TimestampedSample[moduleCount];
+    steerPos = new TimestampedSample[moduleCount];
+
+    for (int i = 0; i < moduleCount; i++) {
+      drivePos[i] = new TimestampedSample(
+        copy(drivePosSignals.get(i), copies), 
+        copy(driveVelSignals.get(i), copies));
+      steerPos[i] = new TimestampedSample(
+        copy(steerPosSignals.get(i), copies), 
+        copy(steerVelSignals.get(i), copies));
+    }
+
+    yaw = yawSignal == null 
+      ? null 
+      : new TimestampedSample(copy(yawSignal, copies), copy(yawRateSignal, copies));
+
+    threadSignals = copies.toArray(new BaseStatusSignal[0]);
+
+    super.start();
+  }
+
+  /**
+   * Returns the logged field names of a sample row
+   * 
+   * @param moduleCount number of modules
+   * @return field names, timestamp, drive positions, steer positions then yaw
+   */
+  private static String[] sampleFields(int moduleCount) {
+    String[] fields = new String[2 * moduleCount + 2];
+    fields[0] = "timestampSeconds";
+
+    for (int i = 0; i < moduleCount; i++) {
+      fields[1 + i] = "drivePosRotations" + i;
+      fields[1 + moduleCount + i] = "steerPosRotations" + i;
+    }
+
+    fields[fields.length - 1] = "yawRotations";
+
+    return fields;
+  }
+
+  /**
+   * Returns a copy of a signal for this thread to wait on and read
+   * 
+   * @param signal the signal, may be null
+   * @param copies every copy made so far, the new copy is added
+   * @return the copy, or null if the signal is null
+   */
+  private static BaseStatusSignal copy(BaseStatusSignal signal, List<BaseStatusSignal> copies) {
+    if (signal == null) {
+      return null;
+    }
+
+    BaseStatusSignal copy = ((StatusSignal<?>) signal).clone();
+    copies.add(copy);
+
+    return copy;
+  }
+
+  @Override
+  public void run() {
+    Threads.setCurrentThreadPriority(true, 1);
+
+    int moduleCount = drivePos.length;
+    BaseStatusSignal[] signals = threadSignals;
+
+    double[] drivePosRotations = new double[moduleCount];
+    double[] steerPosRotations = new double[moduleCount];
+
+    // Wait up to two periods so a single late frame does not fail the wait
+    double timeoutSeconds = 2.0 / frequencyHz;
+    StatusCode lastStatus = StatusCode.OK;
+
+    while (running) {
+      StatusCode status = BaseStatusSignal.waitForAll(timeoutSeconds, signals);
+
+      if (!status.isOK()) {
+        if (status != lastStatus) {
+          DriverStation.reportWarning("Odometry thread failed to receive signals: " + status, false);
+        }
+
+        lastStatus = status;
+
+        // Avoid spinning when the devices are missing
+        Timer.delay(timeoutSeconds);
+        continue;
+      }
+
+      lastStatus = status;
+
+      // Frames from different devices arrive at slightly different times, 
+      // extrapolate every module to the same instant along its velocity
+      double nowSeconds = Timer.getFPGATimestamp();
+
+      for (int i = 0; i < moduleCount; i++) {
+        drivePosRotations[i] = drivePos[i].update(nowSeconds).getValueAt(nowSeconds);
+        steerPosRotations[i] = steerPos[i].update(nowSeconds).getValueAt(nowSeconds);
+      }
+
+      double yawRotations = yaw == null 
+        ? Double.NaN 
+        : yaw.update(nowSeconds).getValueAt(nowSeconds) / 360.0;
+
+      buffer.write(nowSeconds, drivePosRotations, steerPosRotations, yawRotations);
+    }
+  }
+
+  /**
+   * Hands every sample collected since the last call to the consumer, call once per main loop
+   * 
+   * @param consumer receives the samples
+   * @return number of samples drained
+   */
+  public int drain(OdometrySampleBuffer.SampleConsumer consumer) {
+    if (buffer == null) {
+      return 0;
+    }
+
+    if (replaying) {
+      sampleLog.replay(replayWriter);
+    } else if (sampleEachLoop) {
+      sampleInputs();
+    }
+
+    drainConsumer = consumer;
+    int drained = buffer.drain(loggingConsumer);
+    drainConsumer = null;
+
+    return drained;
+  }
+
+  /**
+   * Logs a drained sample and hands it to the consumer of the current drain
+   * 
+   * @param timestampSeconds FPGA timestamp of the sample in seconds
+   * @param drivePosRotations drive positions in rotations, one per module
+   * @param steerPosRotations steer positions in rotations, one per module
+   * @param yawRotations gyro yaw in rotations, NaN without a gyro
+   */
+  private void logSample(
+      double timestampSeconds,
+      double[] drivePosRotations,
+      double[] steerPosRotations,
+      double yawRotations) {
+
+    int moduleCount = drivePosRotations.length;
+
+    sampleRow[0] = timestampSeconds;
+    System.arraycopy(drivePosRotations, 0, sampleRow, 1, moduleCount);
+    System.arraycopy(steerPosRotations, 0, sampleRow, 1 + moduleCount, moduleCount);
+    sampleRow[sampleRow.length - 1] = yawRotations;
+    sampleLog.append(sampleRow);
+
+    drainConsumer.accept(timestampSeconds, drivePosRotations, steerPosRotations, yawRotations);
+  }
+
+  /**
+   * Writes one replayed sample row into the buffer
+   * 
+   * @param row timestamp, drive positions, steer positions then yaw
+   */
+  private void writeRow(double[] row) {
+    int moduleCount = loopDrivePosRotations.length;
+
+    // Rows logged with a different module count cannot be replayed
+    if (row.length != sampleRow.length) {
+      return;
+    }
+
+    System.arraycopy(row, 1, loopDrivePosRotations, 0, moduleCount);
+    System.arraycopy(row, 1 + moduleCount, loopSteerPosRotations, 0, moduleCount);
+
+    buffer.write(row[0], loopDrivePosRotations, loopSteerPosRotations, row[row.length - 1]);
+  }
+
+  /** Writes one sample from this loop's inputs */
+  private void sampleInputs() {
+    for (int i = 0; i < loopDrivePosRotations.length; i++) {
+      loopDrivePosRotations[i] = drivePosInputs.get(i).getAsDouble();
+      loopSteerPosRotations[i] = steerPosInputs.get(i).getAsDouble();
+    }
+
+    double yawRotations = yawInput == null ? Double.NaN : yawInput.getAsDouble();
+
+    buffer.write(
+      Timer.getFPGATimestamp(), loopDrivePosRotations, loopSteerPosRotations, yawRotations);
+  }
+
+  /**
+   * Returns number of modules sampled
+   * 
+   * @return number of modules sampled
+   */
+  public int getModuleCount() {
+    return drivePosSignals.size();
+  }
+
+  /**
+   * Returns number of samples dropped because the main loop fell behind
+   * 
+   * @return number of samples dropped because the main loop fell behind
+   */
+  public long getDroppedCount() {
+    return buffer == null ? 0 : buffer.getDroppedCount();
+  }
+
+  /** Stops the thread after its current wait */
+  public void stopSampling() {
+    running = false;
+  }
+}
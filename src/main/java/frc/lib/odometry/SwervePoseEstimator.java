@@ -0,0 +1,470 @@
+package frc.lib.odometry;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.lib.swerve.SwerveKinematics;
+import frc.lib.timing.LoopTimer;
+import frc.lib.timing.LoopTiming;
+
+/**
+ * Swerve pose estimator fed with timestamped module samples, fusing delayed vision measurements.
+ * Odometry poses are kept in a fixed-capacity ring of primitives instead of WPILib's TreeMap
+ * buffer, so adding a sample does not allocate. The estimate is the odometry pose moved by a
+ * correction transform. A vision measurement is compared against the estimate at its timestamp,
+ * and the correction is updated so the odometry since then is replayed on top of the fused pose.
+ */
+public class SwervePoseEstimator implements OdometrySampleBuffer.SampleConsumer {
+
+  /** Time spent adding odometry samples and vision measurements */
+  private static final LoopTimer updateTimer =
+    LoopTiming.create("SwervePoseEstimator.update", 0.0005);
+
+  /** Default odometry history, 1.5 seconds at the default odometry frequency */
+  public static final int DEFAULT_HISTORY_CAPACITY = 375;
+
+  /** Kinematics for the module layout */
+  private final SwerveKinematics kinematics;
+
+  /** Wheel circumference in meters */
+  private final double wheelCircumferenceMeters;
+
+  /** Odometry trust, squared standard deviations of x, y and heading */
+  private final double[] stateVariances = new double[3];
+
+  /** Default vision trust, standard deviations of x, y and heading */
+  private final double[] visionStdDevs = new double[3];
+
+  /** Odometry pose history ring */
+  private final double[] historyTimestamps;
+  private final double[] historyX;
+  private final double[] historyY;
+  private final double[] historyHeadings;
+  private int historyStart = 0;
+  private int historySize = 0;
+
+  /** Previous module readings */
+  private final double[] previousDrivePosRotations;
+  private boolean hasPrevious = false;
+  private double previousYawRotations = Double.NaN;
+
+  /** Reused module displacements and chassis displacement */
+  private final double[] distancesMeters;
+  private final double[] chassisDelta = new double[3];
+
+  /** Odometry pose, only moved by odometry */
+  private double odometryX = 0.0;
+  private double odometryY = 0.0;
+  private double odometryHeadingRadians = 0.0;
+
+  /** Correction from the odometry frame to the field */
+  private double correctionX = 0.0;
+  private double correctionY = 0.0;
+  private double correctionRadians = 0.0;
+
+  /** Odometry pose at a vision timestamp, written by sampleHistory */
+  private double sampleX;
+  private double sampleY;
+  private double sampleHeadingRadians;
+
+  /**
+   * Creates a pose estimator
+   * 
+   * @param kinematics kinematics for the module layout
+   * @param wheelCircumferenceMeters wheel circumference in meters
+   * @param stateStdDevs odometry trust, standard deviations of x and y in meters
+   *     and heading in radians
+   * @param visionStdDevs default vision trust, standard deviations of x and y in meters
+   *     and heading in radians
+   * @param historyCapacity odometry samples kept for vision measurements to look back into
+   */
+  public SwervePoseEstimator(
+      SwerveKinematics kinematics,
+      double wheelCircumferenceMeters,
+      double[] stateStdDevs,
+      double[] visionStdDevs,
+      int historyCapacity) {
+
+    this.kinematics = kinematics;
+    this.wheelCircumferenceMeters = wheelCircumferenceMeters;
+
+    for (int i = 0; i < 3; i++) {
+      stateVariances[i] = stateStdDevs[i] * stateStdDevs[i];
+      this.visionStdDevs[i] = visionStdDevs[i];
+    }
+
+    historyTimestamps = new double[historyCapacity];
+    historyX = new double[historyCapacity];
+    historyY = new double[historyCapacity];
+    historyHeadings = new double[historyCapacity];
+
+    previousDrivePosRotations = new double[kinematics.getModuleCount()];
+    distancesMeters = new double[kinematics.getModuleCount()];
+  }
+
+  /**
+   * Creates a pose estimator with WPILib's default trust and history
+   * 
+   * @param kinematics kinematics for the module layout
+   * @param wheelCircumferenceMeters wheel circumference in meters
+   */
+  public SwervePoseEstimator(SwerveKinematics kinematics, double wheelCircumferenceMeters) {
+    this(
+      kinematics,
+      wheelCircumferenceMeters,
+      new double[] {0.1, 0.1, 0.1},
+      new double[] {0.9, 0.9, 0.9},
+      DEFAULT_HISTORY_CAPACITY);
+  }
+
+  /**
+   * Adds every sample the odometry thread collected since the last call, call once per loop
+   * 
+   * @param odometryThread the odometry thread
+   * @return number of samples added
+   */
+  public int update(OdometryThread odometryThread) {
+    return odometryThread.drain(this);
+  }
+
+  /**
+   * Adds an odometry sample, samples must be added in time order
+   * 
+   * @param timestampSeconds FPGA timestamp of the sample in seconds
+   * @param drivePosRotations drive positions in wheel rotations, one per module
+   * @param steerPosRotations steer positions in rotations, one per module
+   * @param yawRotations gyro yaw in rotations, NaN to use the module rotation instead
+   */
+  @Override
+  public void accept(
+      double timestampSeconds,
+      double[] drivePosRotations,
+      double[] steerPosRotations,
+      double yawRotations) {
+
+    long start = updateTimer.start();
+
+    if (!hasPrevious) {
+      System.arraycopy(drivePosRotations, 0, previousDrivePosRotations, 0, distancesMeters.length);
+      previousYawRotations = yawRotations;
+      hasPrevious = true;
+
+      record(timestampSeconds);
+      updateTimer.stop(start);
+      return;
+    }
+
+    for (int i = 0; i < distancesMeters.length; i++) {
+      distancesMeters[i] =
+        (drivePosRotations[i] - previousDrivePosRotations[i]) * wheelCircumferenceMeters;
+      previousDrivePosRotations[i] = drivePosRotations[i];
+    }
+
+    kinematics.toChassisDelta(distancesMeters, steerPosRotations, chassisDelta);
+
+    double dTheta = chassisDelta[2];
+
+    // The gyro is trusted over wheel slip for rotation when there is one
+    if (!Double.isNaN(yawRotations) && !Double.isNaN(previousYawRotations)) {
+      dTheta = (yawRotations - previousYawRotations) * 2.0 * Math.PI;
+    }
+
+    previousYawRotations = yawRotations;
+
+    integrate(chassisDelta[0], chassisDelta[1], dTheta);
+    record(timestampSeconds);
+
+    updateTimer.stop(start);
+  }
+
+  /**
+   * Moves the odometry pose along a robot-relative twist
+   * 
+   * @param dx forward displacement
+   * @param dy left displacement
+   * @param dTheta counterclockwise rotation in radians
+   */
+  private void integrate(double dx, double dy, double dTheta) {
+    double s;
+    double c;
+
+    if (Math.abs(dTheta) < 1e-9) {
+      s = 1.0 - dTheta * dTheta / 6.0;
+      c = dTheta / 2.0;
+    } else {
+      s = Math.sin(dTheta) / dTheta;
+      c = (1.0 - Math.cos(dTheta)) / dTheta;
+    }
+
+    double localX = dx * s - dy * c;
+    double localY = dx * c + dy * s;
+
+    double cos = Math.cos(odometryHeadingRadians);
+    double sin = Math.sin(odometryHeadingRadians);
+
+    odometryX += localX * cos - localY * sin;
+    odometryY += localX * sin + localY * cos;
+    odometryHeadingRadians += dTheta;
+  }
+
+  /**
+   * Appends the odometry pose to the history, overwriting the oldest when full
+   * 
+   * @param timestampSeconds FPGA timestamp of the pose in seconds
+   */
+  private void record(double timestampSeconds) {
+    int capacity = historyTimestamps.length;
+    int slot = (historyStart + historySize) % capacity;
+
+    if (historySize == capacity) {
+      historyStart = (historyStart + 1) % capacity;
+    } else {
+      historySize++;
+    }
+
+    historyTimestamps[slot] = timestampSeconds;
+    historyX[slot] = odometryX;
+    historyY[slot] = odometryY;
+    historyHeadings[slot] = odometryHeadingRadians;
+  }
+
+  /**
+   * Interpolates the odometry pose at a timestamp into the sample fields
+   * 
+   * @param timestampSeconds FPGA timestamp in seconds
+   * @return false if the timestamp is older than the history
+   */
+  private boolean sampleHistory(double timestampSeconds) {
+    int capacity = historyTimestamps.length;
+
+    if (historySize == 0 || timestampSeconds < historyTimestamps[historyStart]) {
+      return false;
+    }
+
+    // Binary search for the last sample at or before the timestamp
+    int low = 0;
+    int high = historySize - 1;
+
+    while (low < high) {
+      int mid = (low + high + 1) >>> 1;
+
+      if (historyTimestamps[(historyStart + mid) % capacity] <= timestampSeconds) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+
+    int before = (historyStart + low) % capacity;
+
+    if (low == historySize - 1) {
+      sampleX = historyX[before];
+      sampleY = historyY[before];
+      sampleHeadingRadians = historyHeadings[before];
+      return true;
+    }
+
+    int after = (before + 1) % capacity;
+    double t =
+      (timestampSeconds - historyTimestamps[before])
+        / (historyTimestamps[after] - historyTimestamps[before]);
+
+    sampleX = historyX[before] + (historyX[after] - historyX[before]) * t;
+    sampleY = historyY[before] + (historyY[after] - historyY[before]) * t;
+    sampleHeadingRadians =
+      historyHeadings[before] + (historyHeadings[after] - historyHeadings[before]) * t;
+    return true;
+  }
+
+  /**
+   * Fuses a vision pose measurement with the default vision trust
+   * 
+   * @param xMeters measured field x
+   * @param yMeters measured field y
+   * @param headingRadians measured field heading, counterclockwise positive
+   * @param timestampSeconds FPGA timestamp the measurement was taken at
+   * @return false if the measurement is older than the odometry history and was ignored
+   */
+  public boolean addVisionMeasurement(
+      double xMeters, double yMeters, double headingRadians, double timestampSeconds) {
+
+    return addVisionMeasurement(
+      xMeters,
+      yMeters,
+      headingRadians,
+      timestampSeconds,
+      visionStdDevs[0],
+      visionStdDevs[1],
+      visionStdDevs[2]);
+  }
+
+  /**
+   * Fuses a vision pose measurement
+   * 
+   * @param xMeters measured field x
+   * @param yMeters measured field y
+   * @param headingRadians measured field heading, counterclockwise positive
+   * @param timestampSeconds FPGA timestamp the measurement was taken at
+   * @param xStdDev measurement trust in x, meters
+   * @param yStdDev measurement trust in y, meters
+   * @param headingStdDev measurement trust in heading, radians
+   * @return false if the measurement is older than the odometry history and was ignored
+   */
+  public boolean addVisionMeasurement(
+      double xMeters,
+      double yMeters,
+      double headingRadians,
+      double timestampSeconds,
+      double xStdDev,
+      double yStdDev,
+      double headingStdDev) {
+
+    if (!sampleHistory(timestampSeconds)) {
+      return false;
+    }
+
+    long start = updateTimer.start();
+
+    // Estimate at the measurement time
+    double cos = Math.cos(correctionRadians);
+    double sin = Math.sin(correctionRadians);
+    double estimateX = sampleX * cos - sampleY * sin + correctionX;
+    double estimateY = sampleX * sin + sampleY * cos + correctionY;
+    double estimateHeading = sampleHeadingRadians + correctionRadians;
+
+    // Error in the robot frame at the measurement time
+    double headingCos = Math.cos(estimateHeading);
+    double headingSin = Math.sin(estimateHeading);
+    double fieldErrorX = xMeters - estimateX;
+    double fieldErrorY = yMeters - estimateY;
+    double errorX = fieldErrorX * headingCos + fieldErrorY * headingSin;
+    double errorY = -fieldErrorX * headingSin + fieldErrorY * headingCos;
+    double errorHeading = MathUtil.angleModulus(headingRadians - estimateHeading);
+
+    // Steady state Kalman gain for each axis, as in WPILib's pose estimator
+    errorX *= gain(stateVariances[0], xStdDev * xStdDev);
+    errorY *= gain(stateVariances[1], yStdDev * yStdDev);
+    errorHeading *= gain(stateVariances[2], headingStdDev * headingStdDev);
+
+    double fusedX = estimateX + errorX * headingCos - errorY * headingSin;
+    double fusedY = estimateY + errorX * headingSin + errorY * headingCos;
+    double fusedHeading = estimateHeading + errorHeading;
+
+    setCorrection(fusedX, fusedY, fusedHeading, sampleX, sampleY, sampleHeadingRadians);
+
+    updateTimer.stop(start);
+    return true;
+  }
+
+  /**
+   * Returns the steady state Kalman gain for one axis
+   * 
+   * @param stateVariance odometry variance
+   * @param measurementVariance measurement variance
+   * @return the gain, 0 ignores the measurement and 1 trusts it fully
+   */
+  private static double gain(double stateVariance, double measurementVariance) {
+    if (stateVariance == 0.0) {
+      return 0.0;
+    }
+
+    return stateVariance / (stateVariance + Math.sqrt(stateVariance * measurementVariance));
+  }
+
+  /**
+   * Sets the correction so an odometry pose maps to a field pose
+   * 
+   * @param fieldX field x
+   * @param fieldY field y
+   * @param fieldHeading field heading
+   * @param odomX odometry x
+   * @param odomY odometry y
+   * @param odomHeading odometry heading
+   */
+  private void setCorrection(
+      double fieldX,
+      double fieldY,
+      double fieldHeading,
+      double odomX,
+      double odomY,
+      double odomHeading) {
+
+    correctionRadians = fieldHeading - odomHeading;
+
+    double cos = Math.cos(correctionRadians);
+    double sin = Math.sin(correctionRadians);
+
+    correctionX = fieldX - (odomX * cos - odomY * sin);
+    correctionY = fieldY - (odomX * sin + odomY * cos);
+  }
+
+  /**
+   * Resets the estimate to a field pose, keeping the odometry history
+   * 
+   * @param xMeters field x
+   * @param yMeters field y
+   * @param headingRadians field heading, counterclockwise positive
+   */
+  public void resetPose(double xMeters, double yMeters, double headingRadians) {
+    setCorrection(
+      xMeters, yMeters, headingRadians, odometryX, odometryY, odometryHeadingRadians);
+  }
+
+  /**
+   * Resets the estimate to a field pose, keeping the odometry history
+   * 
+   * @param pose field pose
+   */
+  public void resetPose(Pose2d pose) {
+    resetPose(pose.getX(), pose.getY(), pose.getRotation().getRadians());
+  }
+
+  /**
+   * Returns estimated field x
+   * 
+   * @return estimated field x in meters
+   */
+  public double getX() {
+    return odometryX * Math.cos(correctionRadians)
+      - odometryY * Math.sin(correctionRadians)
+      + correctionX;
+  }
+
+  /**
+   * Returns estimated field y
+   * 
+   * @return estimated field y in meters
+   */
+  public double getY() {
+    return odometryX * Math.sin(correctionRadians)
+      + odometryY * Math.cos(correctionRadians)
+      + correctionY;
+  }
+
+  /**
+   * Returns estimated field heading
+   * 
+   * @return estimated field heading in radians, counterclockwise positive, not wrapped
+   */
+  public double getHeadingRadians() {
+    return odometryHeadingRadians + correctionRadians;
+  }
+
+  /**
+   * Returns estimated field pose, allocates so prefer the primitive getters every loop
+   * 
+   * @return estimated field pose
+   */
+  public Pose2d getPose() {
+    return new Pose2d(getX(), getY(), Rotation2d.fromRadians(getHeadingRadians()));
+  }
+
+  /**
+   * Returns number of odometry poses in the history
+   * 
+   * @return number of odometry poses in the history
+   */
+  public int getHistorySize() {
+    return historySize;
+  }
+}
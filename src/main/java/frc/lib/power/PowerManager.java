@@ -0,0 +1,327 @@
+package frc.lib.power;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.controller.ControlledMotor;
+import frc.lib.timing.LoopTimer;
+import frc.lib.timing.LoopTiming;
+
+/**
+ * Shares a robot-wide supply current budget between motor groups, such as drive, steer and
+ * mechanism motors. The budget shrinks as the battery sags toward brownout. While the estimated
+ * draw is high, each motor's supply current limit is set to its minimum plus a weighted share of
+ * what is left, capped at its configured limit. Limits go back to the configured values once
+ * the draw falls again. A new limit is only sent when it moved by at least the hysteresis, and
+ * is sent as a supply current limit override, so only the current limits are written and the
+ * motor config is left alone.
+ */
+public class PowerManager extends SubsystemBase {
+
+  /** Time spent estimating draw and sharing the budget */
+  private static final LoopTimer updateTimer = LoopTiming.create("PowerManager.update", 0.0002);
+
+  /** Limits are shared out once the estimated draw passes this fraction of the budget */
+  private static final double ENGAGE_FRACTION = 0.8;
+
+  /** Limits go back to configured values once the estimated draw falls below this fraction */
+  private static final double RELEASE_FRACTION = 0.6;
+
+  /** Supply voltages below this are not a real reading, such as a motor that is not connected */
+  private static final double MIN_VALID_VOLTS = 1.0;
+
+  /** Robot-wide supply current budget at nominal voltage */
+  private final double budgetAmps;
+
+  /** Battery voltage the full budget is allowed at */
+  private final double nominalVolts;
+
+  /** Battery voltage the budget is cut down to the minimum limits at */
+  private final double brownoutVolts;
+
+  /** Smallest limit change worth sending */
+  private final double hysteresisAmps;
+
+  /** A motor waiting to be moved into the arrays read every loop */
+  private record Registration(
+      ControlledMotor motor,
+      double weight,
+      double minLimit) {}
+
+  /** Motors added since the last update */
+  private final List<Registration> pending = new ArrayList<>();
+
+  /** Registered motors */
+  private ControlledMotor[] motors = new ControlledMotor[0];
+
+  /** Cached supply current and voltage getters */
+  private DoubleSupplier[] supplyCurrents = new DoubleSupplier[0];
+  private DoubleSupplier[] supplyVoltages = new DoubleSupplier[0];
+
+  /** Share of leftover budget and requested lowest limit of each motor */
+  private double[] weights = new double[0];
+  private double[] requestedMinLimits = new double[0];
+
+  /** Lowest and configured limit of each motor, read from the config every update */
+  private double[] minLimits = new double[0];
+  private double[] maxLimits = new double[0];
+
+  /** Reused limits being shared out */
+  private double[] targetLimits = new double[0];
+
+  /** Limit last sent to each motor */
+  private double[] sentLimits = new double[0];
+
+  /** True while limits are shared out */
+  private boolean engaged = false;
+
+  /** Last estimate of total supply current */
+  private double drawAmps = 0.0;
+
+  /** Last lowest supply voltage */
+  private double batteryVolts;
+
+  /** Last available budget */
+  private double availableAmps;
+
+  /**
+   * Creates a power manager
+   * 
+   * @param budgetAmps robot-wide supply current budget at nominal voltage
+   * @param nominalVolts battery voltage the full budget is allowed at
+   * @param brownoutVolts battery voltage the budget is cut down to the minimum limits at
+   * @param hysteresisAmps smallest limit change worth sending
+   */
+  public PowerManager(
+      double budgetAmps,
+      double nominalVolts,
+      double brownoutVolts,
+      double hysteresisAmps) {
+
+    this.budgetAmps = budgetAmps;
+    this.nominalVolts = nominalVolts;
+    this.brownoutVolts = brownoutVolts;
+    this.hysteresisAmps = hysteresisAmps;
+
+    batteryVolts = nominalVolts;
+    availableAmps = budgetAmps;
+  }
+
+  /**
+   * Adds a group of motors. Their configured supply current limit, read every update, 
+   * is the most they will be given.
+   * 
+   * @param weight share of leftover budget given to each motor, relative to other groups
+   * @param minSupplyCurrentLimit lowest supply current limit given to each motor
+   * @param groupMotors motors in the group
+   */
+  public void addMotors(
+      double weight, double minSupplyCurrentLimit, ControlledMotor... groupMotors) {
+
+    for (ControlledMotor motor : groupMotors) {
+      pending.add(new Registration(motor, weight, minSupplyCurrentLimit));
+    }
+  }
+
+  /** Moves motors added since the last update into the arrays read every loop */
+  private void addPending() {
+    int start = motors.length;
+    int n = start + pending.size();
+
+    motors = Arrays.copyOf(motors, n);
+    supplyCurrents = Arrays.copyOf(supplyCurrents, n);
+    supplyVoltages = Arrays.copyOf(supplyVoltages, n);
+    weights = Arrays.copyOf(weights, n);
+    requestedMinLimits = Arrays.copyOf(requestedMinLimits, n);
+    minLimits = Arrays.copyOf(minLimits, n);
+    maxLimits = Arrays.copyOf(maxLimits, n);
+    targetLimits = Arrays.copyOf(targetLimits, n);
+    sentLimits = Arrays.copyOf(sentLimits, n);
+
+    for (int i = start; i < n; i++) {
+      Registration registration = pending.get(i - start);
+
+      motors[i] = registration.motor();
+      supplyCurrents[i] = registration.motor().getSupplyCurrentSupplier();
+      supplyVoltages[i] = registration.motor().getSupplyVoltageSupplier();
+      weights[i] = registration.weight();
+      requestedMinLimits[i] = registration.minLimit();
+      sentLimits[i] = registration.motor().getSupplyCurrentLimit();
+    }
+
+    pending.clear();
+  }
+
+  @Override
+  public void periodic() {
+    update();
+  }
+
+  /** Estimates draw from this loop's inputs and sends limits that moved past the hysteresis */
+  public void update() {
+    if (!pending.isEmpty()) {
+      addPending();
+    }
+
+    long start = updateTimer.start();
+
+    int n = motors.length;
+
+    double draw = 0.0;
+    double volts = Double.POSITIVE_INFINITY;
+    double minTotal = 0.0;
+
+    for (int i = 0; i < n; i++) {
+      // The configured limit can change through reconfigure at any time
+      maxLimits[i] = motors[i].getConfig().supplyCurrentLimit();
+      minLimits[i] = Math.min(requestedMinLimits[i], maxLimits[i]);
+
+      draw += Math.abs(supplyCurrents[i].getAsDouble());
+      minTotal += minLimits[i];
+
+      double motorVolts = supplyVoltages[i].getAsDouble();
+
+      if (motorVolts > MIN_VALID_VOLTS) {
+        volts = Math.min(volts, motorVolts);
+      }
+    }
+
+    if (volts == Double.POSITIVE_INFINITY) {
+      volts = nominalVolts;
+    }
+
+    // Budget falls linearly from nominal voltage to the minimum limits at brownout
+    double sagScale =
+      MathUtil.clamp((volts - brownoutVolts) / (nominalVolts - brownoutVolts), 0.0, 1.0);
+    double available = Math.max(budgetAmps * sagScale, minTotal);
+
+    if (engaged && draw < available * RELEASE_FRACTION) {
+      engaged = false;
+    } else if (!engaged && draw > available * ENGAGE_FRACTION) {
+      engaged = true;
+    }
+
+    if (engaged) {
+      shareBudget(available - minTotal);
+    } else {
+      for (int i = 0; i < n; i++) {
+        send(i, maxLimits[i]);
+      }
+    }
+
+    drawAmps = draw;
+    batteryVolts = volts;
+    availableAmps = available;
+
+    updateTimer.stop(start);
+  }
+
+  /**
+   * Gives each motor its minimum plus a weighted share of the leftover budget. Share a motor
+   * cannot take past its configured limit is shared again between the rest.
+   * 
+   * @param leftoverAmps budget left after every motor's minimum
+   */
+  private void shareBudget(double leftoverAmps) {
+    int n = motors.length;
+
+    for (int i = 0; i < n; i++) {
+      targetLimits[i] = minLimits[i];
+    }
+
+    // Each pass either caps another motor or spends the leftover, so n passes are enough
+    for (int pass = 0; pass < n && leftoverAmps > 1e-9; pass++) {
+      double totalWeight = 0.0;
+
+      for (int i = 0; i < n; i++) {
+        if (targetLimits[i] < maxLimits[i]) {
+          totalWeight += weights[i];
+        }
+      }
+
+      if (totalWeight <= 0.0) {
+        break;
+      }
+
+      double spent = 0.0;
+
+      for (int i = 0; i < n; i++) {
+        if (targetLimits[i] < maxLimits[i]) {
+          double limit = Math.min(
+            targetLimits[i] + leftoverAmps * weights[i] / totalWeight, maxLimits[i]);
+          spent += limit - targetLimits[i];
+          targetLimits[i] = limit;
+        }
+      }
+
+      leftoverAmps -= spent;
+    }
+
+    for (int i = 0; i < n; i++) {
+      send(i, targetLimits[i]);
+    }
+  }
+
+  /**
+   * Sends a supply current limit if it moved by at least the hysteresis since the last one sent,
+   * or if it reached either end of the motor's range. The configured limit clears the override.
+   * 
+   * @param motor motor index
+   * @param limit new supply current limit
+   */
+  private void send(int motor, double limit) {
+    double sent = sentLimits[motor];
+
+    if (limit == sent) {
+      return;
+    }
+
+    if (limit == maxLimits[motor]) {
+      motors[motor].clearSupplyCurrentLimitOverride();
+      sentLimits[motor] = limit;
+    } else if (Math.abs(limit - sent) >= hysteresisAmps || limit == minLimits[motor]) {
+      motors[motor].overrideSupplyCurrentLimit(limit);
+      sentLimits[motor] = limit;
+    }
+  }
+
+  /**
+   * Returns whether limits are currently shared out
+   * 
+   * @return true if limits are currently shared out
+   */
+  public boolean isEngaged() {
+    return engaged;
+  }
+
+  /**
+   * Returns last estimate of total supply current
+   * 
+   * @return last estimate of total supply current in amps
+   */
+  public double getDrawAmps() {
+    return drawAmps;
+  }
+
+  /**
+   * Returns last lowest supply voltage across motors
+   * 
+   * @return last lowest supply voltage in volts
+   */
+  public double getBatteryVolts() {
+    return batteryVolts;
+  }
+
+  /**
+   * Returns last available budget after battery sag
+   * 
+   * @return last available budget in amps
+   */
+  public double getAvailableAmps() {
+    return availableAmps;
+  }
+}
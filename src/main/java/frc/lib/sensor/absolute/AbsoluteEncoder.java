@@ -1,15 +1,24 @@
 package frc.lib.sensor.absolute;
 
+import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.wpilibj.DriverStation;
 import frc.lib.configs.AbsoluteEncoderConfig;
 import frc.lib.configs.AbsoluteEncoderConfig.AbsoluteEncoderBuilder;
+import frc.lib.timing.LoopTimer;
+import frc.lib.timing.LoopTiming;
 
 /** General interface for absolute encoders */
 public abstract class AbsoluteEncoder {
 
+  /** Time spent in periodic() across all absolute encoders */
+  private static final LoopTimer periodicTimer =
+    LoopTiming.create("AbsoluteEncoder.periodic", 0.0005);
+
   /** Encoder config */
   private AbsoluteEncoderConfig config = AbsoluteEncoderBuilder.defaults().build();
 
@@ -43,6 +52,16 @@ public abstract class AbsoluteEncoder {
 
   /** Configure the absoulte encoder */
   public abstract void configure();
+
+  /**
+   * Simulates the absolute encoder following a simulated mechanism, stepped by PhysicsSim
+   * 
+   * @param posRotations mechanism position
+   * @param velRotationsPerSec mechanism velocity
+   */
+  public void enableSimulation(DoubleSupplier posRotations, DoubleSupplier velRotationsPerSec) {
+    DriverStation.reportWarning("Absolute encoder does not support simulation", true);
+  }
   
   // Overridable suppliers for getting readings from the encoder
 
@@ -51,7 +70,7 @@ public abstract class AbsoluteEncoder {
    * 
    * @return angle getter for absolute encoder
    */
-  public Supplier<Double> getPosRotations() {
+  public DoubleSupplier getPosRotationsSupplier() {
     DriverStation.reportWarning("Absolute encoder position supplier not defined", true);
     return () -> 0.0;
   }
@@ -61,7 +80,7 @@ public abstract class AbsoluteEncoder {
    * 
    * @return velocity getter for absolute encoder
    */
-  public Supplier<Double> getVelRotationsPerSec() {
+  public DoubleSupplier getVelRotationsPerSecSupplier() {
     DriverStation.reportWarning("Absolute encoder velocity supplier not defined", true);
     return () -> 0.0;
   }
@@ -71,13 +90,89 @@ public abstract class AbsoluteEncoder {
    * 
    * @return acceleration getter for absolute encoder
    */
-  public Supplier<Double> getAccRotationsPerSecPerSec() {
+  public DoubleSupplier getAccRotationsPerSecPerSecSupplier() {
     DriverStation.reportWarning("Absolute encoder acceleration supplier not defined", true);
     return () -> 0.0;
   }
 
+  /**
+   * Returns the status signal backing the position getter, used to wait on new position data
+   * 
+   * @return the position status signal, or null if the encoder has none
+   */
+  public BaseStatusSignal getPosSignal() {
+    DriverStation.reportWarning("Absolute encoder position signal not defined", true);
+    return null;
+  }
+
+  /**
+   * Returns the status signal backing the velocity getter, used to wait on new velocity data
+   * 
+   * @return the velocity status signal, or null if the encoder has none
+   */
+  public BaseStatusSignal getVelSignal() {
+    DriverStation.reportWarning("Absolute encoder velocity signal not defined", true);
+    return null;
+  }
+
+  /**
+   * Returns position getter extrapolated along velocity to when this loop's inputs were read, 
+   * removing the CAN frame latency from the reading
+   * 
+   * @return latency compensated angle getter for absolute encoder
+   */
+  public DoubleSupplier getCompensatedPosRotationsSupplier() {
+    DriverStation.reportWarning("Absolute encoder latency compensated position not defined", true);
+    return getPosRotationsSupplier();
+  }
+
+  // Boxed suppliers kept so older callers still compile
+
+  /**
+   * Returns angle getter for absolute encoder
+   * 
+   * @return angle getter for absolute encoder
+   * @deprecated boxes a Double on every read, use {@link #getPosRotationsSupplier()}
+   */
+  @Deprecated
+  public Supplier<Double> getPosRotations() {
+    DoubleSupplier posRotations = getPosRotationsSupplier();
+    return posRotations::getAsDouble;
+  }
+
+  /**
+   * Returns velocity getter for absolute encoder
+   * 
+   * @return velocity getter for absolute encoder
+   * @deprecated boxes a Double on every read, use {@link #getVelRotationsPerSecSupplier()}
+   */
+  @Deprecated
+  public Supplier<Double> getVelRotationsPerSec() {
+    DoubleSupplier velRotationsPerSec = getVelRotationsPerSecSupplier();
+    return velRotationsPerSec::getAsDouble;
+  }
+
+  /**
+   * Returns acceleration getter for absolute encoder
+   * 
+   * @return acceleration getter for absolute encoder
+   * @deprecated boxes a Double on every read, use {@link #getAccRotationsPerSecPerSecSupplier()}
+   */
+  @Deprecated
+  public Supplier<Double> getAccRotationsPerSecPerSec() {
+    DoubleSupplier accRotationsPerSecPerSec = getAccRotationsPerSecPerSecSupplier();
+    return accRotationsPerSecPerSec::getAsDouble;
+  }
+
   /** Overridable periodic function for extra functionality run every periodic loop */
   public void periodic() {}
+
+  /** Runs periodic() and records how long it took, should be called once per loop */
+  public final void update() {
+    long start = periodicTimer.start();
+    periodic();
+    periodicTimer.stop(start);
+  }
   
   // Setters for temporary reonfiguration
 
@@ -1,27 +1,41 @@
 package frc.lib.sensor.absolute;
 
-import java.util.HashSet;
-import java.util.Set;
-import java.util.function.Supplier;
+import java.util.function.DoubleSupplier;
 
 import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.hardware.CANcoder;
-import com.ctre.phoenix6.hardware.ParentDevice;
 
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
 import frc.lib.CAN;
 import frc.lib.configs.AbsoluteEncoderConfig;
 import frc.lib.configs.appliers.CANcoderConfigApplier;
+import frc.lib.logging.DeviceLogger;
+import frc.lib.sim.CANcoderSim;
+import frc.lib.sim.PhysicsSim;
+import frc.lib.signal.SignalPriority;
+import frc.lib.signal.SignalRegistry;
 
 public class AbsoluteEncoderCANcoder extends AbsoluteEncoder {
 
   /** Encoder reference */
   private final CANcoder encoder;
 
-  /** Set of tracked status signals */
-  private Set<StatusSignal<?>> signals = new HashSet<StatusSignal<?>>();;
+  /** Absolute position signal */
+  private final StatusSignal<Angle> posRotations;
+
+  /** Velocity signal */
+  private final StatusSignal<AngularVelocity> velRotationsPerSec;
+
+  /** Entry name in the device log */
+  private final String name;
+
+  /** 
+   * Getters of this loop's position, velocity and latency compensated position inputs, 
+   * replayed from a log when replaying
+   */
+  private final DoubleSupplier[] inputs;
   
   /** Initializes and configures hardware */
   public AbsoluteEncoderCANcoder(
@@ -34,41 +48,82 @@ public class AbsoluteEncoderCANcoder extends AbsoluteEncoder {
     // Create hardware
     encoder = new CANcoder(sensorCAN.id(), sensorCAN.bus());
 
-    // Configure hardware
+    // Grab signals and have them refreshed with the rest of the bus
+    posRotations = encoder.getAbsolutePosition();
+    velRotationsPerSec = encoder.getVelocity();
+
+    // Velocity stays at the control rate, steer motors closing their loop on this CANcoder 
+    // use it for their derivative and latency compensation
+    SignalRegistry.register(
+      encoder, sensorCAN, SignalPriority.CONTROL, posRotations, velRotationsPerSec);
+
+    name = DeviceLogger.name("CANcoder", sensorCAN);
+
+    inputs = DeviceLogger.add(
+      name,
+      new String[] {"posRotations", "velRotationsPerSec", "compensatedPosRotations"},
+      posRotations::getValueAsDouble,
+      velRotationsPerSec::getValueAsDouble,
+      () -> BaseStatusSignal.getLatencyCompensatedValueAsDouble(
+        posRotations, velRotationsPerSec));
+
+    // Configure hardware, writes are queued and run in parallel with other devices
+    CANcoderConfigApplier.applyFactoryDefault(encoder);
     configure();
   }
 
   @Override
   public void configure() {
-    BaseStatusSignal.setUpdateFrequencyForAll(100, signals.toArray(new StatusSignal<?>[0]));
-
-    ParentDevice.optimizeBusUtilizationForAll(encoder);
-
+    // Update frequencies are planned by the bus budget
     CANcoderConfigApplier.apply(encoder, getConfig());
   }
 
   @Override
-  public Supplier<Double> getPosRotations() {
-    StatusSignal<Angle> posRotations = encoder.getAbsolutePosition();
-    signals.add(posRotations); // codingon school laptop is awful i give up for now
+  public void enableSimulation(DoubleSupplier posRotations, DoubleSupplier velRotationsPerSec) {
+    PhysicsSim.add(
+      new CANcoderSim(
+        encoder, 
+        posRotations, 
+        velRotationsPerSec, 
+        getConfig().sensorToMechRatio()));
 
-    return () -> {
-      return posRotations.getValueAsDouble();
+    // Read the mechanism directly, offset and wrapped to half a rotation like the CANcoder, 
+    // simulated inputs are current so the compensated position is the position
+    DoubleSupplier wrappedPosRotations = () -> {
+      double rotations = posRotations.getAsDouble() * getConfig().sensorToMechRatio()
+        + getConfig().offset().getRotations();
+      return rotations - Math.floor(rotations + 0.5);
     };
+
+    DeviceLogger.simulate(
+      name,
+      wrappedPosRotations,
+      () -> velRotationsPerSec.getAsDouble() * getConfig().sensorToMechRatio(),
+      wrappedPosRotations);
   }
 
   @Override
-  public Supplier<Double> getVelRotationsPerSec() {
-    StatusSignal<AngularVelocity> velRotationsPerSec = encoder.getVelocity();
-    signals.add(velRotationsPerSec);
+  public DoubleSupplier getPosRotationsSupplier() {
+    return inputs[0];
+  }
 
-    return () -> {
-      return velRotationsPerSec.getValueAsDouble();
-    };
+  @Override
+  public DoubleSupplier getCompensatedPosRotationsSupplier() {
+    return inputs[2];
+  }
+
+  @Override
+  public DoubleSupplier getVelRotationsPerSecSupplier() {
+    return inputs[1];
+  }
+
+  @Override
+  public BaseStatusSignal getPosSignal() {
+    return posRotations;
   }
 
   @Override
-  public void periodic() {
-    BaseStatusSignal.refreshAll(signals.toArray(new StatusSignal<?>[0]));
+  public BaseStatusSignal getVelSignal() {
+    return velRotationsPerSec;
   }
 }
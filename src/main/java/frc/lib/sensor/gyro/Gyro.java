@@ -0,0 +1,146 @@
+package frc.lib.sensor.gyro;
+
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.configs.GyroConfig;
+import frc.lib.configs.GyroConfig.GyroBuilder;
+
+/** General interface for gyros, yaw is counterclockwise positive */
+public abstract class Gyro {
+
+  /** Gyro config */
+  private GyroConfig config = GyroBuilder.defaults().build();
+
+  /**
+   * Update gyro config
+   * 
+   * @param config new gyro config
+   */
+  public void setConfig(GyroConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * Update gyro config and rerun configure() function
+   * 
+   * @param newConfig new gyro config
+   */
+  public void reconfigure(GyroConfig newConfig) {
+    config = newConfig;
+    configure();
+  }
+
+  /**
+   * Get current gyro config
+   * 
+   * @return current gyro config
+   */
+  public GyroConfig getConfig() {
+    return config;
+  }
+
+  /** Configure the gyro */
+  public abstract void configure();
+
+  /**
+   * Set current yaw
+   * 
+   * @param yawRotations new yaw in rotations
+   */
+  public abstract void setYaw(double yawRotations);
+
+  /**
+   * Simulates the gyro following the simulated chassis rotation, stepped by PhysicsSim
+   * 
+   * @param omegaRadiansPerSec chassis rotation speed, counterclockwise positive
+   */
+  public void enableSimulation(DoubleSupplier omegaRadiansPerSec) {
+    DriverStation.reportWarning("Gyro does not support simulation", true);
+  }
+
+  // Overridable suppliers for getting readings from the gyro
+
+  /**
+   * Returns yaw getter for gyro, continuous past one rotation
+   * 
+   * @return yaw getter for gyro
+   */
+  public DoubleSupplier getYawRotationsSupplier() {
+    DriverStation.reportWarning("Gyro yaw supplier not defined", true);
+    return () -> 0.0;
+  }
+
+  /**
+   * Returns yaw rate getter for gyro
+   * 
+   * @return yaw rate getter for gyro
+   */
+  public DoubleSupplier getYawRateRotationsPerSecSupplier() {
+    DriverStation.reportWarning("Gyro yaw rate supplier not defined", true);
+    return () -> 0.0;
+  }
+
+  /**
+   * Returns forward acceleration getter for gyro
+   * 
+   * @return forward acceleration getter for gyro
+   */
+  public DoubleSupplier getAccXMetersPerSecPerSecSupplier() {
+    DriverStation.reportWarning("Gyro x acceleration supplier not defined", true);
+    return () -> 0.0;
+  }
+
+  /**
+   * Returns left acceleration getter for gyro
+   * 
+   * @return left acceleration getter for gyro
+   */
+  public DoubleSupplier getAccYMetersPerSecPerSecSupplier() {
+    DriverStation.reportWarning("Gyro y acceleration supplier not defined", true);
+    return () -> 0.0;
+  }
+
+  /**
+   * Returns upward acceleration getter for gyro
+   * 
+   * @return upward acceleration getter for gyro
+   */
+  public DoubleSupplier getAccZMetersPerSecPerSecSupplier() {
+    DriverStation.reportWarning("Gyro z acceleration supplier not defined", true);
+    return () -> 0.0;
+  }
+
+  /**
+   * Returns the status signal backing the yaw getter, used to wait on new yaw data
+   * 
+   * @return the yaw status signal in degrees, or null if the gyro has none
+   */
+  public BaseStatusSignal getYawSignal() {
+    DriverStation.reportWarning("Gyro yaw signal not defined", true);
+    return null;
+  }
+
+  /**
+   * Returns the status signal backing the yaw rate getter, used to wait on new yaw rate data
+   * 
+   * @return the yaw rate status signal in degrees per second, or null if the gyro has none
+   */
+  public BaseStatusSignal getYawRateSignal() {
+    DriverStation.reportWarning("Gyro yaw rate signal not defined", true);
+    return null;
+  }
+
+  /**
+   * Returns yaw getter extrapolated along yaw rate to when this loop's inputs were read,
+   * removing the CAN frame latency from the reading
+   * 
+   * @return latency compensated yaw getter for gyro
+   */
+  public DoubleSupplier getCompensatedYawRotationsSupplier() {
+    DriverStation.reportWarning("Gyro latency compensated yaw not defined", true);
+    return getYawRotationsSupplier();
+  }
+}
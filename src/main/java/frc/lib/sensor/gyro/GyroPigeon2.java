@@ -0,0 +1,174 @@
+package frc.lib.sensor.gyro;
+
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.Pigeon2;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.LinearAcceleration;
+import frc.lib.CAN;
+import frc.lib.configs.GyroConfig;
+import frc.lib.configs.appliers.Pigeon2ConfigApplier;
+import frc.lib.logging.DeviceLogger;
+import frc.lib.signal.SignalPriority;
+import frc.lib.signal.SignalRegistry;
+import frc.lib.sim.PhysicsSim;
+import frc.lib.sim.Pigeon2Sim;
+
+/**
+ * Pigeon 2 used as a gyro. Yaw and yaw rate are requested at the same priority as the drive
+ * motor positions, and are raised to the odometry rate with them when the odometry thread
+ * samples the gyro.
+ */
+public class GyroPigeon2 extends Gyro {
+
+  /** Standard gravity, the Pigeon 2 reports accelerations in g */
+  private static final double METERS_PER_SEC_PER_SEC_PER_G = 9.80665;
+
+  /** Input indices, in logged field order */
+  private static final int YAW = 0;
+  private static final int YAW_RATE = 1;
+  private static final int ACC_X = 2;
+  private static final int ACC_Y = 3;
+  private static final int ACC_Z = 4;
+  private static final int COMPENSATED_YAW = 5;
+
+  /** Gyro reference */
+  private final Pigeon2 pigeon2;
+
+  /** Yaw signal in degrees */
+  private final StatusSignal<Angle> yawDegrees;
+
+  /** Yaw rate signal in degrees per second */
+  private final StatusSignal<AngularVelocity> yawRateDegreesPerSec;
+
+  /** Acceleration signals in g */
+  private final StatusSignal<LinearAcceleration> accX;
+  private final StatusSignal<LinearAcceleration> accY;
+  private final StatusSignal<LinearAcceleration> accZ;
+
+  /** Entry name in the device log */
+  private final String name;
+
+  /** Getters of this loop's inputs, replayed from a log when replaying */
+  private final DoubleSupplier[] inputs;
+
+  /** Simulation of the Pigeon 2, null until simulation is enabled */
+  private Pigeon2Sim sim = null;
+
+  /**
+   * Initializes and configures hardware
+   * 
+   * @param config gyro config
+   * @param gyroCan CAN identifier of the Pigeon 2
+   */
+  public GyroPigeon2(
+      GyroConfig config,
+      CAN gyroCan) {
+
+    setConfig(config);
+
+    pigeon2 = new Pigeon2(gyroCan.id(), gyroCan.bus());
+
+    yawDegrees = pigeon2.getYaw();
+    yawRateDegreesPerSec = pigeon2.getAngularVelocityZWorld();
+    accX = pigeon2.getAccelerationX();
+    accY = pigeon2.getAccelerationY();
+    accZ = pigeon2.getAccelerationZ();
+
+    SignalRegistry.register(
+      pigeon2, gyroCan, SignalPriority.CONTROL, yawDegrees, yawRateDegreesPerSec);
+    SignalRegistry.register(pigeon2, gyroCan, SignalPriority.TELEMETRY, accX, accY, accZ);
+
+    name = DeviceLogger.name("Pigeon2", gyroCan);
+
+    inputs = DeviceLogger.add(
+      name,
+      new String[] {"yawRotations", "yawRateRotationsPerSec",
+        "accXMetersPerSecPerSec", "accYMetersPerSecPerSec", "accZMetersPerSecPerSec",
+        "compensatedYawRotations"},
+      () -> yawDegrees.getValueAsDouble() / 360.0,
+      () -> yawRateDegreesPerSec.getValueAsDouble() / 360.0,
+      () -> accX.getValueAsDouble() * METERS_PER_SEC_PER_SEC_PER_G,
+      () -> accY.getValueAsDouble() * METERS_PER_SEC_PER_SEC_PER_G,
+      () -> accZ.getValueAsDouble() * METERS_PER_SEC_PER_SEC_PER_G,
+      () -> BaseStatusSignal.getLatencyCompensatedValueAsDouble(
+        yawDegrees, yawRateDegreesPerSec) / 360.0);
+
+    Pigeon2ConfigApplier.applyFactoryDefault(pigeon2);
+    configure();
+  }
+
+  @Override
+  public void configure() {
+    Pigeon2ConfigApplier.apply(pigeon2, getConfig());
+  }
+
+  @Override
+  public void setYaw(double yawRotations) {
+    pigeon2.setYaw(yawRotations * 360.0);
+
+    if (sim != null) {
+      sim.setYawDegrees(yawRotations * 360.0);
+    }
+  }
+
+  @Override
+  public void enableSimulation(DoubleSupplier omegaRadiansPerSec) {
+    sim = new Pigeon2Sim(pigeon2, omegaRadiansPerSec);
+    PhysicsSim.add(sim);
+
+    // Lying flat, so only gravity shows on the z axis
+    DeviceLogger.simulate(
+      name,
+      () -> sim.getYawDegrees() / 360.0,
+      () -> sim.getYawRateDegreesPerSec() / 360.0,
+      () -> 0.0,
+      () -> 0.0,
+      () -> METERS_PER_SEC_PER_SEC_PER_G,
+      () -> sim.getYawDegrees() / 360.0);
+  }
+
+  @Override
+  public DoubleSupplier getYawRotationsSupplier() {
+    return inputs[YAW];
+  }
+
+  @Override
+  public DoubleSupplier getYawRateRotationsPerSecSupplier() {
+    return inputs[YAW_RATE];
+  }
+
+  @Override
+  public DoubleSupplier getAccXMetersPerSecPerSecSupplier() {
+    return inputs[ACC_X];
+  }
+
+  @Override
+  public DoubleSupplier getAccYMetersPerSecPerSecSupplier() {
+    return inputs[ACC_Y];
+  }
+
+  @Override
+  public DoubleSupplier getAccZMetersPerSecPerSecSupplier() {
+    return inputs[ACC_Z];
+  }
+
+  @Override
+  public DoubleSupplier getCompensatedYawRotationsSupplier() {
+    return inputs[COMPENSATED_YAW];
+  }
+
+  @Override
+  public BaseStatusSignal getYawSignal() {
+    return yawDegrees;
+  }
+
+  @Override
+  public BaseStatusSignal getYawRateSignal() {
+    return yawRateDegreesPerSec;
+  }
+}
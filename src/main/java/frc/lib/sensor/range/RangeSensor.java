@@ -0,0 +1,102 @@
+package frc.lib.sensor.range;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.math.filter.Debouncer.DebounceType;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.lib.configs.RangeSensorConfig;
+import frc.lib.configs.RangeSensorConfig.RangeSensorBuilder;
+
+/** General interface for distance sensors with a proximity threshold */
+public abstract class RangeSensor {
+
+  /** Range sensor config */
+  private RangeSensorConfig config = RangeSensorBuilder.defaults().build();
+
+  /** Debounced detection trigger, created on first use */
+  private Trigger detectedTrigger = null;
+
+  /**
+   * Update range sensor config
+   * 
+   * @param config new range sensor config
+   */
+  public void setConfig(RangeSensorConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * Update range sensor config and rerun configure() function
+   * 
+   * @param newConfig new range sensor config
+   */
+  public void reconfigure(RangeSensorConfig newConfig) {
+    config = newConfig;
+    configure();
+  }
+
+  /**
+   * Get current range sensor config
+   * 
+   * @return current range sensor config
+   */
+  public RangeSensorConfig getConfig() {
+    return config;
+  }
+
+  /** Configure the range sensor */
+  public abstract void configure();
+
+  // Overridable suppliers for getting readings from the range sensor
+
+  /**
+   * Returns distance getter for range sensor
+   * 
+   * @return distance getter for range sensor
+   */
+  public DoubleSupplier getDistanceMetersSupplier() {
+    DriverStation.reportWarning("Range sensor distance supplier not defined", true);
+    return () -> 0.0;
+  }
+
+  /**
+   * Returns signal strength getter for range sensor
+   * 
+   * @return signal strength getter for range sensor
+   */
+  public DoubleSupplier getSignalStrengthSupplier() {
+    DriverStation.reportWarning("Range sensor signal strength supplier not defined", true);
+    return () -> 0.0;
+  }
+
+  /**
+   * Returns detection getter for range sensor, 1.0 when an object is within the proximity
+   * threshold and 0.0 otherwise
+   * 
+   * @return detection getter for range sensor
+   */
+  public DoubleSupplier getDetectedSupplier() {
+    DriverStation.reportWarning("Range sensor detection supplier not defined", true);
+    return () -> 0.0;
+  }
+
+  /**
+   * Returns a trigger that is true while an object is detected, debounced by the config's
+   * debounce time on both edges. Commands bound to its edges are run by the command scheduler,
+   * the debounce time is taken from the config when the trigger is first created
+   * 
+   * @return the debounced detection trigger
+   */
+  public Trigger getDetectedTrigger() {
+    if (detectedTrigger == null) {
+      DoubleSupplier detected = getDetectedSupplier();
+
+      detectedTrigger =
+        new Trigger(() -> detected.getAsDouble() > 0.5)
+          .debounce(config.debounceSeconds(), DebounceType.kBoth);
+    }
+
+    return detectedTrigger;
+  }
+}
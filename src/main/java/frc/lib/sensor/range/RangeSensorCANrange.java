@@ -0,0 +1,94 @@
+package frc.lib.sensor.range;
+
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.CANrange;
+
+import edu.wpi.first.units.measure.Distance;
+import frc.lib.CAN;
+import frc.lib.configs.RangeSensorConfig;
+import frc.lib.configs.appliers.CANrangeConfigApplier;
+import frc.lib.logging.DeviceLogger;
+import frc.lib.signal.SignalPriority;
+import frc.lib.signal.SignalRegistry;
+
+/**
+ * CANrange used as a range sensor. Detection is decided on the CANrange from the proximity
+ * threshold and hysteresis in the config, so the robot only reads the result.
+ */
+public class RangeSensorCANrange extends RangeSensor {
+
+  /** Input indices, in logged field order */
+  private static final int DISTANCE = 0;
+  private static final int DETECTED = 1;
+  private static final int SIGNAL_STRENGTH = 2;
+
+  /** Range sensor reference */
+  private final CANrange canRange;
+
+  /** Distance signal in meters */
+  private final StatusSignal<Distance> distanceMeters;
+
+  /** Detection signal, decided on the CANrange */
+  private final StatusSignal<Boolean> isDetected;
+
+  /** Signal strength signal, unitless */
+  private final StatusSignal<Double> signalStrength;
+
+  /** Getters of this loop's inputs, replayed from a log when replaying */
+  private final DoubleSupplier[] inputs;
+
+  /**
+   * Initializes and configures hardware
+   * 
+   * @param config range sensor config
+   * @param rangeCan CAN identifier of the CANrange
+   */
+  public RangeSensorCANrange(
+      RangeSensorConfig config,
+      CAN rangeCan) {
+
+    setConfig(config);
+
+    canRange = new CANrange(rangeCan.id(), rangeCan.bus());
+
+    distanceMeters = canRange.getDistance();
+    isDetected = canRange.getIsDetected();
+    signalStrength = canRange.getSignalStrength();
+
+    SignalRegistry.register(
+      canRange, rangeCan, SignalPriority.CONTROL, distanceMeters, isDetected);
+    SignalRegistry.register(canRange, rangeCan, SignalPriority.TELEMETRY, signalStrength);
+
+    inputs = DeviceLogger.add(
+      DeviceLogger.name("CANrange", rangeCan),
+      new String[] {"distanceMeters", "detected", "signalStrength"},
+      distanceMeters::getValueAsDouble,
+      () -> isDetected.getValue() ? 1.0 : 0.0,
+      signalStrength::getValueAsDouble);
+
+    CANrangeConfigApplier.applyFactoryDefault(canRange);
+    configure();
+  }
+
+  @Override
+  public void configure() {
+    CANrangeConfigApplier.apply(canRange, getConfig());
+  }
+
+  @Override
+  public DoubleSupplier getDistanceMetersSupplier() {
+    return inputs[DISTANCE];
+  }
+
+  @Override
+  public DoubleSupplier getSignalStrengthSupplier() {
+    return inputs[SIGNAL_STRENGTH];
+  }
+
+  @Override
+  public DoubleSupplier getDetectedSupplier() {
+    return inputs[DETECTED];
+  }
+}
@@ -0,0 +1,368 @@
+package frc.lib.signal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.CAN;
+import frc.lib.configs.appliers.ConfigApplier;
+
+/**
+ * Plans status signal update frequencies per CAN bus. Every signal is charged as one frame per
+ * update, which overestimates a little since Phoenix packs several signals into some frames.
+ * When a bus would go over budget the lowest priority signals are halved down to their minimum.
+ */
+public class BusBudget {
+
+  /** Highest estimated utilization allowed on a bus */
+  public static final double MAX_UTILIZATION = 0.7;
+
+  /** Time one frame holds a CAN 2.0 bus, extended id and 8 data bytes at 1 Mbit/s */
+  private static final double CAN_2_FRAME_SECONDS = 135e-6;
+
+  /** Time one frame holds a CAN FD bus, arbitration at 1 Mbit/s and data at 8 Mbit/s */
+  private static final double CAN_FD_FRAME_SECONDS = 55e-6;
+
+  /** Signals of every device, in registration order */
+  private static final Map<ParentDevice, DeviceSignals> devices = new LinkedHashMap<>();
+
+  /** True once apply has queued the planned frequencies */
+  private static boolean applied = false;
+
+  /** A signal and its planned frequency */
+  private static class PlannedSignal {
+
+    /** The signal */
+    private final BaseStatusSignal signal;
+
+    /** Priority of the signal */
+    private SignalPriority priority;
+
+    /** Requested update frequency */
+    private double requestedHz;
+
+    /** Planned update frequency, lower than requested when the bus is over budget */
+    private double plannedHz;
+
+    private PlannedSignal(BaseStatusSignal signal, SignalPriority priority, double requestedHz) {
+      this.signal = signal;
+      this.priority = priority;
+      this.requestedHz = requestedHz;
+      this.plannedHz = requestedHz;
+    }
+
+    /**
+     * Returns lowest update frequency the signal may be slowed down to
+     * 
+     * @return lowest update frequency the signal may be slowed down to
+     */
+    private double minHz() {
+      return Math.min(priority.getMinFrequencyHz(), requestedHz);
+    }
+  }
+
+  /** Signals of a single device */
+  private static class DeviceSignals {
+
+    /** CAN bus name of the device */
+    private final String bus;
+
+    /** Signals of the device */
+    private final List<PlannedSignal> signals = new ArrayList<>();
+
+    private DeviceSignals(String bus) {
+      this.bus = bus;
+    }
+  }
+
+  /**
+   * Requests an update frequency for a device's signals, replacing any earlier request
+   * 
+   * @param device the device
+   * @param can CAN identifier of the device
+   * @param priority priority of the signals
+   * @param frequencyHz requested update frequency
+   * @param signals signals of the device
+   */
+  public static synchronized void request(
+      ParentDevice device,
+      CAN can,
+      SignalPriority priority,
+      double frequencyHz,
+      BaseStatusSignal... signals) {
+
+    DeviceSignals deviceSignals = 
+      devices.computeIfAbsent(device, key -> new DeviceSignals(can.bus()));
+
+    for (BaseStatusSignal signal : signals) {
+      PlannedSignal planned = find(signal);
+
+      if (planned == null) {
+        deviceSignals.signals.add(new PlannedSignal(signal, priority, frequencyHz));
+      } else {
+        planned.priority = priority;
+        planned.requestedHz = frequencyHz;
+        planned.plannedHz = frequencyHz;
+      }
+    }
+  }
+
+  /**
+   * Requests the default update frequency of a priority for a device's signals
+   * 
+   * @param device the device
+   * @param can CAN identifier of the device
+   * @param priority priority of the signals
+   * @param signals signals of the device
+   */
+  public static void request(
+      ParentDevice device, CAN can, SignalPriority priority, BaseStatusSignal... signals) {
+
+    request(device, can, priority, priority.getFrequencyHz(), signals);
+  }
+
+  /**
+   * Changes the request of signals that were already requested by their device
+   * (for the odometry thread, which only knows the signals). After apply has run, the changed
+   * buses are planned again and their frequencies are queued behind each device's other writes.
+   * 
+   * @param priority new priority of the signals
+   * @param frequencyHz new requested update frequency
+   * @param signals signals to change
+   * @return true if every signal had been requested before
+   */
+  public static synchronized boolean rerequest(
+      SignalPriority priority, double frequencyHz, BaseStatusSignal... signals) {
+
+    boolean allFound = true;
+    List<String> changedBuses = new ArrayList<>();
+
+    for (BaseStatusSignal signal : signals) {
+      PlannedSignal planned = find(signal);
+
+      if (planned == null) {
+        allFound = false;
+        continue;
+      }
+
+      planned.priority = priority;
+      planned.requestedHz = frequencyHz;
+      planned.plannedHz = frequencyHz;
+
+      String bus = findBus(planned);
+
+      if (!changedBuses.contains(bus)) {
+        changedBuses.add(bus);
+      }
+    }
+
+    if (applied) {
+      for (String bus : changedBuses) {
+        plan(bus);
+
+        for (Map.Entry<ParentDevice, DeviceSignals> entry : devices.entrySet()) {
+          if (entry.getValue().bus.equals(bus)) {
+            queue(entry.getKey(), entry.getValue());
+          }
+        }
+      }
+    }
+
+    return allFound;
+  }
+
+  /**
+   * Plans every bus and queues the update frequencies of every device,
+   * should be called once after all devices are created
+   * 
+   * @return a future per device that completes with true if its frequencies were applied
+   */
+  public static synchronized List<CompletableFuture<Boolean>> apply() {
+    for (String bus : getBuses()) {
+      plan(bus);
+    }
+
+    List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+    for (Map.Entry<ParentDevice, DeviceSignals> entry : devices.entrySet()) {
+      results.add(queue(entry.getKey(), entry.getValue()));
+    }
+
+    applied = true;
+
+    return results;
+  }
+
+  /**
+   * Queues the planned update frequencies of a device
+   * 
+   * @param device the device
+   * @param deviceSignals signals of the device
+   * @return a future that completes with true if the frequencies were applied
+   */
+  private static CompletableFuture<Boolean> queue(
+      ParentDevice device, DeviceSignals deviceSignals) {
+
+    List<PlannedSignal> signals = deviceSignals.signals;
+
+    double[] frequenciesHz = new double[signals.size()];
+    BaseStatusSignal[] statusSignals = new BaseStatusSignal[signals.size()];
+
+    for (int i = 0; i < signals.size(); i++) {
+      frequenciesHz[i] = signals.get(i).plannedHz;
+      statusSignals[i] = signals.get(i).signal;
+    }
+
+    return ConfigApplier.applyUpdateFrequencies(device, frequenciesHz, statusSignals);
+  }
+
+  /**
+   * Returns estimated utilization of a bus with the planned frequencies
+   * 
+   * @param bus CAN bus name
+   * @return estimated fraction of the bus in use
+   */
+  public static synchronized double getEstimatedUtilization(String bus) {
+    double framesPerSec = 0.0;
+
+    for (DeviceSignals deviceSignals : devices.values()) {
+      if (!deviceSignals.bus.equals(bus)) {
+        continue;
+      }
+
+      for (PlannedSignal planned : deviceSignals.signals) {
+        framesPerSec += planned.plannedHz;
+      }
+    }
+
+    return framesPerSec * frameSeconds(bus);
+  }
+
+  /**
+   * Slows down the lowest priority signals on a bus until it is under budget
+   * 
+   * @param bus CAN bus name
+   */
+  private static void plan(String bus) {
+    for (DeviceSignals deviceSignals : devices.values()) {
+      if (deviceSignals.bus.equals(bus)) {
+        for (PlannedSignal planned : deviceSignals.signals) {
+          planned.plannedHz = planned.requestedHz;
+        }
+      }
+    }
+
+    double requested = getEstimatedUtilization(bus);
+    SignalPriority[] priorities = SignalPriority.values();
+
+    // Lowest priority first, halving every signal of that priority once per pass
+    for (int p = priorities.length - 1; p >= 0; p--) {
+      boolean slowed = true;
+
+      while (getEstimatedUtilization(bus) > MAX_UTILIZATION && slowed) {
+        slowed = false;
+
+        for (DeviceSignals deviceSignals : devices.values()) {
+          if (!deviceSignals.bus.equals(bus)) {
+            continue;
+          }
+
+          for (PlannedSignal planned : deviceSignals.signals) {
+            if (planned.priority == priorities[p] && planned.plannedHz > planned.minHz()) {
+              planned.plannedHz = Math.max(planned.plannedHz / 2.0, planned.minHz());
+              slowed = true;
+            }
+          }
+        }
+      }
+    }
+
+    double utilization = getEstimatedUtilization(bus);
+    String busName = bus.isEmpty() ? "rio" : bus;
+
+    if (utilization > MAX_UTILIZATION) {
+      DriverStation.reportError(
+        "CAN bus \"" + busName + "\" is estimated at " + Math.round(utilization * 100)
+          + "% utilization even at minimum signal rates, remove signals or devices",
+        false);
+    } else if (utilization < requested) {
+      DriverStation.reportWarning(
+        "CAN bus \"" + busName + "\" was estimated at " + Math.round(requested * 100)
+          + "% utilization, slowed low priority signals down to " + Math.round(utilization * 100)
+          + "%",
+        false);
+    }
+  }
+
+  /**
+   * Returns time a frame holds a bus
+   * 
+   * @param bus CAN bus name
+   * @return time a frame holds the bus in seconds
+   */
+  private static double frameSeconds(String bus) {
+    if (bus.isEmpty() || bus.equals("rio")) {
+      return CAN_2_FRAME_SECONDS;
+    }
+
+    return new CANBus(bus).isNetworkFD() ? CAN_FD_FRAME_SECONDS : CAN_2_FRAME_SECONDS;
+  }
+
+  /**
+   * Returns the planned signal for a status signal
+   * 
+   * @param signal the status signal
+   * @return the planned signal, or null if it was never requested
+   */
+  private static PlannedSignal find(BaseStatusSignal signal) {
+    for (DeviceSignals deviceSignals : devices.values()) {
+      for (PlannedSignal planned : deviceSignals.signals) {
+        if (planned.signal == signal) {
+          return planned;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the bus of a planned signal
+   * 
+   * @param planned the planned signal
+   * @return CAN bus name of the device the signal belongs to
+   */
+  private static String findBus(PlannedSignal planned) {
+    for (DeviceSignals deviceSignals : devices.values()) {
+      if (deviceSignals.signals.contains(planned)) {
+        return deviceSignals.bus;
+      }
+    }
+
+    return "";
+  }
+
+  /**
+   * Returns every bus with requested signals
+   * 
+   * @return every bus with requested signals
+   */
+  private static List<String> getBuses() {
+    List<String> buses = new ArrayList<>();
+
+    for (DeviceSignals deviceSignals : devices.values()) {
+      if (!buses.contains(deviceSignals.bus)) {
+        buses.add(deviceSignals.bus);
+      }
+    }
+
+    return buses;
+  }
+}
@@ -0,0 +1,53 @@
+package frc.lib.signal;
+
+/**
+ * How often a status signal is needed, decides its update frequency and
+ * the order signals are slowed down in when a CAN bus is over budget
+ */
+public enum SignalPriority {
+  /** Positions sampled by the odometry thread, never slowed down */
+  ODOMETRY(250.0, 250.0),
+  /** Readings used for control every loop */
+  CONTROL(100.0, 50.0),
+  /** Readings only logged or displayed */
+  TELEMETRY(50.0, 10.0),
+  /** Currents, used for power management */
+  CURRENT(10.0, 4.0),
+  /** Slow status such as temperature */
+  STATUS(4.0, 4.0);
+
+  /** Requested update frequency */
+  private final double frequencyHz;
+
+  /** Lowest update frequency the signal may be slowed down to */
+  private final double minFrequencyHz;
+
+  /**
+   * Creates a signal priority
+   * 
+   * @param frequencyHz requested update frequency
+   * @param minFrequencyHz lowest update frequency the signal may be slowed down to
+   */
+  SignalPriority(double frequencyHz, double minFrequencyHz) {
+    this.frequencyHz = frequencyHz;
+    this.minFrequencyHz = minFrequencyHz;
+  }
+
+  /**
+   * Returns requested update frequency
+   * 
+   * @return requested update frequency
+   */
+  public double getFrequencyHz() {
+    return frequencyHz;
+  }
+
+  /**
+   * Returns lowest update frequency the signal may be slowed down to
+   * 
+   * @return lowest update frequency the signal may be slowed down to
+   */
+  public double getMinFrequencyHz() {
+    return minFrequencyHz;
+  }
+}
@@ -0,0 +1,133 @@
+package frc.lib.signal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.CAN;
+import frc.lib.timing.LoopTimer;
+import frc.lib.timing.LoopTiming;
+
+/** 
+ * Keeps every status signal read by the library and refreshes them together, 
+ * one refreshAll call per CAN bus per loop
+ */
+public class SignalRegistry {
+
+  /** Signals grouped by CAN bus name */
+  private static final Map<String, BusSignals> buses = new HashMap<>();
+
+  /** Bus groups as an array so the periodic refresh does not create an iterator */
+  private static volatile BusSignals[] busArray = new BusSignals[0];
+
+  /** Signals on a single CAN bus */
+  private static class BusSignals {
+    
+    /** CAN bus name */
+    private final String bus;
+
+    /** Signals refreshed together, only reallocated when a signal is registered */
+    private volatile BaseStatusSignal[] signals = new BaseStatusSignal[0];
+
+    /** Last refresh status, used to report failures once instead of every loop */
+    private StatusCode lastStatus = StatusCode.OK;
+
+    /** Time spent refreshing the bus */
+    private final LoopTimer refreshTimer;
+
+    private BusSignals(String bus) {
+      this.bus = bus;
+      this.refreshTimer = 
+        LoopTiming.create("SignalRegistry.refresh/" + (bus.isEmpty() ? "rio" : bus), 0.001);
+    }
+
+    /**
+     * Adds a signal if it is not already tracked
+     * 
+     * @param signal signal to add
+     */
+    private void add(BaseStatusSignal signal) {
+      for (BaseStatusSignal tracked : signals) {
+        if (tracked == signal) {
+          return;
+        }
+      }
+
+      signals = Arrays.copyOf(signals, signals.length + 1);
+      signals[signals.length - 1] = signal;
+    }
+
+    /** Refreshes all signals on the bus */
+    private void refresh() {
+      BaseStatusSignal[] current = signals;
+
+      if (current.length == 0) {
+        return;
+      }
+
+      long start = refreshTimer.start();
+      StatusCode status = BaseStatusSignal.refreshAll(current);
+      refreshTimer.stop(start);
+
+      if (!status.isOK() && status != lastStatus) {
+        DriverStation.reportWarning(
+          "Failed to refresh status signals on CAN bus \"" + bus + "\": " + status, false);
+      }
+
+      lastStatus = status;
+    }
+  }
+
+  /**
+   * Registers status signals to be refreshed every loop
+   * 
+   * @param can CAN identifier of the device the signals belong to
+   * @param signals signals to refresh
+   */
+  public static synchronized void register(CAN can, BaseStatusSignal... signals) {
+    BusSignals busSignals = buses.get(can.bus());
+
+    if (busSignals == null) {
+      busSignals = new BusSignals(can.bus());
+      buses.put(can.bus(), busSignals);
+
+      BusSignals[] newBusArray = Arrays.copyOf(busArray, busArray.length + 1);
+      newBusArray[newBusArray.length - 1] = busSignals;
+      busArray = newBusArray;
+    }
+
+    for (BaseStatusSignal signal : signals) {
+      busSignals.add(signal);
+    }
+  }
+
+  /**
+   * Registers status signals to be refreshed every loop and requests their update frequency 
+   * from the bus budget
+   * 
+   * @param device the device the signals belong to
+   * @param can CAN identifier of the device
+   * @param priority priority of the signals
+   * @param signals signals to refresh
+   */
+  public static void register(
+      ParentDevice device, CAN can, SignalPriority priority, BaseStatusSignal... signals) {
+    
+    register(can, signals);
+    BusBudget.request(device, can, priority, signals);
+  }
+
+  /** Refreshes every registered signal, should be called once at the start of every loop */
+  public static void refreshAll() {
+    BusSignals[] current = busArray;
+
+    for (int i = 0; i < current.length; i++) {
+      current[i].refresh();
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package frc.lib.signal;
+
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.hardware.TalonFX;
+
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularAcceleration;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Temperature;
+import edu.wpi.first.units.measure.Voltage;
+import frc.lib.CAN;
+import frc.lib.logging.DeviceLogger;
+import frc.lib.sim.DCMotorModel;
+import frc.lib.sim.PhysicsSim;
+import frc.lib.sim.TalonFXSim;
+
+/** 
+ * Status signals read from a TalonFX, registered for batched refresh and logging. 
+ * Getters read this loop's inputs, which come from a recorded log when replaying.
+ */
+public class TalonFXSignals {
+
+  /** Input indices, in logged field order */
+  private static final int POS = 0;
+  private static final int VEL = 1;
+  private static final int ACC = 2;
+  private static final int VOLTAGE = 3;
+  private static final int STATOR_CURRENT = 4;
+  private static final int SUPPLY_CURRENT = 5;
+  private static final int TEMPERATURE = 6;
+  private static final int SUPPLY_VOLTAGE = 7;
+  private static final int COMPENSATED_POS = 8;
+
+  /** Motor temperature reported while simulated */
+  private static final double SIM_TEMPERATURE_CELSIUS = 25.0;
+
+  /** Mechanism position */
+  private final StatusSignal<Angle> position;
+
+  /** Mechanism velocity */
+  private final StatusSignal<AngularVelocity> velocity;
+
+  /** Mechanism acceleration */
+  private final StatusSignal<AngularAcceleration> acceleration;
+
+  /** Applied motor voltage */
+  private final StatusSignal<Voltage> motorVoltage;
+
+  /** Stator current */
+  private final StatusSignal<Current> statorCurrent;
+
+  /** Supply current */
+  private final StatusSignal<Current> supplyCurrent;
+
+  /** Motor temperature */
+  private final StatusSignal<Temperature> deviceTemp;
+
+  /** Voltage at the TalonFX's supply input, follows battery sag */
+  private final StatusSignal<Voltage> supplyVoltage;
+
+  /** Entry name in the device log */
+  private final String name;
+
+  /** Getters of this loop's inputs */
+  private final DoubleSupplier[] inputs;
+
+  /**
+   * Grabs the status signals of a TalonFX and registers them with the signal registry, 
+   * the bus budget and the device logger
+   * 
+   * @param talonFX the TalonFX
+   * @param can CAN identifier of the TalonFX
+   */
+  public TalonFXSignals(TalonFX talonFX, CAN can) {
+    position = talonFX.getPosition();
+    velocity = talonFX.getVelocity();
+    acceleration = talonFX.getAcceleration();
+    motorVoltage = talonFX.getMotorVoltage();
+    statorCurrent = talonFX.getStatorCurrent();
+    supplyCurrent = talonFX.getSupplyCurrent();
+    deviceTemp = talonFX.getDeviceTemp();
+    supplyVoltage = talonFX.getSupplyVoltage();
+
+    SignalRegistry.register(talonFX, can, SignalPriority.CONTROL, position, velocity);
+    SignalRegistry.register(
+      talonFX, 
+      can, 
+      SignalPriority.TELEMETRY, 
+      acceleration, 
+      motorVoltage);
+    SignalRegistry.register(
+      talonFX, 
+      can, 
+      SignalPriority.CURRENT, 
+      statorCurrent, 
+      supplyCurrent, 
+      supplyVoltage);
+    SignalRegistry.register(talonFX, can, SignalPriority.STATUS, deviceTemp);
+
+    name = DeviceLogger.name("TalonFX", can);
+
+    inputs = DeviceLogger.add(
+      name,
+      new String[] {"posRotations", "velRotationsPerSec", "accRotationsPerSecPerSec", 
+        "voltage", "statorCurrent", "supplyCurrent", "temperature", "supplyVoltage",
+        "compensatedPosRotations"},
+      position::getValueAsDouble,
+      velocity::getValueAsDouble,
+      acceleration::getValueAsDouble,
+      motorVoltage::getValueAsDouble,
+      statorCurrent::getValueAsDouble,
+      supplyCurrent::getValueAsDouble,
+      deviceTemp::getValueAsDouble,
+      supplyVoltage::getValueAsDouble,
+      () -> BaseStatusSignal.getLatencyCompensatedValueAsDouble(position, velocity));
+  }
+
+  /**
+   * Reads the inputs from a simulation of the TalonFX instead of its status signals
+   * 
+   * @param sim simulation of the TalonFX
+   */
+  public void enableSimulation(TalonFXSim sim) {
+    DCMotorModel model = sim.getModel();
+
+    DeviceLogger.simulate(
+      name,
+      model::getPosRotations,
+      model::getVelRotationsPerSec,
+      model::getAccRotationsPerSecPerSec,
+      sim::getMotorVoltage,
+      model::getStatorCurrent,
+      model::getSupplyCurrent,
+      () -> SIM_TEMPERATURE_CELSIUS,
+      PhysicsSim::getBatteryVoltage,
+      model::getPosRotations);
+  }
+
+  /**
+   * Returns mechanism position signal
+   * 
+   * @return mechanism position signal
+   */
+  public StatusSignal<Angle> getPosition() {
+    return position;
+  }
+
+  /**
+   * Returns mechanism velocity signal
+   * 
+   * @return mechanism velocity signal
+   */
+  public StatusSignal<AngularVelocity> getVelocity() {
+    return velocity;
+  }
+
+  /**
+   * Returns position getter in rotations
+   * 
+   * @return position getter in rotations
+   */
+  public DoubleSupplier getPosRotationsSupplier() {
+    return inputs[POS];
+  }
+
+  /**
+   * Returns position getter extrapolated along velocity to the time the inputs were read, 
+   * logged so a replay reads the same value
+   * 
+   * @return latency compensated position getter in rotations
+   */
+  public DoubleSupplier getCompensatedPosRotationsSupplier() {
+    return inputs[COMPENSATED_POS];
+  }
+
+  /**
+   * Returns velocity getter in rotations per second
+   * 
+   * @return velocity getter in rotations per second
+   */
+  public DoubleSupplier getVelRotationsPerSecSupplier() {
+    return inputs[VEL];
+  }
+
+  /**
+   * Returns acceleration getter in rotations per second per second
+   * 
+   * @return acceleration getter in rotations per second per second
+   */
+  public DoubleSupplier getAccRotationsPerSecPerSecSupplier() {
+    return inputs[ACC];
+  }
+
+  /**
+   * Returns applied voltage getter
+   * 
+   * @return applied voltage getter
+   */
+  public DoubleSupplier getVoltageSupplier() {
+    return inputs[VOLTAGE];
+  }
+
+  /**
+   * Returns stator current getter
+   * 
+   * @return stator current getter
+   */
+  public DoubleSupplier getStatorCurrentSupplier() {
+    return inputs[STATOR_CURRENT];
+  }
+
+  /**
+   * Returns supply current getter
+   * 
+   * @return supply current getter
+   */
+  public DoubleSupplier getSupplyCurrentSupplier() {
+    return inputs[SUPPLY_CURRENT];
+  }
+
+  /**
+   * Returns supply voltage getter
+   * 
+   * @return supply voltage getter
+   */
+  public DoubleSupplier getSupplyVoltageSupplier() {
+    return inputs[SUPPLY_VOLTAGE];
+  }
+
+  /**
+   * Returns motor temperature getter in celsius
+   * 
+   * @return motor temperature getter in celsius
+   */
+  public DoubleSupplier getTemperatureSupplier() {
+    return inputs[TEMPERATURE];
+  }
+}
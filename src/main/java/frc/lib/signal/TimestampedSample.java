@@ -0,0 +1,106 @@
+package frc.lib.signal;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Latest value of a status signal together with the FPGA time it was measured at.
+ * Reused between reads, update() copies the signal without allocating.
+ */
+public class TimestampedSample {
+
+  /** Longest time a value is extrapolated over, matches Phoenix's latency compensation */
+  public static final double MAX_LATENCY_SECONDS = 0.3;
+
+  /** Signal the value is read from */
+  private final BaseStatusSignal valueSignal;
+
+  /** Rate of change of the value, null when there is none */
+  private final BaseStatusSignal slopeSignal;
+
+  /** Value when it was measured */
+  private double value = 0.0;
+
+  /** Rate of change of the value when it was measured */
+  private double slope = 0.0;
+
+  /** FPGA time the value was measured at */
+  private double timestampSeconds = 0.0;
+
+  /**
+   * Creates a sample of a signal
+   * 
+   * @param valueSignal signal the value is read from
+   * @param slopeSignal rate of change of the value, null to never extrapolate
+   */
+  public TimestampedSample(BaseStatusSignal valueSignal, BaseStatusSignal slopeSignal) {
+    this.valueSignal = valueSignal;
+    this.slopeSignal = slopeSignal;
+  }
+
+  /**
+   * Copies the latest value of the signal, the signal should already be refreshed
+   * 
+   * @param nowSeconds current FPGA time
+   * @return this sample
+   */
+  public TimestampedSample update(double nowSeconds) {
+    if (valueSignal == null) {
+      return this;
+    }
+
+    value = valueSignal.getValueAsDouble();
+    slope = slopeSignal == null ? 0.0 : slopeSignal.getValueAsDouble();
+    timestampSeconds = nowSeconds - valueSignal.getTimestamp().getLatency();
+
+    return this;
+  }
+
+  /**
+   * Copies the latest value of the signal, the signal should already be refreshed
+   * 
+   * @return this sample
+   */
+  public TimestampedSample update() {
+    return update(Timer.getFPGATimestamp());
+  }
+
+  /**
+   * Returns value when it was measured
+   * 
+   * @return value when it was measured
+   */
+  public double getValue() {
+    return value;
+  }
+
+  /**
+   * Returns rate of change of the value when it was measured
+   * 
+   * @return rate of change of the value when it was measured
+   */
+  public double getSlope() {
+    return slope;
+  }
+
+  /**
+   * Returns FPGA time the value was measured at
+   * 
+   * @return FPGA time the value was measured at
+   */
+  public double getTimestampSeconds() {
+    return timestampSeconds;
+  }
+
+  /**
+   * Returns the value extrapolated along its slope to another time
+   * 
+   * @param timeSeconds FPGA time to extrapolate to
+   * @return the value at that time
+   */
+  public double getValueAt(double timeSeconds) {
+    double dt = Math.min(timeSeconds - timestampSeconds, MAX_LATENCY_SECONDS);
+    return value + slope * dt;
+  }
+}
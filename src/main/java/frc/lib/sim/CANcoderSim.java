@@ -0,0 +1,60 @@
+package frc.lib.sim;
+
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.ctre.phoenix6.sim.CANcoderSimState;
+
+/** Drives a CANcoder sim state from the simulated mechanism it is mounted on */
+public class CANcoderSim implements SimulatedDevice {
+
+  /** Sim state of the CANcoder */
+  private final CANcoderSimState simState;
+
+  /** Mechanism position */
+  private final DoubleSupplier posRotations;
+
+  /** Mechanism velocity */
+  private final DoubleSupplier velRotationsPerSec;
+
+  /** Ratio of sensor rotations to mechanism rotations */
+  private final double sensorToMechRatio;
+
+  /**
+   * Creates a CANcoder simulation
+   * 
+   * @param encoder the CANcoder
+   * @param posRotations mechanism position
+   * @param velRotationsPerSec mechanism velocity
+   * @param sensorToMechRatio ratio of sensor rotations to mechanism rotations
+   */
+  public CANcoderSim(
+      CANcoder encoder,
+      DoubleSupplier posRotations,
+      DoubleSupplier velRotationsPerSec,
+      double sensorToMechRatio) {
+
+    this.simState = encoder.getSimState();
+    this.posRotations = posRotations;
+    this.velRotationsPerSec = velRotationsPerSec;
+    this.sensorToMechRatio = sensorToMechRatio;
+  }
+
+  @Override
+  public void readInputs(double batteryVoltage) {}
+
+  @Override
+  public void integrate(double dtSeconds) {}
+
+  @Override
+  public void writeOutputs(double batteryVoltage) {
+    simState.setSupplyVoltage(batteryVoltage);
+    simState.setRawPosition(posRotations.getAsDouble() * sensorToMechRatio);
+    simState.setVelocity(velRotationsPerSec.getAsDouble() * sensorToMechRatio);
+  }
+
+  @Override
+  public double getSupplyCurrent() {
+    return 0.0;
+  }
+}
@@ -0,0 +1,140 @@
+package frc.lib.sim;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+
+/**
+ * Brushless DC motor driving an inertia through a gear ratio, with stator and supply
+ * current limits. All state is primitive so stepping never allocates.
+ */
+public class DCMotorModel {
+
+  /** Motor constants, should describe a single motor */
+  private final DCMotor motor;
+
+  /** Moment of inertia of the mechanism */
+  private final double inertiaKgMetersSquared;
+
+  /** Mechanism position */
+  private double posRotations = 0.0;
+
+  /** Mechanism velocity */
+  private double velRotationsPerSec = 0.0;
+
+  /** Mechanism acceleration */
+  private double accRotationsPerSecPerSec = 0.0;
+
+  /** Stator current after limits */
+  private double statorCurrent = 0.0;
+
+  /** Supply current after limits */
+  private double supplyCurrent = 0.0;
+
+  /**
+   * Creates a motor model
+   * 
+   * @param motor motor constants, should describe a single motor
+   * @param inertiaKgMetersSquared moment of inertia of the mechanism
+   */
+  public DCMotorModel(DCMotor motor, double inertiaKgMetersSquared) {
+    this.motor = motor;
+    this.inertiaKgMetersSquared = inertiaKgMetersSquared;
+  }
+
+  /**
+   * Advances the model by one step
+   * 
+   * @param motorVoltage voltage applied to the motor
+   * @param batteryVoltage battery voltage, used for supply current
+   * @param motorToMechRatio ratio of motor rotations to mechanism rotations
+   * @param statorCurrentLimit stator current limit
+   * @param supplyCurrentLimit supply current limit
+   * @param dtSeconds length of the step
+   */
+  public void step(
+      double motorVoltage,
+      double batteryVoltage,
+      double motorToMechRatio,
+      double statorCurrentLimit,
+      double supplyCurrentLimit,
+      double dtSeconds) {
+
+    double motorRadPerSec = velRotationsPerSec * motorToMechRatio * 2.0 * Math.PI;
+    double current = motor.getCurrent(motorRadPerSec, motorVoltage);
+
+    // Stator limit caps the winding current, supply limit caps the current drawn at this duty
+    double limit = statorCurrentLimit;
+    double duty = batteryVoltage > 0.0 ? Math.abs(motorVoltage) / batteryVoltage : 0.0;
+
+    if (duty > 1e-6) {
+      limit = Math.min(limit, supplyCurrentLimit / duty);
+    }
+
+    current = Math.max(-limit, Math.min(limit, current));
+
+    statorCurrent = current;
+    supplyCurrent = Math.abs(current) * duty;
+
+    double mechTorque = motor.getTorque(current) * motorToMechRatio;
+    accRotationsPerSecPerSec = mechTorque / inertiaKgMetersSquared / (2.0 * Math.PI);
+
+    // Semi-implicit Euler stays stable with the stiff back EMF term at 1 ms steps
+    velRotationsPerSec += accRotationsPerSecPerSec * dtSeconds;
+    posRotations += velRotationsPerSec * dtSeconds;
+  }
+
+  /**
+   * Sets mechanism state
+   * 
+   * @param posRotations mechanism position
+   * @param velRotationsPerSec mechanism velocity
+   */
+  public void setState(double posRotations, double velRotationsPerSec) {
+    this.posRotations = posRotations;
+    this.velRotationsPerSec = velRotationsPerSec;
+  }
+
+  /**
+   * Returns mechanism position
+   * 
+   * @return mechanism position in rotations
+   */
+  public double getPosRotations() {
+    return posRotations;
+  }
+
+  /**
+   * Returns mechanism velocity
+   * 
+   * @return mechanism velocity in rotations per second
+   */
+  public double getVelRotationsPerSec() {
+    return velRotationsPerSec;
+  }
+
+  /**
+   * Returns mechanism acceleration
+   * 
+   * @return mechanism acceleration in rotations per second per second
+   */
+  public double getAccRotationsPerSecPerSec() {
+    return accRotationsPerSecPerSec;
+  }
+
+  /**
+   * Returns stator current
+   * 
+   * @return stator current in amps
+   */
+  public double getStatorCurrent() {
+    return statorCurrent;
+  }
+
+  /**
+   * Returns supply current
+   * 
+   * @return supply current in amps
+   */
+  public double getSupplyCurrent() {
+    return supplyCurrent;
+  }
+}
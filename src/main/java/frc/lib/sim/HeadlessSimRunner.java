@@ -0,0 +1,238 @@
+package frc.lib.sim;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Runs a robot with simulated time and no GUI or Driver Station. Time only advances when
+ * step() is called, and each step waits until the robot calls signalLoopDone() at the end
+ * of its loop, so a run is as fast as the CPU allows and gives the same result every time.
+ * Simulated TalonFX closed loops are emulated by TalonFXSim on simulated time, so they do not
+ * depend on the Phoenix firmware running on the wall clock.
+ */
+public class HeadlessSimRunner implements AutoCloseable {
+
+  /** Robot mode set through the simulated Driver Station */
+  public enum Mode {
+    /** Disabled */
+    DISABLED,
+    /** Enabled in autonomous */
+    AUTONOMOUS,
+    /** Enabled in teleop */
+    TELEOP
+  }
+
+  /** Called once per loop while running */
+  @FunctionalInterface
+  public interface LoopCallback {
+
+    /**
+     * Runs after a robot loop
+     * 
+     * @param timeSeconds simulated time since the runner started
+     */
+    void afterLoop(double timeSeconds);
+  }
+
+  /** Longest wall clock wait for one robot loop */
+  private static final long LOOP_TIMEOUT_MILLIS = 5000;
+
+  /** Released at the end of every robot loop while a runner is started */
+  private static final Semaphore loopDone = new Semaphore(0);
+
+  /** True while a runner is started, so a robot run without one does not pile up permits */
+  private static volatile boolean active = false;
+
+  /** Creates the robot */
+  private final Supplier<? extends TimedRobot> robotFactory;
+
+  /** The robot, created by start() */
+  private TimedRobot robot;
+
+  /** Thread running the robot loop */
+  private Thread robotThread;
+
+  /** Simulated time at start() */
+  private double startSeconds = 0.0;
+
+  /** Simulated seconds per wall clock second, 0 runs as fast as possible */
+  private double realTimeFactor = 0.0;
+
+  /**
+   * Creates a runner
+   * 
+   * @param robotFactory creates the robot
+   */
+  public HeadlessSimRunner(Supplier<? extends TimedRobot> robotFactory) {
+    this.robotFactory = robotFactory;
+  }
+
+  /** 
+   * Marks the end of a robot loop, should be called last in simulationPeriodic. 
+   * Does nothing unless a runner is started.
+   */
+  public static void signalLoopDone() {
+    if (active) {
+      loopDone.release();
+    }
+  }
+
+  /**
+   * Starts the robot disabled with simulated time paused
+   * 
+   * @return this runner
+   */
+  public HeadlessSimRunner start() {
+    if (!HAL.initialize(500, 0)) {
+      throw new IllegalStateException("Failed to initialize the HAL");
+    }
+
+    SimHooks.pauseTiming();
+    DriverStationSim.setDsAttached(true);
+    setMode(Mode.DISABLED);
+
+    loopDone.drainPermits();
+    active = true;
+
+    robot = robotFactory.get();
+    robotThread = new Thread(robot::startCompetition, "HeadlessSimRobot");
+    robotThread.setDaemon(true);
+    robotThread.start();
+
+    // The robot is ready once it reports the program started, right before its first loop
+    SimHooks.waitForProgramStart();
+    startSeconds = Timer.getFPGATimestamp();
+
+    return this;
+  }
+
+  /**
+   * Sets the robot mode and enables the robot unless disabled
+   * 
+   * @param mode robot mode
+   */
+  public void setMode(Mode mode) {
+    DriverStationSim.setEnabled(mode != Mode.DISABLED);
+    DriverStationSim.setAutonomous(mode == Mode.AUTONOMOUS);
+    DriverStationSim.setTest(false);
+    DriverStationSim.notifyNewData();
+  }
+
+  /**
+   * Sets how fast simulated time runs compared to the wall clock
+   * 
+   * @param realTimeFactor simulated seconds per wall clock second, 0 runs as fast as possible
+   */
+  public void setRealTimeFactor(double realTimeFactor) {
+    this.realTimeFactor = realTimeFactor;
+  }
+
+  /** Advances simulated time by one robot loop and waits for the loop to finish */
+  public void step() {
+    long startNanos = System.nanoTime();
+
+    SimHooks.stepTiming(robot.getPeriod());
+
+    try {
+      if (!loopDone.tryAcquire(LOOP_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        throw new IllegalStateException(
+          "Robot loop did not finish within " + LOOP_TIMEOUT_MILLIS + " ms, "
+            + "simulationPeriodic must call HeadlessSimRunner.signalLoopDone()");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+
+    if (realTimeFactor > 0.0) {
+      long targetNanos = (long) (robot.getPeriod() / realTimeFactor * 1e9);
+      long remainingNanos = targetNanos - (System.nanoTime() - startNanos);
+
+      if (remainingNanos > 0) {
+        try {
+          Thread.sleep(remainingNanos / 1_000_000, (int) (remainingNanos % 1_000_000));
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  /**
+   * Runs the robot for a length of simulated time
+   * 
+   * @param seconds simulated time to run for
+   * @param callback called after every loop, for recording or checking state
+   * @return number of loops run
+   */
+  public int run(double seconds, LoopCallback callback) {
+    int loops = (int) Math.round(seconds / robot.getPeriod());
+
+    for (int i = 0; i < loops; i++) {
+      step();
+      callback.afterLoop(getTimeSeconds());
+    }
+
+    return loops;
+  }
+
+  /**
+   * Runs the robot for a length of simulated time
+   * 
+   * @param seconds simulated time to run for
+   * @return number of loops run
+   */
+  public int run(double seconds) {
+    return run(seconds, timeSeconds -> {});
+  }
+
+  /**
+   * Returns simulated time since the runner started
+   * 
+   * @return simulated time since the runner started in seconds
+   */
+  public double getTimeSeconds() {
+    return Timer.getFPGATimestamp() - startSeconds;
+  }
+
+  /**
+   * Returns the robot
+   * 
+   * @return the robot
+   */
+  public TimedRobot getRobot() {
+    return robot;
+  }
+
+  /** Stops the robot loop and resumes real time */
+  @Override
+  public void close() {
+    active = false;
+
+    if (robot != null) {
+      setMode(Mode.DISABLED);
+      robot.endCompetition();
+      SimHooks.stepTiming(robot.getPeriod());
+
+      try {
+        robotThread.join(1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+
+      robot.close();
+      CommandScheduler.getInstance().unregisterAllSubsystems();
+      CommandScheduler.getInstance().cancelAll();
+    }
+
+    SimHooks.resumeTiming();
+  }
+}
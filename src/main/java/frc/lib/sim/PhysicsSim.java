@@ -0,0 +1,97 @@
+package frc.lib.sim;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+
+/**
+ * Steps every simulated device with a fixed substep so results do not depend on how long
+ * the loop actually took, which lets a sim run faster than real time and repeat exactly
+ */
+public class PhysicsSim {
+
+  /** Length of a substep */
+  public static final double STEP_SECONDS = 0.001;
+
+  /** Battery voltage with no load */
+  private static final double BATTERY_NOMINAL_VOLTS = 12.5;
+
+  /** Battery and wiring resistance, used for voltage sag */
+  private static final double BATTERY_RESISTANCE_OHMS = 0.02;
+
+  /** Lowest battery voltage, keeps a shorted sim from going negative */
+  private static final double BATTERY_MIN_VOLTS = 6.0;
+
+  /** Every simulated device, only reallocated when a device is added */
+  private static SimulatedDevice[] devices = new SimulatedDevice[0];
+
+  /** Time not yet simulated because it was shorter than a substep */
+  private static double remainderSeconds = 0.0;
+
+  /** Battery voltage after the last step */
+  private static double batteryVoltage = BATTERY_NOMINAL_VOLTS;
+
+  /**
+   * Adds a device to the simulation
+   * 
+   * @param device the device
+   */
+  public static synchronized void add(SimulatedDevice device) {
+    devices = Arrays.copyOf(devices, devices.length + 1);
+    devices[devices.length - 1] = device;
+  }
+
+  /**
+   * Advances the simulation, should be called once per loop from simulationPeriodic
+   * 
+   * @param dtSeconds time to advance
+   */
+  public static synchronized void step(double dtSeconds) {
+    for (int i = 0; i < devices.length; i++) {
+      devices[i].readInputs(batteryVoltage);
+    }
+
+    remainderSeconds += dtSeconds;
+
+    while (remainderSeconds >= STEP_SECONDS - 1e-9) {
+      for (int i = 0; i < devices.length; i++) {
+        devices[i].integrate(STEP_SECONDS);
+      }
+
+      remainderSeconds -= STEP_SECONDS;
+    }
+
+    double totalCurrent = 0.0;
+
+    for (int i = 0; i < devices.length; i++) {
+      totalCurrent += devices[i].getSupplyCurrent();
+    }
+
+    batteryVoltage = Math.max(
+      BATTERY_NOMINAL_VOLTS - totalCurrent * BATTERY_RESISTANCE_OHMS,
+      BATTERY_MIN_VOLTS);
+    RoboRioSim.setVInVoltage(batteryVoltage);
+
+    for (int i = 0; i < devices.length; i++) {
+      devices[i].writeOutputs(batteryVoltage);
+    }
+  }
+
+  /**
+   * Returns simulated battery voltage
+   * 
+   * @return simulated battery voltage
+   */
+  public static synchronized double getBatteryVoltage() {
+    return batteryVoltage;
+  }
+
+  /**
+   * Returns number of simulated devices
+   * 
+   * @return number of simulated devices
+   */
+  public static synchronized int getDeviceCount() {
+    return devices.length;
+  }
+}
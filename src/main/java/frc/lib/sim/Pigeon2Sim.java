@@ -0,0 +1,82 @@
+package frc.lib.sim;
+
+import java.util.function.DoubleSupplier;
+
+import com.ctre.phoenix6.hardware.Pigeon2;
+import com.ctre.phoenix6.sim.Pigeon2SimState;
+
+/** Drives a Pigeon 2 sim state by integrating the simulated chassis rotation speed */
+public class Pigeon2Sim implements SimulatedDevice {
+
+  /** Sim state of the Pigeon 2 */
+  private final Pigeon2SimState simState;
+
+  /** Chassis rotation speed, counterclockwise positive */
+  private final DoubleSupplier omegaRadiansPerSec;
+
+  /** Rotation speed read at the start of the step */
+  private double omegaDegreesPerSec = 0.0;
+
+  /** Integrated yaw */
+  private double yawDegrees = 0.0;
+
+  /**
+   * Creates a Pigeon 2 simulation
+   * 
+   * @param pigeon2 the Pigeon 2
+   * @param omegaRadiansPerSec chassis rotation speed, counterclockwise positive
+   */
+  public Pigeon2Sim(Pigeon2 pigeon2, DoubleSupplier omegaRadiansPerSec) {
+    this.simState = pigeon2.getSimState();
+    this.omegaRadiansPerSec = omegaRadiansPerSec;
+  }
+
+  @Override
+  public void readInputs(double batteryVoltage) {
+    omegaDegreesPerSec = Math.toDegrees(omegaRadiansPerSec.getAsDouble());
+  }
+
+  @Override
+  public void integrate(double dtSeconds) {
+    yawDegrees += omegaDegreesPerSec * dtSeconds;
+  }
+
+  @Override
+  public void writeOutputs(double batteryVoltage) {
+    simState.setSupplyVoltage(batteryVoltage);
+    simState.setRawYaw(yawDegrees);
+    simState.setAngularVelocityZ(omegaDegreesPerSec);
+  }
+
+  @Override
+  public double getSupplyCurrent() {
+    return 0.0;
+  }
+
+  /**
+   * Sets integrated yaw, mirrors setting yaw on the Pigeon 2
+   * 
+   * @param yawDegrees new yaw in degrees
+   */
+  public void setYawDegrees(double yawDegrees) {
+    this.yawDegrees = yawDegrees;
+  }
+
+  /**
+   * Returns integrated yaw
+   * 
+   * @return integrated yaw in degrees
+   */
+  public double getYawDegrees() {
+    return yawDegrees;
+  }
+
+  /**
+   * Returns rotation speed of the last step
+   * 
+   * @return rotation speed in degrees per second
+   */
+  public double getYawRateDegreesPerSec() {
+    return omegaDegreesPerSec;
+  }
+}
@@ -0,0 +1,87 @@
+package frc.lib.sim;
+
+/** General interface for scripted simulation scenarios run by the headless sim runner */
+public abstract class SimScenario {
+
+  /** Scenario name, used in reports */
+  private final String name;
+
+  /**
+   * Creates a scenario
+   *
+   * @param name scenario name
+   */
+  protected SimScenario(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Returns scenario name
+   *
+   * @return scenario name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Runs the scenario, throwing an AssertionError if it fails
+   *
+   * @param runner a started runner
+   */
+  public abstract void run(HeadlessSimRunner runner);
+
+  /**
+   * Fails the scenario if a value is too far from what is expected
+   *
+   * @param what description of the value
+   * @param actual actual value
+   * @param expected expected value
+   * @param tolerance largest allowed difference
+   */
+  protected static void assertNear(String what, double actual, double expected, double tolerance) {
+    if (!(Math.abs(actual - expected) <= tolerance)) {
+      throw new AssertionError(
+        what + " was " + actual + ", expected " + expected + " +/- " + tolerance);
+    }
+  }
+
+  /**
+   * Fails the scenario if a condition does not hold
+   *
+   * @param what description of the condition
+   * @param condition the condition
+   */
+  protected static void assertTrue(String what, boolean condition) {
+    if (!condition) {
+      throw new AssertionError(what);
+    }
+  }
+
+  /**
+   * Fails the scenario if a value ever left a band after some time
+   *
+   * @param what description of the value
+   * @param timesSeconds sample times
+   * @param values sample values
+   * @param count number of valid samples
+   * @param afterSeconds time the band starts at
+   * @param expected center of the band
+   * @param tolerance half width of the band
+   */
+  protected static void assertSettled(
+      String what,
+      double[] timesSeconds,
+      double[] values,
+      int count,
+      double afterSeconds,
+      double expected,
+      double tolerance) {
+
+    for (int i = 0; i < count; i++) {
+      if (timesSeconds[i] >= afterSeconds) {
+        assertNear(what + " at " + timesSeconds[i] + " s", values[i], expected, tolerance);
+      }
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package frc.lib.sim;
+
+/**
+ * General interface for simulated devices stepped by the physics sim.
+ * Every step reads inputs once, integrates in fixed substeps, then writes outputs once.
+ */
+public interface SimulatedDevice {
+
+  /**
+   * Reads what the device is commanded to do
+   * 
+   * @param batteryVoltage current battery voltage
+   */
+  void readInputs(double batteryVoltage);
+
+  /**
+   * Advances the model by one fixed substep
+   * 
+   * @param dtSeconds length of the substep
+   */
+  void integrate(double dtSeconds);
+
+  /**
+   * Writes the model state back to the device
+   * 
+   * @param batteryVoltage current battery voltage
+   */
+  void writeOutputs(double batteryVoltage);
+
+  /**
+   * Returns current drawn from the battery
+   * 
+   * @return current drawn from the battery in amps
+   */
+  double getSupplyCurrent();
+}
@@ -0,0 +1,392 @@
+package frc.lib.sim;
+
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import com.ctre.phoenix6.controls.ControlRequest;
+import com.ctre.phoenix6.controls.MotionMagicExpoVoltage;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.VelocityTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.controls.VoltageOut;
+import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.GravityTypeValue;
+import com.ctre.phoenix6.sim.TalonFXSimState;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.DriverStation;
+import frc.lib.configs.ControlledMotorConfig;
+
+/**
+ * Drives a TalonFX sim state from a DC motor model. Ratio, stator limit and gains are read
+ * from the motor config every step so reconfiguring the motor changes the simulation too,
+ * and the supply limit in use is read every step so managed limit overrides apply.
+ * The TalonFX's onboard control of the last request is emulated at every substep, because the
+ * simulated firmware runs on the wall clock and would fall behind a sim faster than real time.
+ * Motion Magic Expo requests follow the trapezoidal profile.
+ */
+public class TalonFXSim implements SimulatedDevice {
+
+  /** Kinds of onboard control emulated */
+  private enum Mode {
+    /** No known request, the firmware's output is used */
+    FIRMWARE,
+    /** Open loop voltage */
+    VOLTAGE,
+    /** Position closed loop */
+    POSITION,
+    /** Position closed loop following a trapezoidal profile */
+    MOTION_MAGIC,
+    /** Velocity closed loop, gains in volts */
+    VELOCITY,
+    /** Velocity closed loop, gains in amps */
+    VELOCITY_TORQUE_CURRENT
+  }
+
+  /** Sim state of the TalonFX */
+  private final TalonFXSimState simState;
+
+  /** Motor constants, used to turn torque current into voltage */
+  private final DCMotor motor;
+
+  /** Motor model */
+  private final DCMotorModel model;
+
+  /** Current motor config */
+  private final Supplier<ControlledMotorConfig> config;
+
+  /** Supply current limit in use */
+  private final DoubleSupplier supplyCurrentLimit;
+
+  /** How kG is applied */
+  private final GravityTypeValue gravityType;
+
+  /** Last control request sent, null until one is sent */
+  private ControlRequest request = null;
+
+  /** Request fields read at the start of the step */
+  private Mode mode = Mode.FIRMWARE;
+  private double targetPos = 0.0;
+  private double targetVel = 0.0;
+  private double targetAcc = 0.0;
+  private double feedForward = 0.0;
+
+  /** Emulated Motion Magic profile state */
+  private double profilePos = 0.0;
+  private double profileVel = 0.0;
+
+  /** Accumulated closed loop error */
+  private double errorIntegral = 0.0;
+
+  /** Closed loop error of the last substep, NaN right after a reset */
+  private double lastError = Double.NaN;
+
+  /** Voltage applied to the motor during the last substep */
+  private double motorVoltage = 0.0;
+
+  /** Battery voltage at the start of the step */
+  private double batteryVoltage = 12.0;
+
+  /**
+   * Creates a TalonFX simulation
+   * 
+   * @param talonFX the TalonFX
+   * @param motor motor constants, should describe a single motor
+   * @param inertiaKgMetersSquared moment of inertia of the mechanism
+   * @param config current motor config
+   * @param supplyCurrentLimit supply current limit in use, which may override the config's
+   * @param gravityType how kG is applied
+   */
+  public TalonFXSim(
+      TalonFX talonFX,
+      DCMotor motor,
+      double inertiaKgMetersSquared,
+      Supplier<ControlledMotorConfig> config,
+      DoubleSupplier supplyCurrentLimit,
+      GravityTypeValue gravityType) {
+
+    this.simState = talonFX.getSimState();
+    this.motor = motor;
+    this.model = new DCMotorModel(motor, inertiaKgMetersSquared);
+    this.config = config;
+    this.supplyCurrentLimit = supplyCurrentLimit;
+    this.gravityType = gravityType;
+  }
+
+  /**
+   * Records the control request sent to the TalonFX, its fields are read every step
+   * 
+   * @param request the control request, reused between calls
+   */
+  public void setControl(ControlRequest request) {
+    this.request = request;
+  }
+
+  @Override
+  public void readInputs(double batteryVoltage) {
+    this.batteryVoltage = batteryVoltage;
+    simState.setSupplyVoltage(batteryVoltage);
+
+    Mode lastMode = mode;
+    readRequest();
+
+    if (mode != lastMode) {
+      errorIntegral = 0.0;
+      lastError = Double.NaN;
+      profilePos = model.getPosRotations();
+      profileVel = model.getVelRotationsPerSec();
+    }
+
+    if (mode == Mode.FIRMWARE) {
+      motorVoltage = simState.getMotorVoltage();
+    }
+  }
+
+  /** Reads the fields of the last control request */
+  private void readRequest() {
+    feedForward = 0.0;
+    targetVel = 0.0;
+    targetAcc = 0.0;
+
+    if (request instanceof VoltageOut voltageOut) {
+      mode = Mode.VOLTAGE;
+      feedForward = voltageOut.Output;
+    } else if (request instanceof PositionVoltage position) {
+      mode = Mode.POSITION;
+      targetPos = position.Position;
+      targetVel = position.Velocity;
+      feedForward = position.FeedForward;
+    } else if (request instanceof MotionMagicVoltage motionMagic) {
+      mode = Mode.MOTION_MAGIC;
+      targetPos = motionMagic.Position;
+      feedForward = motionMagic.FeedForward;
+    } else if (request instanceof MotionMagicExpoVoltage motionMagicExpo) {
+      mode = Mode.MOTION_MAGIC;
+      targetPos = motionMagicExpo.Position;
+      feedForward = motionMagicExpo.FeedForward;
+    } else if (request instanceof VelocityVoltage velocity) {
+      mode = Mode.VELOCITY;
+      targetVel = velocity.Velocity;
+      targetAcc = velocity.Acceleration;
+      feedForward = velocity.FeedForward;
+    } else if (request instanceof VelocityTorqueCurrentFOC velocityTorque) {
+      mode = Mode.VELOCITY_TORQUE_CURRENT;
+      targetVel = velocityTorque.Velocity;
+      targetAcc = velocityTorque.Acceleration;
+      feedForward = velocityTorque.FeedForward;
+    } else {
+      mode = Mode.FIRMWARE;
+    }
+  }
+
+  @Override
+  public void integrate(double dtSeconds) {
+    ControlledMotorConfig current = config.get();
+
+    if (mode != Mode.FIRMWARE && DriverStation.isEnabled()) {
+      motorVoltage = control(current, dtSeconds);
+    } else if (mode != Mode.FIRMWARE) {
+      // Disabled outputs are neutral, and control starts over from the mechanism once enabled
+      motorVoltage = 0.0;
+      errorIntegral = 0.0;
+      lastError = Double.NaN;
+      profilePos = model.getPosRotations();
+      profileVel = model.getVelRotationsPerSec();
+    }
+
+    model.step(
+      motorVoltage,
+      batteryVoltage,
+      current.motorToMechRatio(),
+      current.statorCurrentLimit(),
+      supplyCurrentLimit.getAsDouble(),
+      dtSeconds);
+  }
+
+  /**
+   * Runs one substep of the emulated onboard control
+   * 
+   * @param current current motor config
+   * @param dtSeconds length of the substep
+   * @return voltage applied to the motor
+   */
+  private double control(ControlledMotorConfig current, double dtSeconds) {
+    double pos = model.getPosRotations();
+    double vel = model.getVelRotationsPerSec();
+    double output;
+
+    switch (mode) {
+      case VOLTAGE:
+        output = feedForward;
+        break;
+      case MOTION_MAGIC:
+        stepProfile(current, dtSeconds);
+        output = positionOutput(current, profilePos, profileVel, pos, vel, dtSeconds);
+        break;
+      case POSITION:
+        output = positionOutput(current, targetPos, targetVel, pos, vel, dtSeconds);
+        break;
+      case VELOCITY:
+        output = velocityOutput(current, vel, dtSeconds);
+        break;
+      case VELOCITY_TORQUE_CURRENT:
+        output = torqueCurrentVolts(
+          velocityOutput(current, vel, dtSeconds), vel * current.motorToMechRatio());
+        break;
+      default:
+        output = 0.0;
+        break;
+    }
+
+    return Math.max(-batteryVoltage, Math.min(batteryVoltage, output));
+  }
+
+  /**
+   * Returns the position closed loop output
+   * 
+   * @param current current motor config
+   * @param setpointPos position setpoint
+   * @param setpointVel velocity setpoint
+   * @param pos mechanism position
+   * @param vel mechanism velocity
+   * @param dtSeconds length of the substep
+   * @return closed loop output in volts
+   */
+  private double positionOutput(
+      ControlledMotorConfig current,
+      double setpointPos,
+      double setpointVel,
+      double pos,
+      double vel,
+      double dtSeconds) {
+
+    double error = setpointPos - pos;
+
+    // Continuous wrap closes the loop across one mechanism rotation the short way
+    if (current.continuous()) {
+      error -= Math.floor(error + 0.5);
+    }
+
+    errorIntegral += error * dtSeconds;
+
+    return current.kP() * error
+      + current.kI() * errorIntegral
+      + current.kD() * (setpointVel - vel)
+      + current.kS() * Math.signum(setpointVel)
+      + current.kV() * setpointVel
+      + gravity(current, pos)
+      + feedForward;
+  }
+
+  /**
+   * Returns the velocity closed loop output, in volts or amps depending on the request
+   * 
+   * @param current current motor config
+   * @param vel mechanism velocity
+   * @param dtSeconds length of the substep
+   * @return closed loop output
+   */
+  private double velocityOutput(ControlledMotorConfig current, double vel, double dtSeconds) {
+    double error = targetVel - vel;
+
+    errorIntegral += error * dtSeconds;
+    double errorRate = Double.isNaN(lastError) ? 0.0 : (error - lastError) / dtSeconds;
+    lastError = error;
+
+    return current.kP() * error
+      + current.kI() * errorIntegral
+      + current.kD() * errorRate
+      + current.kS() * Math.signum(targetVel)
+      + current.kV() * targetVel
+      + current.kA() * targetAcc
+      + gravity(current, model.getPosRotations())
+      + feedForward;
+  }
+
+  /**
+   * Returns the gravity feedforward
+   * 
+   * @param current current motor config
+   * @param pos mechanism position
+   * @return gravity feedforward
+   */
+  private double gravity(ControlledMotorConfig current, double pos) {
+    return gravityType == GravityTypeValue.Arm_Cosine
+      ? current.kG() * Math.cos(pos * 2.0 * Math.PI)
+      : current.kG();
+  }
+
+  /**
+   * Returns the voltage that drives a torque current at the motor's speed
+   * 
+   * @param amps torque current
+   * @param motorRotationsPerSec motor speed
+   * @return voltage across the motor
+   */
+  private double torqueCurrentVolts(double amps, double motorRotationsPerSec) {
+    return amps * motor.rOhms + motorRotationsPerSec * 2.0 * Math.PI / motor.KvRadPerSecPerVolt;
+  }
+
+  /**
+   * Steps the emulated trapezoidal profile toward the target position by one substep
+   * 
+   * @param current current motor config, maxVelocity and maxAcceleration are the limits
+   * @param dtSeconds length of the substep
+   */
+  private void stepProfile(ControlledMotorConfig current, double dtSeconds) {
+    double maxVel = current.maxVelocity();
+    double maxAcc = current.maxAcceleration();
+    double error = targetPos - profilePos;
+
+    if (current.continuous()) {
+      error -= Math.floor(error + 0.5);
+    }
+
+    double velStep = maxAcc * dtSeconds;
+
+    // Land on the target once the last step fits, instead of dithering around it
+    if (Math.abs(error) <= velStep * dtSeconds && Math.abs(profileVel) <= velStep) {
+      profilePos += error;
+      profileVel = 0.0;
+      return;
+    }
+
+    double desiredVel =
+      Math.signum(error) * Math.min(maxVel, Math.sqrt(2.0 * maxAcc * Math.abs(error)));
+    profileVel += Math.max(-velStep, Math.min(velStep, desiredVel - profileVel));
+    profilePos += profileVel * dtSeconds;
+  }
+
+  @Override
+  public void writeOutputs(double batteryVoltage) {
+    double ratio = config.get().motorToMechRatio();
+
+    simState.setRawRotorPosition(model.getPosRotations() * ratio);
+    simState.setRotorVelocity(model.getVelRotationsPerSec() * ratio);
+    simState.setRotorAcceleration(model.getAccRotationsPerSecPerSec() * ratio);
+  }
+
+  @Override
+  public double getSupplyCurrent() {
+    return model.getSupplyCurrent();
+  }
+
+  /**
+   * Returns voltage applied to the motor during the last substep
+   * 
+   * @return voltage applied to the motor
+   */
+  public double getMotorVoltage() {
+    return motorVoltage;
+  }
+
+  /**
+   * Returns motor model, for sensors that follow the mechanism
+   * 
+   * @return motor model
+   */
+  public DCMotorModel getModel() {
+    return model;
+  }
+}
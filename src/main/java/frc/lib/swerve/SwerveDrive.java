@@ -0,0 +1,241 @@
+package frc.lib.swerve;
+
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.timing.LoopTimer;
+import frc.lib.timing.LoopTiming;
+
+/** 
+ * Swerve drivetrain. The per-loop path writes into preallocated state arrays 
+ * instead of creating a new SwerveModuleState array every loop.
+ */
+public class SwerveDrive extends SubsystemBase {
+
+  /** Time spent computing and sending module states */
+  private static final LoopTimer driveTimer = LoopTiming.create("SwerveDrive.drive", 0.002);
+
+  /** Modules, in the same order as their translations */
+  private final SwerveModule[] modules;
+
+  /** Kinematics for the module layout */
+  private final SwerveKinematics kinematics;
+
+  /** Max module speed */
+  private final double maxSpeedMetersPerSec;
+
+  /** Reused module speeds */
+  private final double[] speedsMetersPerSec;
+
+  /** Reused module angles, keep their last value while stopped */
+  private final double[] anglesRotations;
+
+  /** Reused module accelerations, only written by the setpoint generator */
+  private final double[] accelsMetersPerSecPerSec;
+
+  /** Reused measured module speeds and angles */
+  private final double[] measuredSpeedsMetersPerSec;
+  private final double[] measuredAnglesRotations;
+
+  /** Reused measured chassis speeds, forward, left and counterclockwise radians */
+  private final double[] measuredChassisSpeeds = new double[3];
+
+  /** Limits how fast module setpoints change, null drives straight to the desired speeds */
+  private SwerveSetpointGenerator setpointGenerator = null;
+
+  /** Whether the robot was enabled last loop, used to catch the enable edge */
+  private boolean wasEnabled = false;
+
+  /**
+   * Creates a swerve drivetrain
+   * 
+   * @param modules modules
+   * @param moduleTranslations module positions relative to robot center in meters, 
+   *     in the same order as the modules
+   * @param maxSpeedMetersPerSec max module speed
+   */
+  public SwerveDrive(
+      SwerveModule[] modules, 
+      Translation2d[] moduleTranslations, 
+      double maxSpeedMetersPerSec) {
+    
+    this.modules = modules;
+    this.kinematics = new SwerveKinematics(moduleTranslations);
+    this.maxSpeedMetersPerSec = maxSpeedMetersPerSec;
+
+    speedsMetersPerSec = new double[modules.length];
+    anglesRotations = new double[modules.length];
+    accelsMetersPerSecPerSec = new double[modules.length];
+    measuredSpeedsMetersPerSec = new double[modules.length];
+    measuredAnglesRotations = new double[modules.length];
+
+    for (int i = 0; i < modules.length; i++) {
+      anglesRotations[i] = modules[i].getAngleRotations();
+    }
+  }
+
+  @Override
+  public void periodic() {
+    for (int i = 0; i < modules.length; i++) {
+      modules[i].periodic();
+    }
+
+    // The wheels may have been pushed while disabled, so start from what they measure
+    boolean enabled = DriverStation.isEnabled();
+
+    if (enabled && !wasEnabled) {
+      resetSetpoint();
+    }
+
+    wasEnabled = enabled;
+  }
+
+  /**
+   * Drives the robot relative to itself
+   * 
+   * @param vxMetersPerSec forward speed
+   * @param vyMetersPerSec left speed
+   * @param omegaRadiansPerSec counterclockwise rotation speed
+   */
+  public void drive(double vxMetersPerSec, double vyMetersPerSec, double omegaRadiansPerSec) {
+    long start = driveTimer.start();
+
+    if (setpointGenerator != null) {
+      setpointGenerator.generate(
+        vxMetersPerSec,
+        vyMetersPerSec,
+        omegaRadiansPerSec,
+        speedsMetersPerSec,
+        anglesRotations,
+        accelsMetersPerSecPerSec);
+
+      for (int i = 0; i < modules.length; i++) {
+        modules[i].setDesiredState(
+          speedsMetersPerSec[i], anglesRotations[i], accelsMetersPerSecPerSec[i]);
+      }
+
+      driveTimer.stop(start);
+      return;
+    }
+
+    kinematics.toModuleStates(
+      vxMetersPerSec, 
+      vyMetersPerSec, 
+      omegaRadiansPerSec, 
+      speedsMetersPerSec, 
+      anglesRotations);
+
+    SwerveKinematics.desaturate(speedsMetersPerSec, maxSpeedMetersPerSec);
+
+    for (int i = 0; i < modules.length; i++) {
+      modules[i].setDesiredState(speedsMetersPerSec[i], anglesRotations[i]);
+    }
+
+    driveTimer.stop(start);
+  }
+
+  /**
+   * Drives the robot relative to the field
+   * 
+   * @param vxMetersPerSec speed away from the driver station
+   * @param vyMetersPerSec speed to the left of the driver station
+   * @param omegaRadiansPerSec counterclockwise rotation speed
+   * @param headingRadians robot heading, counterclockwise positive
+   */
+  public void driveFieldRelative(
+      double vxMetersPerSec, 
+      double vyMetersPerSec, 
+      double omegaRadiansPerSec, 
+      double headingRadians) {
+    
+    double cos = Math.cos(headingRadians);
+    double sin = Math.sin(headingRadians);
+
+    drive(
+      vxMetersPerSec * cos + vyMetersPerSec * sin,
+      -vxMetersPerSec * sin + vyMetersPerSec * cos,
+      omegaRadiansPerSec);
+  }
+
+  /** Stops every module, keeping its angle */
+  public void stop() {
+    for (int i = 0; i < modules.length; i++) {
+      modules[i].setDesiredState(0.0, anglesRotations[i]);
+    }
+  }
+
+  /** Resets the setpoint generator to the measured chassis speeds, if there is one */
+  public void resetSetpoint() {
+    if (setpointGenerator == null) {
+      return;
+    }
+
+    double[] measured = getMeasuredChassisSpeeds();
+    setpointGenerator.reset(measured[0], measured[1], measured[2]);
+  }
+
+  /**
+   * Returns the robot-relative chassis speeds that best fit the measured module speeds,
+   * the returned array is reused by the next call
+   * 
+   * @return forward and left speeds in meters per second and counterclockwise rotation speed
+   *     in radians per second
+   */
+  public double[] getMeasuredChassisSpeeds() {
+    for (int i = 0; i < modules.length; i++) {
+      measuredSpeedsMetersPerSec[i] = modules[i].getDriveVelMetersPerSec();
+      measuredAnglesRotations[i] = modules[i].getAngleRotations();
+    }
+
+    kinematics.toChassisDelta(
+      measuredSpeedsMetersPerSec, measuredAnglesRotations, measuredChassisSpeeds);
+
+    return measuredChassisSpeeds;
+  }
+
+  /**
+   * Returns the chassis rotation speed that best fits the measured module speeds
+   * 
+   * @return counterclockwise rotation speed in radians per second
+   */
+  public double getMeasuredOmegaRadiansPerSec() {
+    return getMeasuredChassisSpeeds()[2];
+  }
+
+  /**
+   * Sets the setpoint generator used by drive, null drives straight to the desired speeds
+   * 
+   * @param setpointGenerator setpoint generator for the module layout
+   */
+  public void setSetpointGenerator(SwerveSetpointGenerator setpointGenerator) {
+    this.setpointGenerator = setpointGenerator;
+    resetSetpoint();
+  }
+
+  /**
+   * Returns modules
+   * 
+   * @return modules
+   */
+  public SwerveModule[] getModules() {
+    return modules;
+  }
+
+  /**
+   * Returns kinematics for the module layout
+   * 
+   * @return kinematics for the module layout
+   */
+  public SwerveKinematics getKinematics() {
+    return kinematics;
+  }
+
+  /**
+   * Returns max module speed
+   * 
+   * @return max module speed in meters per second
+   */
+  public double getMaxSpeedMetersPerSec() {
+    return maxSpeedMetersPerSec;
+  }
+}
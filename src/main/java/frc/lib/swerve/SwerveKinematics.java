@@ -0,0 +1,228 @@
+package frc.lib.swerve;
+
+import edu.wpi.first.math.geometry.Translation2d;
+
+/** 
+ * Swerve kinematics on primitive arrays. Unlike WPILib's SwerveDriveKinematics, 
+ * results are written into caller-owned arrays so the per-loop path does not allocate.
+ * Angles are in rotations.
+ */
+public class SwerveKinematics {
+
+  /** Speeds below this are treated as stopped and keep their previous angle */
+  private static final double STOPPED_SPEED_METERS_PER_SEC = 1e-4;
+
+  /** Module x positions relative to robot center */
+  private final double[] moduleX;
+
+  /** Module y positions relative to robot center */
+  private final double[] moduleY;
+
+  /** 
+   * Least squares pseudo-inverse of the inverse kinematics, 3 rows of 2 entries per module, 
+   * maps module x and y displacements to chassis x, y and rotation
+   */
+  private final double[] forwardMatrix;
+
+  /**
+   * Creates swerve kinematics
+   * 
+   * @param moduleTranslations module positions relative to robot center in meters
+   */
+  public SwerveKinematics(Translation2d... moduleTranslations) {
+    moduleX = new double[moduleTranslations.length];
+    moduleY = new double[moduleTranslations.length];
+
+    for (int i = 0; i < moduleTranslations.length; i++) {
+      moduleX[i] = moduleTranslations[i].getX();
+      moduleY[i] = moduleTranslations[i].getY();
+    }
+
+    forwardMatrix = createForwardMatrix(moduleX, moduleY);
+  }
+
+  /**
+   * Creates the pseudo-inverse (A^T A)^-1 A^T of the inverse kinematics A, 
+   * where module i has rows [1, 0, -y] and [0, 1, x]
+   * 
+   * @param moduleX module x positions
+   * @param moduleY module y positions
+   * @return the pseudo-inverse, row major with 2 entries per module per row
+   */
+  private static double[] createForwardMatrix(double[] moduleX, double[] moduleY) {
+    int n = moduleX.length;
+
+    double sumX = 0.0;
+    double sumY = 0.0;
+    double sumSquares = 0.0;
+
+    for (int i = 0; i < n; i++) {
+      sumX += moduleX[i];
+      sumY += moduleY[i];
+      sumSquares += moduleX[i] * moduleX[i] + moduleY[i] * moduleY[i];
+    }
+
+    // A^T A, symmetric
+    double a = n;
+    double c = -sumY;
+    double e = sumX;
+    double f = sumSquares;
+
+    // Inverse of [[a, 0, c], [0, a, e], [c, e, f]] by cofactors
+    double det = a * (a * f - e * e) + c * (-a * c);
+
+    double i00 = (a * f - e * e) / det;
+    double i01 = (c * e) / det;
+    double i02 = (-a * c) / det;
+    double i11 = (a * f - c * c) / det;
+    double i12 = (-a * e) / det;
+    double i22 = (a * a) / det;
+
+    double[][] inverse = {
+      {i00, i01, i02},
+      {i01, i11, i12},
+      {i02, i12, i22}
+    };
+
+    double[] matrix = new double[3 * 2 * n];
+
+    for (int row = 0; row < 3; row++) {
+      for (int i = 0; i < n; i++) {
+        // Columns of A^T for module i
+        matrix[row * 2 * n + 2 * i] = 
+          inverse[row][0] - inverse[row][2] * moduleY[i];
+        matrix[row * 2 * n + 2 * i + 1] = 
+          inverse[row][1] + inverse[row][2] * moduleX[i];
+      }
+    }
+
+    return matrix;
+  }
+
+  /**
+   * Returns number of modules
+   * 
+   * @return number of modules
+   */
+  public int getModuleCount() {
+    return moduleX.length;
+  }
+
+  /**
+   * Returns module x position relative to robot center
+   * 
+   * @param module module index
+   * @return module x position in meters
+   */
+  public double getModuleX(int module) {
+    return moduleX[module];
+  }
+
+  /**
+   * Returns module y position relative to robot center
+   * 
+   * @param module module index
+   * @return module y position in meters
+   */
+  public double getModuleY(int module) {
+    return moduleY[module];
+  }
+
+  /**
+   * Converts robot-relative chassis speeds to module speeds and angles. 
+   * Stopped modules keep the angle already in the angle array.
+   * 
+   * @param vxMetersPerSec forward speed
+   * @param vyMetersPerSec left speed
+   * @param omegaRadiansPerSec counterclockwise rotation speed
+   * @param speedsMetersPerSec output module speeds
+   * @param anglesRotations output module angles, read as the previous angles
+   */
+  public void toModuleStates(
+      double vxMetersPerSec, 
+      double vyMetersPerSec, 
+      double omegaRadiansPerSec,
+      double[] speedsMetersPerSec,
+      double[] anglesRotations) {
+    
+    for (int i = 0; i < moduleX.length; i++) {
+      double x = vxMetersPerSec - omegaRadiansPerSec * moduleY[i];
+      double y = vyMetersPerSec + omegaRadiansPerSec * moduleX[i];
+
+      double speed = Math.hypot(x, y);
+      speedsMetersPerSec[i] = speed;
+
+      if (speed > STOPPED_SPEED_METERS_PER_SEC) {
+        anglesRotations[i] = Math.atan2(y, x) / (2.0 * Math.PI);
+      }
+    }
+  }
+
+  /**
+   * Converts module displacements to the robot-relative chassis displacement that best fits 
+   * them. Works the same for module speeds, giving chassis speeds.
+   * 
+   * @param distancesMeters distance each module moved
+   * @param anglesRotations angle of each module
+   * @param chassisDelta output forward, left and counterclockwise radians, length 3
+   */
+  public void toChassisDelta(
+      double[] distancesMeters, 
+      double[] anglesRotations, 
+      double[] chassisDelta) {
+    
+    int n = moduleX.length;
+
+    double dx = 0.0;
+    double dy = 0.0;
+    double dTheta = 0.0;
+
+    for (int i = 0; i < n; i++) {
+      double angleRadians = anglesRotations[i] * 2.0 * Math.PI;
+      double x = distancesMeters[i] * Math.cos(angleRadians);
+      double y = distancesMeters[i] * Math.sin(angleRadians);
+
+      dx += forwardMatrix[2 * i] * x + forwardMatrix[2 * i + 1] * y;
+      dy += forwardMatrix[2 * n + 2 * i] * x + forwardMatrix[2 * n + 2 * i + 1] * y;
+      dTheta += forwardMatrix[4 * n + 2 * i] * x + forwardMatrix[4 * n + 2 * i + 1] * y;
+    }
+
+    chassisDelta[0] = dx;
+    chassisDelta[1] = dy;
+    chassisDelta[2] = dTheta;
+  }
+
+  /**
+   * Scales module speeds down so none exceed the max speed, keeping their ratios
+   * 
+   * @param speedsMetersPerSec module speeds, scaled in place
+   * @param maxSpeedMetersPerSec max module speed
+   */
+  public static void desaturate(double[] speedsMetersPerSec, double maxSpeedMetersPerSec) {
+    double fastest = 0.0;
+
+    for (int i = 0; i < speedsMetersPerSec.length; i++) {
+      fastest = Math.max(fastest, Math.abs(speedsMetersPerSec[i]));
+    }
+
+    if (fastest <= maxSpeedMetersPerSec) {
+      return;
+    }
+
+    double scale = maxSpeedMetersPerSec / fastest;
+
+    for (int i = 0; i < speedsMetersPerSec.length; i++) {
+      speedsMetersPerSec[i] *= scale;
+    }
+  }
+
+  /**
+   * Wraps an angle to [-0.5, 0.5) rotations
+   * 
+   * @param rotations angle in rotations
+   * @return the wrapped angle
+   */
+  public static double wrapRotations(double rotations) {
+    return rotations - Math.floor(rotations + 0.5);
+  }
+}
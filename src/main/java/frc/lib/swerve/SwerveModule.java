@@ -0,0 +1,180 @@
+package frc.lib.swerve;
+
+import java.util.function.DoubleSupplier;
+
+import frc.lib.controller.position.PositionController;
+import frc.lib.controller.velocity.VelocityController;
+import frc.lib.sensor.absolute.AbsoluteEncoder;
+
+/** 
+ * Swerve module made of a drive velocity controller and a steer position controller. 
+ * The steer controller should close its loop on the module's absolute encoder.
+ */
+public class SwerveModule {
+
+  /** Drive motor, mechanism units are wheel rotations */
+  private final VelocityController drive;
+
+  /** Steer motor, mechanism units are module rotations */
+  private final PositionController steer;
+
+  /** Absolute encoder on the steer axis, null when the module has none */
+  private final AbsoluteEncoder steerEncoder;
+
+  /** Wheel circumference in meters */
+  private final double wheelCircumferenceMeters;
+
+  /** Cached getters, positions are latency compensated */
+  private final DoubleSupplier drivePosRotations;
+  private final DoubleSupplier driveVelRotationsPerSec;
+  private final DoubleSupplier steerPosRotations;
+
+  /**
+   * Creates a swerve module
+   * 
+   * @param drive drive motor, mechanism units are wheel rotations
+   * @param steer steer motor, mechanism units are module rotations
+   * @param steerEncoder absolute encoder on the steer axis, updated every loop, may be null
+   * @param wheelRadiusMeters wheel radius in meters
+   */
+  public SwerveModule(
+      VelocityController drive, 
+      PositionController steer, 
+      AbsoluteEncoder steerEncoder,
+      double wheelRadiusMeters) {
+    
+    this.drive = drive;
+    this.steer = steer;
+    this.steerEncoder = steerEncoder;
+    this.wheelCircumferenceMeters = 2.0 * Math.PI * wheelRadiusMeters;
+
+    drivePosRotations = drive.getCompensatedPosRotationsSupplier();
+    driveVelRotationsPerSec = drive.getVelRotationsPerSecSupplier();
+    steerPosRotations = steer.getCompensatedPosRotationsSupplier();
+  }
+
+  /**
+   * Creates a swerve module without an absolute encoder
+   * 
+   * @param drive drive motor, mechanism units are wheel rotations
+   * @param steer steer motor, mechanism units are module rotations
+   * @param wheelRadiusMeters wheel radius in meters
+   */
+  public SwerveModule(
+      VelocityController drive, 
+      PositionController steer, 
+      double wheelRadiusMeters) {
+    
+    this(drive, steer, null, wheelRadiusMeters);
+  }
+
+  /** Updates the steer encoder, called every loop by the drivetrain */
+  public void periodic() {
+    if (steerEncoder != null) {
+      steerEncoder.update();
+    }
+  }
+
+  /**
+   * Drives the module, flipping the wheel when that is a shorter turn and 
+   * scaling speed down while the module is still turning
+   * 
+   * @param speedMetersPerSec desired wheel speed
+   * @param angleRotations desired module angle
+   * @param accelMetersPerSecPerSec desired wheel acceleration, used for feedforward
+   */
+  public void setDesiredState(
+      double speedMetersPerSec, double angleRotations, double accelMetersPerSecPerSec) {
+    
+    double currentAngle = steerPosRotations.getAsDouble();
+    double error = SwerveKinematics.wrapRotations(angleRotations - currentAngle);
+
+    // Reverse the wheel instead of turning more than a quarter rotation
+    if (Math.abs(error) > 0.25) {
+      error = SwerveKinematics.wrapRotations(error + 0.5);
+      speedMetersPerSec = -speedMetersPerSec;
+      accelMetersPerSecPerSec = -accelMetersPerSecPerSec;
+    }
+
+    // Only drive the part of the speed the wheel is pointed along
+    double cosineScale = Math.cos(error * 2.0 * Math.PI);
+
+    steer.setSetpoint(currentAngle + error, 0.0);
+    drive.setSetpoint(
+      speedMetersPerSec * cosineScale / wheelCircumferenceMeters,
+      accelMetersPerSecPerSec * cosineScale / wheelCircumferenceMeters);
+  }
+
+  /**
+   * Drives the module with no acceleration feedforward
+   * 
+   * @param speedMetersPerSec desired wheel speed
+   * @param angleRotations desired module angle
+   */
+  public void setDesiredState(double speedMetersPerSec, double angleRotations) {
+    setDesiredState(speedMetersPerSec, angleRotations, 0.0);
+  }
+
+  /**
+   * Returns distance driven by the wheel
+   * 
+   * @return distance driven by the wheel in meters
+   */
+  public double getDrivePosMeters() {
+    return drivePosRotations.getAsDouble() * wheelCircumferenceMeters;
+  }
+
+  /**
+   * Returns wheel speed
+   * 
+   * @return wheel speed in meters per second
+   */
+  public double getDriveVelMetersPerSec() {
+    return driveVelRotationsPerSec.getAsDouble() * wheelCircumferenceMeters;
+  }
+
+  /**
+   * Returns module angle
+   * 
+   * @return module angle in rotations
+   */
+  public double getAngleRotations() {
+    return steerPosRotations.getAsDouble();
+  }
+
+  /**
+   * Returns wheel circumference
+   * 
+   * @return wheel circumference in meters
+   */
+  public double getWheelCircumferenceMeters() {
+    return wheelCircumferenceMeters;
+  }
+
+  /**
+   * Returns drive motor
+   * 
+   * @return drive motor
+   */
+  public VelocityController getDrive() {
+    return drive;
+  }
+
+  /**
+   * Returns steer motor
+   * 
+   * @return steer motor
+   */
+  public PositionController getSteer() {
+    return steer;
+  }
+
+  /**
+   * Returns absolute encoder on the steer axis
+   * 
+   * @return absolute encoder on the steer axis, null when the module has none
+   */
+  public AbsoluteEncoder getSteerEncoder() {
+    return steerEncoder;
+  }
+}
@@ -0,0 +1,309 @@
+package frc.lib.swerve;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.lib.configs.ControlledMotorConfig;
+
+/**
+ * Limits how fast chassis speeds change so every module stays within its acceleration and
+ * steer rate limits. Each step moves the last setpoint toward the desired chassis speeds by the
+ * largest fraction that no module violates, so the modules stay consistent with one rigid body
+ * motion instead of each being clamped on its own. Runs on primitive state and does not
+ * allocate.
+ */
+public class SwerveSetpointGenerator {
+
+  /** Speeds below this are treated as stopped, stopped modules are not steer limited */
+  private static final double STOPPED_SPEED_METERS_PER_SEC = 1e-4;
+
+  /** Bisection steps when searching for the steer limited fraction, resolves to 1 / 1024 */
+  private static final int STEER_SEARCH_ITERATIONS = 10;
+
+  /** Kinematics for the module layout */
+  private final SwerveKinematics kinematics;
+
+  /** Max module speed */
+  private final double maxSpeedMetersPerSec;
+
+  /** Max change in module velocity per step */
+  private final double maxVelStepMetersPerSec;
+
+  /** Max change in module angle per step */
+  private final double maxSteerStepRotations;
+
+  /** Time between steps */
+  private final double dtSeconds;
+
+  /** Last setpoint's chassis speeds */
+  private double prevVx = 0.0;
+  private double prevVy = 0.0;
+  private double prevOmega = 0.0;
+
+  /**
+   * Creates a swerve setpoint generator
+   * 
+   * @param kinematics kinematics for the module layout
+   * @param maxSpeedMetersPerSec max module speed
+   * @param maxAccelMetersPerSecPerSec max module acceleration
+   * @param maxSteerRateRotationsPerSec max module steer rate
+   * @param dtSeconds time between calls to generate
+   */
+  public SwerveSetpointGenerator(
+      SwerveKinematics kinematics,
+      double maxSpeedMetersPerSec,
+      double maxAccelMetersPerSecPerSec,
+      double maxSteerRateRotationsPerSec,
+      double dtSeconds) {
+
+    this.kinematics = kinematics;
+    this.maxSpeedMetersPerSec = maxSpeedMetersPerSec;
+    this.maxVelStepMetersPerSec = maxAccelMetersPerSecPerSec * dtSeconds;
+    this.maxSteerStepRotations = maxSteerRateRotationsPerSec * dtSeconds;
+    this.dtSeconds = dtSeconds;
+  }
+
+  /**
+   * Creates a swerve setpoint generator from the drive and steer motor configs. Drive max
+   * velocity and max acceleration are in wheel rotations, steer max velocity is in module
+   * rotations. Acceleration is further limited to what the drive stator current limit can
+   * deliver without slipping past it.
+   * 
+   * @param drive drivetrain
+   * @param driveMotor drive motor model, used to turn the stator current limit into torque
+   * @param robotMassKg robot mass
+   * @param dtSeconds time between calls to generate
+   * @return the created setpoint generator
+   */
+  public static SwerveSetpointGenerator fromModules(
+      SwerveDrive drive,
+      DCMotor driveMotor,
+      double robotMassKg,
+      double dtSeconds) {
+
+    SwerveModule[] modules = drive.getModules();
+
+    double maxAccel = Double.POSITIVE_INFINITY;
+    double maxSteerRate = Double.POSITIVE_INFINITY;
+
+    for (SwerveModule module : modules) {
+      double circumference = module.getWheelCircumferenceMeters();
+      ControlledMotorConfig driveConfig = module.getDrive().getConfig();
+
+      // Wheel force at the stator current limit, with each module carrying an equal share of mass
+      double wheelForceNewtons =
+        driveConfig.statorCurrentLimit()
+          * driveMotor.KtNMPerAmp
+          * driveConfig.motorToMechRatio()
+          / (circumference / (2.0 * Math.PI));
+      double currentAccel = wheelForceNewtons * modules.length / robotMassKg;
+
+      maxAccel = Math.min(
+        maxAccel, Math.min(driveConfig.maxAcceleration() * circumference, currentAccel));
+      maxSteerRate = Math.min(maxSteerRate, module.getSteer().getConfig().maxVelocity());
+    }
+
+    return new SwerveSetpointGenerator(
+      drive.getKinematics(),
+      drive.getMaxSpeedMetersPerSec(),
+      maxAccel,
+      maxSteerRate,
+      dtSeconds);
+  }
+
+  /**
+   * Sets the last setpoint, call with the measured chassis speeds when the drive is enabled
+   * 
+   * @param vxMetersPerSec forward speed
+   * @param vyMetersPerSec left speed
+   * @param omegaRadiansPerSec counterclockwise rotation speed
+   */
+  public void reset(double vxMetersPerSec, double vyMetersPerSec, double omegaRadiansPerSec) {
+    prevVx = vxMetersPerSec;
+    prevVy = vyMetersPerSec;
+    prevOmega = omegaRadiansPerSec;
+  }
+
+  /**
+   * Steps the setpoint toward robot-relative chassis speeds and writes the module setpoints.
+   * Stopped modules keep the angle already in the angle array.
+   * 
+   * @param desired desired robot-relative chassis speeds
+   * @param speedsMetersPerSec output module speeds
+   * @param anglesRotations output module angles, read as the previous angles
+   * @param accelsMetersPerSecPerSec output module accelerations along the wheel direction
+   */
+  public void generate(
+      ChassisSpeeds desired,
+      double[] speedsMetersPerSec,
+      double[] anglesRotations,
+      double[] accelsMetersPerSecPerSec) {
+
+    generate(
+      desired.vxMetersPerSecond,
+      desired.vyMetersPerSecond,
+      desired.omegaRadiansPerSecond,
+      speedsMetersPerSec,
+      anglesRotations,
+      accelsMetersPerSecPerSec);
+  }
+
+  /**
+   * Steps the setpoint toward robot-relative chassis speeds and writes the module setpoints.
+   * Stopped modules keep the angle already in the angle array.
+   * 
+   * @param vxMetersPerSec desired forward speed
+   * @param vyMetersPerSec desired left speed
+   * @param omegaRadiansPerSec desired counterclockwise rotation speed
+   * @param speedsMetersPerSec output module speeds
+   * @param anglesRotations output module angles, read as the previous angles
+   * @param accelsMetersPerSecPerSec output module accelerations along the wheel direction
+   */
+  public void generate(
+      double vxMetersPerSec,
+      double vyMetersPerSec,
+      double omegaRadiansPerSec,
+      double[] speedsMetersPerSec,
+      double[] anglesRotations,
+      double[] accelsMetersPerSecPerSec) {
+
+    int n = kinematics.getModuleCount();
+
+    // Scale the whole chassis down so the fastest module is at max speed
+    double fastest = 0.0;
+
+    for (int i = 0; i < n; i++) {
+      double x = vxMetersPerSec - omegaRadiansPerSec * kinematics.getModuleY(i);
+      double y = vyMetersPerSec + omegaRadiansPerSec * kinematics.getModuleX(i);
+      fastest = Math.max(fastest, Math.hypot(x, y));
+    }
+
+    if (fastest > maxSpeedMetersPerSec) {
+      double scale = maxSpeedMetersPerSec / fastest;
+      vxMetersPerSec *= scale;
+      vyMetersPerSec *= scale;
+      omegaRadiansPerSec *= scale;
+    }
+
+    double dVx = vxMetersPerSec - prevVx;
+    double dVy = vyMetersPerSec - prevVy;
+    double dOmega = omegaRadiansPerSec - prevOmega;
+
+    // Largest fraction of the step toward the desired speeds that every module allows
+    double fraction = 1.0;
+
+    for (int i = 0; i < n; i++) {
+      double moduleX = kinematics.getModuleX(i);
+      double moduleY = kinematics.getModuleY(i);
+
+      double x0 = prevVx - prevOmega * moduleY;
+      double y0 = prevVy + prevOmega * moduleX;
+      double dx = dVx - dOmega * moduleY;
+      double dy = dVy + dOmega * moduleX;
+
+      // Module velocity is linear in the fraction, so the acceleration limit is exact
+      double velStep = Math.hypot(dx, dy);
+
+      if (velStep * fraction > maxVelStepMetersPerSec) {
+        fraction = maxVelStepMetersPerSec / velStep;
+      }
+
+      fraction = Math.min(fraction, steerLimitedFraction(x0, y0, dx, dy, fraction));
+    }
+
+    double vx = prevVx + fraction * dVx;
+    double vy = prevVy + fraction * dVy;
+    double omega = prevOmega + fraction * dOmega;
+
+    kinematics.toModuleStates(vx, vy, omega, speedsMetersPerSec, anglesRotations);
+
+    for (int i = 0; i < n; i++) {
+      double moduleX = kinematics.getModuleX(i);
+      double moduleY = kinematics.getModuleY(i);
+
+      // Velocity change projected onto the new wheel direction
+      double angleRadians = anglesRotations[i] * 2.0 * Math.PI;
+      double dx = fraction * (dVx - dOmega * moduleY);
+      double dy = fraction * (dVy + dOmega * moduleX);
+
+      accelsMetersPerSecPerSec[i] =
+        (dx * Math.cos(angleRadians) + dy * Math.sin(angleRadians)) / dtSeconds;
+    }
+
+    prevVx = vx;
+    prevVy = vy;
+    prevOmega = omega;
+  }
+
+  /**
+   * Returns the largest fraction up to the max that keeps a module's angle change within the
+   * steer step. Modules may reverse instead of turning, so angles are compared over half
+   * rotations.
+   * 
+   * @param x0 previous module x velocity
+   * @param y0 previous module y velocity
+   * @param dx module x velocity change at a fraction of 1
+   * @param dy module y velocity change at a fraction of 1
+   * @param maxFraction largest fraction to search
+   * @return the steer limited fraction
+   */
+  private double steerLimitedFraction(
+      double x0, double y0, double dx, double dy, double maxFraction) {
+
+    // A stopped module can point anywhere, the module scales drive down while it turns
+    if (Math.hypot(x0, y0) < STOPPED_SPEED_METERS_PER_SEC) {
+      return maxFraction;
+    }
+
+    double prevAngle = Math.atan2(y0, x0) / (2.0 * Math.PI);
+
+    if (withinSteerStep(prevAngle, x0 + maxFraction * dx, y0 + maxFraction * dy)) {
+      return maxFraction;
+    }
+
+    double low = 0.0;
+    double high = maxFraction;
+
+    for (int i = 0; i < STEER_SEARCH_ITERATIONS; i++) {
+      double mid = 0.5 * (low + high);
+
+      if (withinSteerStep(prevAngle, x0 + mid * dx, y0 + mid * dy)) {
+        low = mid;
+      } else {
+        high = mid;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Returns whether a module velocity is reachable from the previous angle within one steer
+   * step, counting a reversed wheel as the same angle
+   * 
+   * @param prevAngle previous module angle in rotations
+   * @param x module x velocity
+   * @param y module y velocity
+   * @return true if the module velocity is within one steer step
+   */
+  private boolean withinSteerStep(double prevAngle, double x, double y) {
+    if (Math.hypot(x, y) < STOPPED_SPEED_METERS_PER_SEC) {
+      return true;
+    }
+
+    double error = Math.atan2(y, x) / (2.0 * Math.PI) - prevAngle;
+
+    // Wrap to [-0.25, 0.25) rotations
+    double halfError = 0.5 * SwerveKinematics.wrapRotations(2.0 * error);
+
+    return Math.abs(halfError) <= maxSteerStepRotations;
+  }
+
+  /**
+   * Returns time between steps
+   * 
+   * @return time between steps in seconds
+   */
+  public double getDtSeconds() {
+    return dtSeconds;
+  }
+}
@@ -0,0 +1,144 @@
+package frc.lib.timing;
+
+import java.util.Arrays;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/** 
+ * Times one component of the robot loop into a fixed-size histogram. 
+ * Recording is a couple of array stores, percentiles are only computed when published.
+ */
+public class LoopTimer {
+
+  /** Width of a histogram bucket */
+  private static final long BUCKET_NANOS = 10_000;
+
+  /** Number of buckets, the last bucket holds everything slower */
+  private static final int BUCKETS = 2_000;
+
+  /** Component name */
+  private final String name;
+
+  /** Time the component is allowed to take */
+  private final long budgetNanos;
+
+  /** Sample counts per bucket for the current window */
+  private final int[] counts = new int[BUCKETS];
+
+  /** Samples in the current window */
+  private int total = 0;
+
+  /** Slowest sample in the current window */
+  private long maxNanos = 0;
+
+  /** Samples over budget in the current window */
+  private int overruns = 0;
+
+  /** Published statistics */
+  private final DoublePublisher p50Publisher;
+  private final DoublePublisher p99Publisher;
+  private final DoublePublisher maxPublisher;
+  private final IntegerPublisher overrunPublisher;
+
+  /**
+   * Creates a loop timer
+   * 
+   * @param name component name
+   * @param budgetSeconds time the component is allowed to take
+   * @param table table the statistics are published to
+   */
+  LoopTimer(String name, double budgetSeconds, NetworkTable table) {
+    this.name = name;
+    this.budgetNanos = (long) (budgetSeconds * 1e9);
+
+    NetworkTable subTable = table.getSubTable(name);
+    p50Publisher = subTable.getDoubleTopic("p50Ms").publish();
+    p99Publisher = subTable.getDoubleTopic("p99Ms").publish();
+    maxPublisher = subTable.getDoubleTopic("maxMs").publish();
+    overrunPublisher = subTable.getIntegerTopic("overruns").publish();
+    subTable.getDoubleTopic("budgetMs").publish().set(budgetSeconds * 1000.0);
+  }
+
+  /**
+   * Returns a start timestamp to pass to stop()
+   * 
+   * @return a start timestamp to pass to stop()
+   */
+  public long start() {
+    return System.nanoTime();
+  }
+
+  /**
+   * Records the time since a start timestamp
+   * 
+   * @param startNanos timestamp returned by start()
+   */
+  public void stop(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * Records a sample
+   * 
+   * @param elapsedNanos time the component took
+   */
+  public synchronized void record(long elapsedNanos) {
+    int bucket = (int) Math.min(elapsedNanos / BUCKET_NANOS, BUCKETS - 1);
+
+    counts[bucket]++;
+    total++;
+    maxNanos = Math.max(maxNanos, elapsedNanos);
+
+    if (elapsedNanos > budgetNanos) {
+      overruns++;
+    }
+  }
+
+  /** Publishes the current window, warns if the budget was exceeded and starts a new window */
+  synchronized void publish() {
+    if (total == 0) {
+      return;
+    }
+
+    p50Publisher.set(percentileMillis(0.50));
+    p99Publisher.set(percentileMillis(0.99));
+    maxPublisher.set(maxNanos / 1e6);
+    overrunPublisher.set(overruns);
+
+    if (overruns > 0) {
+      DriverStation.reportWarning(
+        name + " exceeded its " + budgetNanos / 1e6 + " ms budget " + overruns + " times, max " 
+          + maxNanos / 1e6 + " ms", 
+        false);
+    }
+
+    Arrays.fill(counts, 0);
+    total = 0;
+    maxNanos = 0;
+    overruns = 0;
+  }
+
+  /**
+   * Returns a percentile of the current window
+   * 
+   * @param quantile quantile between 0 and 1
+   * @return the percentile in milliseconds, at the middle of its bucket
+   */
+  private double percentileMillis(double quantile) {
+    int target = (int) Math.ceil(quantile * total);
+    int cumulative = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      cumulative += counts[i];
+
+      if (cumulative >= target) {
+        return Math.min((i + 0.5) * BUCKET_NANOS, maxNanos) / 1e6;
+      }
+    }
+
+    return maxNanos / 1e6;
+  }
+}
@@ -0,0 +1,55 @@
+package frc.lib.timing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/** 
+ * Keeps every loop timer and publishes their p50, p99 and max to NetworkTables 
+ * under LoopTiming/, once per window
+ */
+public class LoopTiming {
+
+  /** Length of a statistics window */
+  private static final long WINDOW_NANOS = 1_000_000_000;
+
+  /** Table the statistics are published to */
+  private static final NetworkTable table = 
+    NetworkTableInstance.getDefault().getTable("LoopTiming");
+
+  /** Every timer */
+  private static final List<LoopTimer> timers = new ArrayList<>();
+
+  /** Start of the current window */
+  private static long windowStartNanos = System.nanoTime();
+
+  /**
+   * Creates a timer for a loop component
+   * 
+   * @param name component name
+   * @param budgetSeconds time the component is allowed to take
+   * @return the timer
+   */
+  public static synchronized LoopTimer create(String name, double budgetSeconds) {
+    LoopTimer timer = new LoopTimer(name, budgetSeconds, table);
+    timers.add(timer);
+    return timer;
+  }
+
+  /** Publishes every timer once the window has passed, should be called once per loop */
+  public static synchronized void publish() {
+    long now = System.nanoTime();
+
+    if (now - windowStartNanos < WINDOW_NANOS) {
+      return;
+    }
+
+    windowStartNanos = now;
+
+    for (int i = 0; i < timers.size(); i++) {
+      timers.get(i).publish();
+    }
+  }
+}
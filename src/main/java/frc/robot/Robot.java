@@ -4,22 +4,53 @@
 
 package frc.robot;
 
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.DeviceBringUp;
+import frc.lib.logging.DeviceLogger;
+import frc.lib.signal.BusBudget;
+import frc.lib.signal.SignalRegistry;
+import frc.lib.sim.HeadlessSimRunner;
+import frc.lib.sim.PhysicsSim;
+import frc.lib.timing.LoopTimer;
+import frc.lib.timing.LoopTiming;
 
 public class Robot extends TimedRobot {
   private Command m_autonomousCommand;
 
   private final RobotContainer m_robotContainer;
 
+  private final LoopTimer m_robotPeriodicTimer = LoopTiming.create("Robot.robotPeriodic", 0.015);
+
   public Robot() {
+    // Log to the USB stick when present, devices add themselves as they are created
+    DataLogManager.start();
+
     m_robotContainer = new RobotContainer();
+
+    // Plan signal rates once every device exists so each bus stays under budget
+    BusBudget.apply();
+
+    // Devices queue their configs when constructed, wait for all of them together
+    DeviceBringUp.awaitAll(5.0);
   }
 
   @Override
   public void robotPeriodic() {
+    long start = m_robotPeriodicTimer.start();
+
+    SignalRegistry.refreshAll();
+    DeviceLogger.logAll();
+
+    // Odometry samples arrive between loops, fold them in before commands read the pose
+    m_robotContainer.updateOdometry();
+
     CommandScheduler.getInstance().run();
+
+    m_robotPeriodicTimer.stop(start);
+    LoopTiming.publish();
   }
 
   @Override
@@ -69,4 +100,21 @@ public class Robot extends TimedRobot {
 
   @Override
   public void testExit() {}
+
+  @Override
+  public void simulationPeriodic() {
+    PhysicsSim.step(getPeriod());
+
+    // Lets a headless runner step time again once this loop is done
+    HeadlessSimRunner.signalLoopDone();
+  }
+
+  /**
+   * Returns the robot container, for simulation scenarios that check the robot's state
+   * 
+   * @return the robot container
+   */
+  public RobotContainer getRobotContainer() {
+    return m_robotContainer;
+  }
 }
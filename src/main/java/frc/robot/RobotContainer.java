@@ -4,17 +4,176 @@
 
 package frc.robot;
 
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotBase;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
+import frc.lib.CAN;
+import frc.lib.configs.AbsoluteEncoderConfig.AbsoluteEncoderBuilder;
+import frc.lib.configs.ControlledMotorConfig;
+import frc.lib.configs.ControlledMotorConfig.ControlledMotorBuilder;
+import frc.lib.configs.GyroConfig.GyroBuilder;
+import frc.lib.controller.position.PositionControllerTalonFXSteer;
+import frc.lib.controller.velocity.VelocityControllerTalonFX;
+import frc.lib.logging.DeviceLogger;
+import frc.lib.odometry.OdometryThread;
+import frc.lib.odometry.SwervePoseEstimator;
+import frc.lib.sensor.absolute.AbsoluteEncoderCANcoder;
+import frc.lib.sensor.gyro.GyroPigeon2;
+import frc.lib.swerve.SwerveDrive;
+import frc.lib.swerve.SwerveModule;
 
 public class RobotContainer {
+  /** CAN bus of the drivetrain, a CANivore so odometry can run above 100 Hz */
+  private static final String DRIVE_BUS = "canivore";
+
+  /** Module CAN ids, front left, front right, back left, back right */
+  private static final int[] DRIVE_IDS = {1, 4, 7, 10};
+  private static final int[] STEER_IDS = {2, 5, 8, 11};
+  private static final int[] ENCODER_IDS = {3, 6, 9, 12};
+  private static final int GYRO_ID = 13;
+
+  /** CANcoder offsets so every module reads zero pointing forward, measured on the robot */
+  private static final double[] ENCODER_OFFSETS_ROTATIONS = {0.0, 0.0, 0.0, 0.0};
+
+  /** Module positions relative to robot center in meters */
+  private static final Translation2d[] MODULE_TRANSLATIONS = {
+    new Translation2d(0.28, 0.28),
+    new Translation2d(0.28, -0.28),
+    new Translation2d(-0.28, 0.28),
+    new Translation2d(-0.28, -0.28)
+  };
+
+  private static final double WHEEL_RADIUS_METERS = 0.0508;
+  private static final double DRIVE_RATIO = 6.75;
+  private static final double STEER_RATIO = 150.0 / 7.0;
+  private static final double MAX_SPEED_METERS_PER_SEC = 4.5;
+
+  /** Simulated robot mass, shared evenly by the drive wheels */
+  private static final double SIM_ROBOT_MASS_KG = 50.0;
+
+  /** Simulated steer inertia of one module about its steer axis */
+  private static final double SIM_STEER_INERTIA = 0.004;
+
+  /** Autonomous drives forward at this speed for this long, then stops */
+  private static final double AUTO_SPEED_METERS_PER_SEC = 1.5;
+  private static final double AUTO_SECONDS = 2.0;
+
+  /** Drive motor config, mechanism units are wheel rotations */
+  private static final ControlledMotorConfig DRIVE_CONFIG = ControlledMotorBuilder.defaults()
+    .neutralBrake(true)
+    .motorToMechRatio(DRIVE_RATIO)
+    .statorCurrentLimit(80.0)
+    .supplyCurrentLimit(60.0)
+    .kP(0.2)
+    .kS(0.1)
+    .kV(12.0 / (100.0 / DRIVE_RATIO))
+    .build();
+
+  /** Steer motor config, mechanism units are module rotations */
+  private static final ControlledMotorConfig STEER_CONFIG = ControlledMotorBuilder.defaults()
+    .neutralBrake(true)
+    .motorToMechRatio(STEER_RATIO)
+    .statorCurrentLimit(40.0)
+    .supplyCurrentLimit(30.0)
+    .maxVelocity(100.0 / STEER_RATIO)
+    .maxAcceleration(1000.0 / STEER_RATIO)
+    .kP(50.0)
+    .kD(0.5)
+    .kS(0.1)
+    .kV(12.0 / (100.0 / STEER_RATIO))
+    .continuous(true)
+    .build();
+
+  private final GyroPigeon2 m_gyro;
+
+  private final SwerveDrive m_drive;
+
+  private final OdometryThread m_odometryThread = new OdometryThread();
+
+  private final SwervePoseEstimator m_poseEstimator;
+
   public RobotContainer() {
+    SwerveModule[] modules = new SwerveModule[DRIVE_IDS.length];
+
+    // Replays read logged inputs, so only a live simulation needs the physics models
+    boolean simulate = RobotBase.isSimulation() && !DeviceLogger.isReplay();
+
+    for (int i = 0; i < modules.length; i++) {
+      VelocityControllerTalonFX drive =
+        new VelocityControllerTalonFX(new CAN(DRIVE_IDS[i], DRIVE_BUS), DRIVE_CONFIG);
+
+      // The CANcoder the steer motor closes its loop on
+      AbsoluteEncoderCANcoder encoder = new AbsoluteEncoderCANcoder(
+        AbsoluteEncoderBuilder.defaults()
+          .offset(Rotation2d.fromRotations(ENCODER_OFFSETS_ROTATIONS[i]))
+          .build(),
+        new CAN(ENCODER_IDS[i], DRIVE_BUS));
+
+      PositionControllerTalonFXSteer steer = new PositionControllerTalonFXSteer(
+        new CAN(STEER_IDS[i], DRIVE_BUS),
+        new CAN(ENCODER_IDS[i], DRIVE_BUS),
+        FeedbackSensorSourceValue.RemoteCANcoder,
+        STEER_CONFIG);
+
+      if (simulate) {
+        drive.enableSimulation(
+          DCMotor.getKrakenX60(1),
+          SIM_ROBOT_MASS_KG * WHEEL_RADIUS_METERS * WHEEL_RADIUS_METERS / DRIVE_IDS.length);
+        steer.enableSimulation(DCMotor.getKrakenX60(1), SIM_STEER_INERTIA, encoder);
+      }
+
+      modules[i] = new SwerveModule(drive, steer, encoder, WHEEL_RADIUS_METERS);
+      m_odometryThread.addModule(drive, steer);
+    }
+
+    m_gyro = new GyroPigeon2(GyroBuilder.defaults().build(), new CAN(GYRO_ID, DRIVE_BUS));
+    m_odometryThread.setGyro(m_gyro);
+
+    m_drive = new SwerveDrive(modules, MODULE_TRANSLATIONS, MAX_SPEED_METERS_PER_SEC);
+
+    if (simulate) {
+      m_gyro.enableSimulation(m_drive::getMeasuredOmegaRadiansPerSec);
+    }
+
+    m_poseEstimator = new SwervePoseEstimator(
+      m_drive.getKinematics(),
+      modules[0].getWheelCircumferenceMeters());
+
+    m_odometryThread.start();
+
     configureBindings();
   }
 
   private void configureBindings() {}
 
+  /** Adds the odometry samples collected since the last loop to the pose estimate */
+  public void updateOdometry() {
+    m_poseEstimator.update(m_odometryThread);
+  }
+
+  /**
+   * Returns the estimated robot pose
+   * 
+   * @return the estimated robot pose
+   */
+  public Pose2d getPose() {
+    return m_poseEstimator.getPose();
+  }
+
+  /**
+   * Returns the autonomous command, drives forward then stops
+   * 
+   * @return the autonomous command
+   */
   public Command getAutonomousCommand() {
-    return Commands.print("No autonomous command configured");
+    return Commands.run(() -> m_drive.drive(AUTO_SPEED_METERS_PER_SEC, 0.0, 0.0), m_drive)
+      .withTimeout(AUTO_SECONDS)
+      .andThen(Commands.runOnce(m_drive::stop, m_drive));
   }
 }
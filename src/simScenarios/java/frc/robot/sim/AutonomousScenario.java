@@ -0,0 +1,91 @@
+package frc.robot.sim;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.lib.sim.HeadlessSimRunner;
+import frc.lib.sim.HeadlessSimRunner.Mode;
+import frc.lib.sim.PhysicsSim;
+import frc.lib.sim.SimScenario;
+import frc.robot.Robot;
+import frc.robot.RobotContainer;
+
+/**
+ * Runs a full autonomous period on the simulated drivetrain and checks the estimated pose
+ * follows the autonomous command, 1.5 m/s forward for 2 s then stopped, and the battery held up
+ */
+public class AutonomousScenario extends SimScenario {
+
+  /** Length of the autonomous period */
+  private static final double AUTONOMOUS_SECONDS = 15.0;
+
+  /** Distance the autonomous command drives */
+  private static final double EXPECTED_DISTANCE_METERS = 3.0;
+
+  /** Distance expected one second in, allowing for the drive to get up to speed */
+  private static final double EXPECTED_ONE_SECOND_METERS = 1.45;
+
+  /** Largest backward step between loops, pose noise rather than driving backward */
+  private static final double MAX_BACKWARD_STEP_METERS = 0.01;
+
+  /** Recorded trajectory, one sample per loop */
+  private final double[] timesSeconds = new double[1024];
+  private final double[] xMeters = new double[1024];
+  private final double[] yMeters = new double[1024];
+  private final double[] headingRadians = new double[1024];
+  private int samples = 0;
+
+  /** Lowest battery voltage seen */
+  private double minBatteryVoltage;
+
+  public AutonomousScenario() {
+    super("Autonomous");
+  }
+
+  @Override
+  public void run(HeadlessSimRunner runner) {
+    RobotContainer container = ((Robot) runner.getRobot()).getRobotContainer();
+
+    minBatteryVoltage = Double.MAX_VALUE;
+    samples = 0;
+
+    runner.setMode(Mode.AUTONOMOUS);
+    double startSeconds = runner.getTimeSeconds();
+
+    int loops = runner.run(AUTONOMOUS_SECONDS, timeSeconds -> {
+      minBatteryVoltage = Math.min(minBatteryVoltage, PhysicsSim.getBatteryVoltage());
+
+      if (samples < timesSeconds.length) {
+        Pose2d pose = container.getPose();
+
+        timesSeconds[samples] = timeSeconds - startSeconds;
+        xMeters[samples] = pose.getX();
+        yMeters[samples] = pose.getY();
+        headingRadians[samples] = pose.getRotation().getRadians();
+        samples++;
+      }
+    });
+
+    runner.setMode(Mode.DISABLED);
+
+    assertNear(
+      "Simulated autonomous time",
+      runner.getTimeSeconds() - startSeconds,
+      AUTONOMOUS_SECONDS,
+      runner.getRobot().getPeriod());
+    assertTrue("Autonomous ran " + loops + " loops", loops > 0);
+    assertTrue("Battery sagged to " + minBatteryVoltage + " V", minBatteryVoltage > 7.0);
+
+    for (int i = 1; i < samples; i++) {
+      assertTrue(
+        "Robot moved backward at " + timesSeconds[i] + " s",
+        xMeters[i] - xMeters[i - 1] > -MAX_BACKWARD_STEP_METERS);
+    }
+
+    int oneSecond = (int) Math.round(1.0 / runner.getRobot().getPeriod()) - 1;
+    assertNear("X after one second", xMeters[oneSecond], EXPECTED_ONE_SECOND_METERS, 0.2);
+
+    assertSettled(
+      "X once stopped", timesSeconds, xMeters, samples, 3.0, EXPECTED_DISTANCE_METERS, 0.3);
+    assertSettled("Y", timesSeconds, yMeters, samples, 0.0, 0.0, 0.05);
+    assertSettled("Heading", timesSeconds, headingRadians, samples, 0.0, 0.0, 0.05);
+  }
+}
@@ -0,0 +1,106 @@
+package frc.robot.sim;
+
+import java.io.IOException;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.lib.io.LogReplay;
+import frc.lib.logging.DeviceLogger;
+import frc.lib.sim.HeadlessSimRunner.Mode;
+import frc.robot.Robot;
+
+/**
+ * Replays a recorded log through the robot code as fast as possible. Device inputs and odometry
+ * samples come from the log, everything the robot computes from them is logged again to a new
+ * log for comparison. Loops run one at a time on this thread, with simulated time stepped to
+ * each loop's logged timestamp and the Driver Station set to its logged state first, so a replay
+ * is deterministic and runs the recorded mode changes at the recorded loops.
+ */
+public final class ReplayRunner {
+  private ReplayRunner() {}
+
+  /** Robot whose loop is run directly by the replay instead of by its notifier */
+  private static class ReplayRobot extends Robot {
+
+    /** Runs one robot loop */
+    private void runLoop() {
+      loopFunc();
+    }
+  }
+
+  /**
+   * Replays a log
+   * 
+   * @param args path to the .wpilog, then optionally the mode to run in for logs recorded 
+   *     without the Driver Station state (DISABLED, AUTONOMOUS or TELEOP, default TELEOP)
+   * @throws IOException if the log cannot be read
+   */
+  public static void main(String... args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("Usage: replay <log.wpilog> [DISABLED|AUTONOMOUS|TELEOP]");
+      System.exit(2);
+    }
+
+    Mode mode = args.length > 1 ? Mode.valueOf(args[1]) : Mode.TELEOP;
+
+    if (!HAL.initialize(500, 0)) {
+      throw new IllegalStateException("Failed to initialize the HAL");
+    }
+
+    LogReplay replay = new LogReplay(args[0]);
+    DeviceLogger.setReplay(replay);
+
+    SimHooks.pauseTiming();
+    DriverStationSim.setDsAttached(true);
+
+    // Enabled, autonomous and test, overwritten by each loop's logged state
+    double[] driverStation = {
+      mode != Mode.DISABLED ? 1.0 : 0.0,
+      mode == Mode.AUTONOMOUS ? 1.0 : 0.0,
+      0.0
+    };
+
+    long startNanos = System.nanoTime();
+    int loops = 0;
+
+    ReplayRobot robot = new ReplayRobot();
+    robot.robotInit();
+    robot.simulationInit();
+
+    double nextSeconds = replay.getNextLoopTimestampSeconds();
+
+    while (!Double.isNaN(nextSeconds)) {
+      // Loops logged before the replay's clock started run without stepping time
+      double stepSeconds = nextSeconds - Timer.getFPGATimestamp();
+
+      if (stepSeconds > 0.0) {
+        SimHooks.stepTiming(stepSeconds);
+      }
+
+      // The robot reads the Driver Station at the start of its loop, so apply it first
+      if (!DeviceLogger.advanceReplay(driverStation)) {
+        break;
+      }
+
+      DriverStationSim.setEnabled(driverStation[0] > 0.5);
+      DriverStationSim.setAutonomous(driverStation[1] > 0.5);
+      DriverStationSim.setTest(driverStation[2] > 0.5);
+      DriverStationSim.notifyNewData();
+
+      robot.runLoop();
+      loops++;
+
+      nextSeconds = replay.getNextLoopTimestampSeconds();
+    }
+
+    robot.close();
+    DataLogManager.stop();
+    SimHooks.resumeTiming();
+
+    System.out.println(String.format(
+      "Replayed %d loops in %.1f ms", loops, (System.nanoTime() - startNanos) / 1e6));
+  }
+}
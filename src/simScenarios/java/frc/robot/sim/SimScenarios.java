@@ -0,0 +1,44 @@
+package frc.robot.sim;
+
+import java.util.List;
+
+import frc.lib.sim.HeadlessSimRunner;
+import frc.lib.sim.SimScenario;
+import frc.robot.Robot;
+
+/** Runs every scenario headless against the robot, exits non zero if any fails */
+public final class SimScenarios {
+  private SimScenarios() {}
+
+  /** Scenarios, run in order against one robot */
+  private static final List<SimScenario> scenarios = List.of(
+    new AutonomousScenario(),
+    new SteerStepScenario());
+
+  public static void main(String... args) {
+    int failures = 0;
+
+    try (HeadlessSimRunner runner = new HeadlessSimRunner(Robot::new).start()) {
+      for (SimScenario scenario : scenarios) {
+        long startNanos = System.nanoTime();
+        String result;
+
+        try {
+          scenario.run(runner);
+          result = "PASS";
+        } catch (AssertionError e) {
+          result = "FAIL " + e.getMessage();
+          failures++;
+        }
+
+        System.out.println(String.format(
+          "%-24s %8.1f ms  %s",
+          scenario.getName(),
+          (System.nanoTime() - startNanos) / 1e6,
+          result));
+      }
+    }
+
+    System.exit(failures == 0 ? 0 : 1);
+  }
+}
@@ -0,0 +1,80 @@
+package frc.robot.sim;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import frc.lib.CAN;
+import frc.lib.configs.ControlledMotorConfig;
+import frc.lib.configs.ControlledMotorConfig.ControlledMotorBuilder;
+import frc.lib.controller.position.PositionControllerTalonFXSteer;
+import frc.lib.sim.HeadlessSimRunner;
+import frc.lib.sim.HeadlessSimRunner.Mode;
+import frc.lib.sim.SimScenario;
+
+/**
+ * Steps a simulated swerve steer motor a quarter turn and checks it settles.
+ * The loop closes on the simulated TalonFX, emulated by TalonFXSim on simulated time,
+ * so this scenario runs as fast as the CPU allows.
+ */
+public class SteerStepScenario extends SimScenario {
+
+  /** Length of the step response */
+  private static final double DURATION_SECONDS = 1.0;
+
+  /** Quarter turn setpoint */
+  private static final double SETPOINT_ROTATIONS = 0.25;
+
+  /** Steer module moment of inertia */
+  private static final double STEER_INERTIA = 0.004;
+
+  /** Recorded step response */
+  private final double[] timesSeconds = new double[128];
+  private final double[] posRotations = new double[128];
+  private int samples = 0;
+
+  public SteerStepScenario() {
+    super("Steer step");
+  }
+
+  @Override
+  public void run(HeadlessSimRunner runner) {
+    ControlledMotorConfig config = ControlledMotorBuilder.defaults()
+      .motorToMechRatio(150.0 / 7.0)
+      .statorCurrentLimit(60.0)
+      .kP(60.0)
+      .kD(0.5)
+      .continuous(true)
+      .build();
+
+    PositionControllerTalonFXSteer steer =
+      new PositionControllerTalonFXSteer(new CAN(40), config);
+    steer.enableSimulation(DCMotor.getKrakenX60(1), STEER_INERTIA);
+
+    DoubleSupplier pos = steer.getPosRotationsSupplier();
+    double startSeconds = runner.getTimeSeconds();
+    samples = 0;
+
+    runner.setMode(Mode.TELEOP);
+
+    runner.run(DURATION_SECONDS, timeSeconds -> {
+      steer.setSetpoint(SETPOINT_ROTATIONS, 0.0);
+
+      if (samples < timesSeconds.length) {
+        timesSeconds[samples] = timeSeconds - startSeconds;
+        posRotations[samples] = pos.getAsDouble();
+        samples++;
+      }
+    });
+
+    runner.setMode(Mode.DISABLED);
+
+    assertSettled(
+      "Steer position",
+      timesSeconds,
+      posRotations,
+      samples,
+      0.5,
+      SETPOINT_ROTATIONS,
+      0.01);
+  }
+}
@@ -0,0 +1,147 @@
+package frc.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.DoubleSupplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.sun.management.ThreadMXBean;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.lib.configs.AbsoluteEncoderConfig.AbsoluteEncoderBuilder;
+import frc.lib.configs.ControlledMotorConfig.ControlledMotorBuilder;
+import frc.lib.controller.position.PositionControllerTalonFXSteer;
+import frc.lib.controller.velocity.VelocityControllerTalonFX;
+import frc.lib.sensor.absolute.AbsoluteEncoderCANcoder;
+import frc.lib.signal.SignalRegistry;
+import frc.lib.swerve.SwerveDrive;
+import frc.lib.swerve.SwerveModule;
+import frc.lib.swerve.SwerveSetpointGenerator;
+
+/** 
+ * Checks that the per-loop getters, the signal refresh and the swerve drive path 
+ * allocate nothing after warm-up 
+ */
+public class AllocationTest {
+
+  /** Calls before measuring, enough for the JIT to compile the measured path */
+  private static final int WARMUP_CALLS = 20_000;
+
+  /** Calls measured */
+  private static final int MEASURED_CALLS = 10_000;
+
+  private static VelocityControllerTalonFX motor;
+  private static AbsoluteEncoderCANcoder encoder;
+  private static SwerveDrive swerveDrive;
+
+  /** Loop counter, varies the drive command so every branch of the drive path runs */
+  private static int loop = 0;
+
+  /** Sink so reads are not removed as dead code */
+  private static double sink = 0.0;
+
+  @BeforeAll
+  public static void setup() {
+    HAL.initialize(500, 0);
+
+    motor = new VelocityControllerTalonFX(new CAN(1), ControlledMotorBuilder.defaults().build());
+    encoder = new AbsoluteEncoderCANcoder(AbsoluteEncoderBuilder.defaults().build(), new CAN(2));
+
+    Translation2d[] translations = {
+      new Translation2d(0.28, 0.28),
+      new Translation2d(0.28, -0.28),
+      new Translation2d(-0.28, 0.28),
+      new Translation2d(-0.28, -0.28)
+    };
+    SwerveModule[] modules = new SwerveModule[translations.length];
+
+    for (int i = 0; i < modules.length; i++) {
+      modules[i] = new SwerveModule(
+        new VelocityControllerTalonFX(
+          new CAN(10 + 2 * i), ControlledMotorBuilder.defaults().build()),
+        new PositionControllerTalonFXSteer(
+          new CAN(11 + 2 * i), ControlledMotorBuilder.defaults().build()),
+        0.0508);
+    }
+
+    swerveDrive = new SwerveDrive(modules, translations, 4.5);
+  }
+
+  /** Drives the swerve drive with a command that turns and reverses over the loops */
+  private static void driveSwerve() {
+    loop++;
+    double angle = loop * 0.01;
+
+    swerveDrive.drive(3.0 * Math.cos(angle), 3.0 * Math.sin(angle), loop % 3 - 1.0);
+  }
+
+  /**
+   * Returns bytes allocated by the current thread while running the action, after warm-up
+   * 
+   * @param action the measured action
+   * @return bytes allocated over the measured calls
+   */
+  private static long allocatedBytes(Runnable action) {
+    ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      action.run();
+    }
+
+    long before = threads.getThreadAllocatedBytes(thread);
+
+    for (int i = 0; i < MEASURED_CALLS; i++) {
+      action.run();
+    }
+
+    return threads.getThreadAllocatedBytes(thread) - before;
+  }
+
+  /**
+   * Returns bytes allocated reading a getter, after warm-up
+   * 
+   * @param getter the measured getter
+   * @return bytes allocated over the measured calls
+   */
+  private static long allocatedBytes(DoubleSupplier getter) {
+    return allocatedBytes(() -> sink += getter.getAsDouble());
+  }
+
+  @Test
+  public void motorGettersDoNotAllocate() {
+    assertEquals(0, allocatedBytes(motor.getPosRotationsSupplier()));
+    assertEquals(0, allocatedBytes(motor.getVelRotationsPerSecSupplier()));
+    assertEquals(0, allocatedBytes(motor.getAccRotationsPerSecPerSecSupplier()));
+    assertEquals(0, allocatedBytes(motor.getVoltageSupplier()));
+    assertEquals(0, allocatedBytes(motor.getStatorCurrentSupplier()));
+    assertEquals(0, allocatedBytes(motor.getSupplyCurrentSupplier()));
+    assertEquals(0, allocatedBytes(motor.getCompensatedPosRotationsSupplier()));
+  }
+
+  @Test
+  public void encoderGettersDoNotAllocate() {
+    assertEquals(0, allocatedBytes(encoder.getPosRotationsSupplier()));
+    assertEquals(0, allocatedBytes(encoder.getVelRotationsPerSecSupplier()));
+    assertEquals(0, allocatedBytes(encoder.getCompensatedPosRotationsSupplier()));
+  }
+
+  @Test
+  public void swerveDriveDoesNotAllocate() {
+    swerveDrive.setSetpointGenerator(null);
+    assertEquals(0, allocatedBytes(AllocationTest::driveSwerve));
+
+    swerveDrive.setSetpointGenerator(
+      new SwerveSetpointGenerator(swerveDrive.getKinematics(), 4.5, 10.0, 2.0, 0.02));
+    assertEquals(0, allocatedBytes(AllocationTest::driveSwerve));
+  }
+
+  @Test
+  public void signalRefreshDoesNotAllocate() {
+    assertEquals(0, allocatedBytes(SignalRegistry::refreshAll));
+  }
+}
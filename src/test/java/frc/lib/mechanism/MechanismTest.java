@@ -0,0 +1,168 @@
+package frc.lib.mechanism;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.DoubleSupplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.ctre.phoenix6.signals.GravityTypeValue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import frc.lib.configs.FeedbackControllerConfig.FeedbackControllerBuilder;
+import frc.lib.configs.FeedforwardControllerConfig.FeedforwardControllerBuilder;
+import frc.lib.configs.MechanismConfig;
+import frc.lib.configs.MechanismConfig.MechanismBuilder;
+import frc.lib.configs.MotionProfileConfig.MotionProfileBuilder;
+import frc.lib.controller.position.PositionController;
+
+/** Checks the RIO side profile used when the motor controller cannot run goals itself */
+public class MechanismTest {
+
+  /** Loop period, matches the PID controller's default period */
+  private static final double DT_SECONDS = 0.02;
+
+  private static final double MAX_VELOCITY = 2.0;
+  private static final double MAX_ACCELERATION = 4.0;
+  private static final double KV = 1.5;
+
+  /** Slack for floating point error */
+  private static final double EPSILON = 1e-9;
+
+  /**
+   * Position controller without onboard closed loop, driving an ideal mechanism whose 
+   * velocity is the applied voltage divided by kV
+   */
+  private static class StubPositionController extends PositionController {
+
+    private double posRotations = 0.0;
+    private double velRotationsPerSec = 0.0;
+
+    @Override
+    public void configure() {}
+
+    @Override
+    public void setSetpoint(double posRotations, double velRotationsPerSec) {
+      throw new UnsupportedOperationException("Mechanism should only send voltages");
+    }
+
+    @Override
+    public void setPos(double posRotations) {
+      this.posRotations = posRotations;
+    }
+
+    @Override
+    public void setVoltage(double volts) {
+      double nextVel = volts / KV;
+      posRotations += 0.5 * (velRotationsPerSec + nextVel) * DT_SECONDS;
+      velRotationsPerSec = nextVel;
+    }
+
+    @Override
+    public DoubleSupplier getPosRotationsSupplier() {
+      return () -> posRotations;
+    }
+
+    @Override
+    public DoubleSupplier getVelRotationsPerSecSupplier() {
+      return () -> velRotationsPerSec;
+    }
+  }
+
+  @BeforeAll
+  public static void setup() {
+    HAL.initialize(500, 0);
+
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+  }
+
+  /**
+   * Creates a mechanism on a stub controller, feedforward only so the mechanism follows the 
+   * profile exactly
+   * 
+   * @param motor the stub controller
+   * @return the mechanism
+   */
+  private static Mechanism createMechanism(StubPositionController motor) {
+    MechanismConfig config = MechanismBuilder.defaults()
+      .feedbackControllerConfig(
+        FeedbackControllerBuilder.defaults()
+          .tolerance(0.01)
+          .rateTolerance(0.01)
+          .build())
+      .feedforwardControllerConfig(
+        FeedforwardControllerBuilder.defaults()
+          .kV(KV)
+          .build())
+      .motionProfileConfig(
+        MotionProfileBuilder.defaults()
+          .maxVelocity(MAX_VELOCITY)
+          .maxAcceleration(MAX_ACCELERATION)
+          .build())
+      .build();
+
+    return new Mechanism(config, motor, null, GravityTypeValue.Elevator_Static);
+  }
+
+  /**
+   * Moves to a goal and checks every step stays within the profile limits
+   * 
+   * @param goalRotations the goal
+   */
+  private static void checkProfile(double goalRotations) {
+    StubPositionController motor = new StubPositionController();
+    Mechanism mechanism = createMechanism(motor);
+
+    assertFalse(mechanism.isOnboard());
+
+    // Trapezoid time to the goal, or triangle time when max velocity is never reached
+    double distance = Math.abs(goalRotations);
+    double expectedSeconds = distance >= MAX_VELOCITY * MAX_VELOCITY / MAX_ACCELERATION
+      ? distance / MAX_VELOCITY + MAX_VELOCITY / MAX_ACCELERATION
+      : 2.0 * Math.sqrt(distance / MAX_ACCELERATION);
+    int maxLoops = (int) Math.ceil(expectedSeconds / DT_SECONDS) + 5;
+
+    mechanism.update();
+    mechanism.setGoal(goalRotations);
+
+    double lastVel = motor.velRotationsPerSec;
+
+    for (int i = 0; i < maxLoops && !mechanism.atGoal(); i++) {
+      mechanism.update();
+
+      double vel = motor.velRotationsPerSec;
+      double direction = Math.signum(goalRotations);
+
+      assertTrue(Math.abs(vel) <= MAX_VELOCITY + EPSILON, "velocity " + vel);
+      assertTrue(
+        Math.abs(vel - lastVel) <= MAX_ACCELERATION * DT_SECONDS + EPSILON, 
+        "acceleration " + (vel - lastVel) / DT_SECONDS);
+      assertTrue(
+        (motor.posRotations - goalRotations) * direction <= 0.01, 
+        "overshoot at " + motor.posRotations);
+
+      lastVel = vel;
+    }
+
+    assertTrue(mechanism.atGoal(), "stopped at " + motor.posRotations);
+  }
+
+  @Test
+  public void trapezoidReachesGoalWithinLimits() {
+    checkProfile(2.0);
+  }
+
+  @Test
+  public void triangleReachesGoalWithinLimits() {
+    checkProfile(0.3);
+  }
+
+  @Test
+  public void reverseReachesGoalWithinLimits() {
+    checkProfile(-1.5);
+  }
+}
@@ -0,0 +1,197 @@
+package frc.lib.odometry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.lib.swerve.SwerveKinematics;
+
+/** Checks the pose estimator agrees with WPILib's on the same samples and vision measurements */
+public class SwervePoseEstimatorTest {
+
+  /** Sample period, the default odometry frequency */
+  private static final double DT_SECONDS = 1.0 / OdometryThread.DEFAULT_FREQUENCY_HZ;
+
+  /** Timestamp of the first sample */
+  private static final double START_SECONDS = 1.0;
+
+  private static final double WHEEL_CIRCUMFERENCE_METERS = 2.0 * Math.PI * 0.0508;
+
+  private static final Translation2d[] MODULE_TRANSLATIONS = {
+    new Translation2d(0.28, 0.28),
+    new Translation2d(0.28, -0.28),
+    new Translation2d(-0.28, 0.28),
+    new Translation2d(-0.28, -0.28)
+  };
+
+  /**
+   * Allowed difference, WPILib interpolates and fuses along twists where this estimator is
+   * linear, which only differs to second order over one sample or a small correction
+   */
+  private static final double TOLERANCE_METERS = 0.01;
+  private static final double TOLERANCE_RADIANS = 0.01;
+
+  /** Vision measurement offset from the estimate at its timestamp */
+  private static final double VISION_OFFSET_X = 0.3;
+  private static final double VISION_OFFSET_Y = -0.2;
+  private static final double VISION_OFFSET_RADIANS = 0.1;
+
+  /** Both estimators fed the same samples */
+  private final SwerveKinematics kinematics = new SwerveKinematics(MODULE_TRANSLATIONS);
+  private final SwervePoseEstimator estimator =
+    new SwervePoseEstimator(kinematics, WHEEL_CIRCUMFERENCE_METERS);
+  private final SwerveDriveKinematics wpilibKinematics =
+    new SwerveDriveKinematics(MODULE_TRANSLATIONS);
+  private SwerveDrivePoseEstimator wpilibEstimator;
+
+  /** Drive and steer positions of the current sample */
+  private final double[] drivePosRotations = new double[MODULE_TRANSLATIONS.length];
+  private final double[] steerPosRotations = new double[MODULE_TRANSLATIONS.length];
+  private final double[] speedsMetersPerSec = new double[MODULE_TRANSLATIONS.length];
+  private double yawRotations = 0.0;
+
+  /** WPILib's estimate after every sample, for picking vision measurements */
+  private final Pose2d[] wpilibPoses = new Pose2d[2000];
+  private int samples = 0;
+
+  /**
+   * Returns WPILib module positions of the current sample
+   * 
+   * @return module positions
+   */
+  private SwerveModulePosition[] modulePositions() {
+    SwerveModulePosition[] positions = new SwerveModulePosition[drivePosRotations.length];
+
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = new SwerveModulePosition(
+        drivePosRotations[i] * WHEEL_CIRCUMFERENCE_METERS,
+        Rotation2d.fromRotations(steerPosRotations[i]));
+    }
+
+    return positions;
+  }
+
+  /**
+   * Returns timestamp of a sample
+   * 
+   * @param sample sample index
+   * @return timestamp in seconds
+   */
+  private static double timestamp(int sample) {
+    return START_SECONDS + sample * DT_SECONDS;
+  }
+
+  /**
+   * Drives a varying curve and adds each sample to both estimators, checking they agree
+   * 
+   * @param count number of samples to add
+   */
+  private void drive(int count) {
+    for (int i = 0; i < count; i++) {
+      double t = timestamp(samples);
+
+      if (samples > 0) {
+        double vx = 1.5 + 0.5 * Math.sin(t);
+        double vy = 0.5 * Math.cos(0.7 * t);
+        double omega = 0.8 * Math.sin(0.5 * t);
+
+        kinematics.toModuleStates(vx, vy, omega, speedsMetersPerSec, steerPosRotations);
+
+        for (int m = 0; m < drivePosRotations.length; m++) {
+          drivePosRotations[m] += speedsMetersPerSec[m] * DT_SECONDS / WHEEL_CIRCUMFERENCE_METERS;
+        }
+
+        yawRotations += omega * DT_SECONDS / (2.0 * Math.PI);
+      }
+
+      if (wpilibEstimator == null) {
+        wpilibEstimator = new SwerveDrivePoseEstimator(
+          wpilibKinematics,
+          Rotation2d.fromRotations(yawRotations),
+          modulePositions(),
+          Pose2d.kZero);
+      }
+
+      estimator.accept(t, drivePosRotations, steerPosRotations, yawRotations);
+      wpilibEstimator.updateWithTime(t, Rotation2d.fromRotations(yawRotations), modulePositions());
+
+      wpilibPoses[samples++] = wpilibEstimator.getEstimatedPosition();
+      assertAgree("sample " + samples);
+    }
+  }
+
+  /**
+   * Adds a vision measurement to both estimators, offset from the estimate between two samples
+   * 
+   * @param sample the measurement is taken half way between this sample and the next
+   * @return whether this estimator used the measurement
+   */
+  private boolean addVision(int sample) {
+    Pose2d pose = wpilibPoses[sample];
+    Pose2d measured = new Pose2d(
+      pose.getX() + VISION_OFFSET_X,
+      pose.getY() + VISION_OFFSET_Y,
+      pose.getRotation().plus(Rotation2d.fromRadians(VISION_OFFSET_RADIANS)));
+    double t = timestamp(sample) + 0.5 * DT_SECONDS;
+
+    wpilibEstimator.addVisionMeasurement(measured, t);
+    boolean used = estimator.addVisionMeasurement(
+      measured.getX(), measured.getY(), measured.getRotation().getRadians(), t);
+
+    assertAgree("vision at sample " + sample);
+    return used;
+  }
+
+  /**
+   * Checks both estimates agree
+   * 
+   * @param when what was just added, for the failure message
+   */
+  private void assertAgree(String when) {
+    Pose2d expected = wpilibEstimator.getEstimatedPosition();
+
+    assertEquals(expected.getX(), estimator.getX(), TOLERANCE_METERS, "x after " + when);
+    assertEquals(expected.getY(), estimator.getY(), TOLERANCE_METERS, "y after " + when);
+    assertEquals(
+      0.0,
+      MathUtil.angleModulus(estimator.getHeadingRadians() - expected.getRotation().getRadians()),
+      TOLERANCE_RADIANS,
+      "heading after " + when);
+  }
+
+  @Test
+  public void matchesWpilibWithVision() {
+    drive(200);
+
+    assertTrue(addVision(150));
+
+    // The correction carries forward as the robot keeps driving
+    drive(100);
+  }
+
+  @Test
+  public void matchesWpilibAfterHistoryWraps() {
+    // Four seconds of samples, more than the 1.5 s history holds
+    drive(1000);
+
+    assertTrue(estimator.getHistorySize() < samples);
+    assertTrue(addVision(samples - 125));
+
+    drive(200);
+
+    // Older than either history, both estimators ignore it
+    assertFalse(addVision(samples - 750));
+
+    drive(100);
+    assertTrue(addVision(samples - 10));
+  }
+}
@@ -0,0 +1,280 @@
+package frc.lib.power;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.function.DoubleSupplier;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.hal.HAL;
+import frc.lib.configs.ControlledMotorConfig.ControlledMotorBuilder;
+import frc.lib.controller.ControlledMotor;
+
+/** Checks the supply current budget is shared out within each motor's range */
+public class PowerManagerTest {
+
+  private static final double BUDGET_AMPS = 200.0;
+  private static final double NOMINAL_VOLTS = 12.0;
+  private static final double BROWNOUT_VOLTS = 7.0;
+  private static final double HYSTERESIS_AMPS = 1.0;
+
+  /** Slack for floating point error */
+  private static final double EPSILON = 1e-6;
+
+  /** Motor that reports set readings and records the limits it is sent */
+  private static class StubMotor extends ControlledMotor {
+
+    private double supplyCurrent = 0.0;
+    private double supplyVoltage = NOMINAL_VOLTS;
+
+    /** Supply current limit in use */
+    private double limit;
+
+    /** Number of limits sent */
+    private int sends = 0;
+
+    /**
+     * Creates a stub motor
+     * 
+     * @param supplyCurrentLimit configured supply current limit
+     */
+    private StubMotor(double supplyCurrentLimit) {
+      setConfig(ControlledMotorBuilder.defaults().supplyCurrentLimit(supplyCurrentLimit).build());
+      limit = supplyCurrentLimit;
+    }
+
+    @Override
+    public void configure() {}
+
+    @Override
+    public DoubleSupplier getSupplyCurrentSupplier() {
+      return () -> supplyCurrent;
+    }
+
+    @Override
+    public DoubleSupplier getSupplyVoltageSupplier() {
+      return () -> supplyVoltage;
+    }
+
+    @Override
+    public void overrideSupplyCurrentLimit(double supplyCurrentLimit) {
+      limit = supplyCurrentLimit;
+      sends++;
+    }
+
+    @Override
+    public void clearSupplyCurrentLimitOverride() {
+      if (limit != getConfig().supplyCurrentLimit()) {
+        limit = getConfig().supplyCurrentLimit();
+        sends++;
+      }
+    }
+
+    @Override
+    public double getSupplyCurrentLimit() {
+      return limit;
+    }
+  }
+
+  @BeforeAll
+  public static void setup() {
+    HAL.initialize(500, 0);
+  }
+
+  /**
+   * Creates stub motors
+   * 
+   * @param count number of motors
+   * @param supplyCurrentLimit configured supply current limit of each
+   * @return the motors
+   */
+  private static StubMotor[] createMotors(int count, double supplyCurrentLimit) {
+    StubMotor[] motors = new StubMotor[count];
+
+    for (int i = 0; i < count; i++) {
+      motors[i] = new StubMotor(supplyCurrentLimit);
+    }
+
+    return motors;
+  }
+
+  /**
+   * Sets readings of every motor
+   * 
+   * @param motors the motors
+   * @param supplyCurrent supply current of each
+   * @param supplyVoltage supply voltage of each
+   */
+  private static void setReadings(StubMotor[] motors, double supplyCurrent, double supplyVoltage) {
+    for (StubMotor motor : motors) {
+      motor.supplyCurrent = supplyCurrent;
+      motor.supplyVoltage = supplyVoltage;
+    }
+  }
+
+  /**
+   * Returns the sum of the limits in use
+   * 
+   * @param groups motor groups
+   * @return sum of the limits in use
+   */
+  private static double sumLimits(StubMotor[]... groups) {
+    double sum = 0.0;
+
+    for (StubMotor[] group : groups) {
+      for (StubMotor motor : group) {
+        sum += motor.getSupplyCurrentLimit();
+      }
+    }
+
+    return sum;
+  }
+
+  /**
+   * Checks every limit in use lies between the minimum and the configured limit
+   * 
+   * @param motors the motors
+   * @param minLimit lowest limit given
+   */
+  private static void assertWithinRange(StubMotor[] motors, double minLimit) {
+    for (StubMotor motor : motors) {
+      double limit = motor.getSupplyCurrentLimit();
+
+      assertTrue(limit >= minLimit - EPSILON, "limit " + limit + " below minimum");
+      assertTrue(
+        limit <= motor.getConfig().supplyCurrentLimit() + EPSILON,
+        "limit " + limit + " above configured " + motor.getConfig().supplyCurrentLimit());
+    }
+  }
+
+  @Test
+  public void limitsSumToBudget() {
+    PowerManager manager =
+      new PowerManager(BUDGET_AMPS, NOMINAL_VOLTS, BROWNOUT_VOLTS, HYSTERESIS_AMPS);
+    StubMotor[] drive = createMotors(4, 60.0);
+    StubMotor[] steer = createMotors(4, 30.0);
+
+    manager.addMotors(2.0, 20.0, drive);
+    manager.addMotors(1.0, 10.0, steer);
+
+    setReadings(drive, 40.0, NOMINAL_VOLTS);
+    setReadings(steer, 10.0, NOMINAL_VOLTS);
+    manager.update();
+
+    assertTrue(manager.isEngaged());
+    assertEquals(BUDGET_AMPS, sumLimits(drive, steer), EPSILON);
+    assertWithinRange(drive, 20.0);
+    assertWithinRange(steer, 10.0);
+
+    // Leftover after the minimums is split two to one between the groups
+    assertEquals(20.0 + 80.0 * 2.0 / 12.0, drive[0].getSupplyCurrentLimit(), EPSILON);
+    assertEquals(10.0 + 80.0 / 12.0, steer[0].getSupplyCurrentLimit(), EPSILON);
+
+    // Half way to brownout the budget halves, but never below the minimums
+    setReadings(drive, 40.0, 9.5);
+    setReadings(steer, 10.0, 9.5);
+    manager.update();
+
+    assertEquals(120.0, manager.getAvailableAmps(), EPSILON);
+    assertEquals(120.0, sumLimits(drive, steer), EPSILON);
+  }
+
+  @Test
+  public void configuredLimitsCapShares() {
+    PowerManager manager = new PowerManager(100.0, NOMINAL_VOLTS, BROWNOUT_VOLTS, HYSTERESIS_AMPS);
+    StubMotor[] drive = createMotors(2, 60.0);
+    StubMotor[] steer = createMotors(2, 12.0);
+
+    // Steer would take most of the leftover by weight, but is capped at its configured limit
+    manager.addMotors(1.0, 20.0, drive);
+    manager.addMotors(10.0, 10.0, steer);
+
+    setReadings(drive, 45.0, NOMINAL_VOLTS);
+    setReadings(steer, 5.0, NOMINAL_VOLTS);
+    manager.update();
+
+    assertTrue(manager.isEngaged());
+    assertWithinRange(drive, 20.0);
+    assertWithinRange(steer, 10.0);
+    assertEquals(12.0, steer[0].getSupplyCurrentLimit(), EPSILON);
+
+    // What steer could not take goes to drive, so the whole budget is still given out
+    assertEquals(100.0, sumLimits(drive, steer), EPSILON);
+    assertEquals(38.0, drive[0].getSupplyCurrentLimit(), EPSILON);
+  }
+
+  @Test
+  public void engagesAndReleasesAcrossBand() {
+    PowerManager manager =
+      new PowerManager(BUDGET_AMPS, NOMINAL_VOLTS, BROWNOUT_VOLTS, HYSTERESIS_AMPS);
+    StubMotor[] drive = createMotors(4, 60.0);
+
+    manager.addMotors(1.0, 20.0, drive);
+
+    // Below 80 % of the budget limits stay configured
+    setReadings(drive, 0.7 * BUDGET_AMPS / 4.0, NOMINAL_VOLTS);
+    manager.update();
+
+    assertFalse(manager.isEngaged());
+    assertEquals(0, drive[0].sends);
+
+    setReadings(drive, 0.85 * BUDGET_AMPS / 4.0, NOMINAL_VOLTS);
+    manager.update();
+
+    assertTrue(manager.isEngaged());
+    assertEquals(50.0, drive[0].getSupplyCurrentLimit(), EPSILON);
+
+    // Between 60 % and 80 % the limits hold
+    setReadings(drive, 0.7 * BUDGET_AMPS / 4.0, NOMINAL_VOLTS);
+    manager.update();
+
+    assertTrue(manager.isEngaged());
+
+    setReadings(drive, 0.5 * BUDGET_AMPS / 4.0, NOMINAL_VOLTS);
+    manager.update();
+
+    assertFalse(manager.isEngaged());
+    assertEquals(60.0, drive[0].getSupplyCurrentLimit(), EPSILON);
+  }
+
+  @Test
+  public void smallChangesAreNotSent() {
+    PowerManager manager =
+      new PowerManager(BUDGET_AMPS, NOMINAL_VOLTS, BROWNOUT_VOLTS, HYSTERESIS_AMPS);
+    StubMotor[] drive = createMotors(4, 60.0);
+    StubMotor[] steer = createMotors(4, 30.0);
+
+    manager.addMotors(2.0, 20.0, drive);
+    manager.addMotors(1.0, 10.0, steer);
+
+    setReadings(drive, 40.0, NOMINAL_VOLTS);
+    setReadings(steer, 10.0, NOMINAL_VOLTS);
+    manager.update();
+
+    int driveSends = drive[0].sends;
+    int steerSends = steer[0].sends;
+    double driveLimit = drive[0].getSupplyCurrentLimit();
+
+    // A 1 % smaller budget moves every share by less than the hysteresis
+    setReadings(drive, 40.0, 11.95);
+    setReadings(steer, 10.0, 11.95);
+    manager.update();
+
+    assertEquals(driveSends, drive[0].sends);
+    assertEquals(steerSends, steer[0].sends);
+    assertEquals(driveLimit, drive[0].getSupplyCurrentLimit(), EPSILON);
+
+    // A 10 % smaller budget moves them past it
+    setReadings(drive, 40.0, 11.5);
+    setReadings(steer, 10.0, 11.5);
+    manager.update();
+
+    assertEquals(driveSends + 1, drive[0].sends);
+    assertEquals(steerSends + 1, steer[0].sends);
+    assertEquals(30.0, drive[0].getSupplyCurrentLimit(), EPSILON);
+    assertEquals(15.0, steer[0].getSupplyCurrentLimit(), EPSILON);
+  }
+}